@@ -1,11 +1,16 @@
 package com.ayustore;
 
+import com.ayustore.config.InventoryProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
+@EnableConfigurationProperties(InventoryProperties.class)
 public class AyuStoreApplication {
 
     @org.springframework.context.annotation.Bean
@@ -1,5 +1,6 @@
 package com.ayustore.config;
 
+import com.ayustore.entity.Money;
 import com.ayustore.entity.Product;
 import com.ayustore.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
@@ -9,7 +10,6 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 @Slf4j
@@ -34,7 +34,7 @@ public class DataSeeder {
                 List<Product> products = List.of(
                                 Product.builder()
                                                 .name("Premium Wireless Headphones")
-                                                .price(new BigDecimal("129.99"))
+                                                .price(Money.of("129.99"))
                                                 .description(
                                                                 "Experience high-fidelity audio with our premium noise-cancelling headphones. Designed for comfort and longevity with 30-hour battery life.")
                                                 .category("Electronics")
@@ -46,7 +46,7 @@ public class DataSeeder {
                                                 .build(),
                                 Product.builder()
                                                 .name("Ergonomic Office Chair")
-                                                .price(new BigDecimal("299.99"))
+                                                .price(Money.of("299.99"))
                                                 .description(
                                                                 "Premium ergonomic chair with lumbar support, adjustable armrests, and breathable mesh back. Perfect for long work sessions.")
                                                 .category("Furniture")
@@ -58,7 +58,7 @@ public class DataSeeder {
                                                 .build(),
                                 Product.builder()
                                                 .name("Smart Watch Pro")
-                                                .price(new BigDecimal("249.99"))
+                                                .price(Money.of("249.99"))
                                                 .description(
                                                                 "Advanced smartwatch with health monitoring, GPS, and 7-day battery life. Water resistant up to 50m.")
                                                 .category("Electronics")
@@ -70,7 +70,7 @@ public class DataSeeder {
                                                 .build(),
                                 Product.builder()
                                                 .name("Minimalist Desk Lamp")
-                                                .price(new BigDecimal("49.99"))
+                                                .price(Money.of("49.99"))
                                                 .description(
                                                                 "Modern LED desk lamp with adjustable brightness and color temperature. USB charging port included.")
                                                 .category("Accessories")
@@ -82,7 +82,7 @@ public class DataSeeder {
                                                 .build(),
                                 Product.builder()
                                                 .name("Leather Laptop Bag")
-                                                .price(new BigDecimal("89.99"))
+                                                .price(Money.of("89.99"))
                                                 .description(
                                                                 "Handcrafted genuine leather laptop bag with padded compartment for laptops up to 15 inches. Multiple pockets for organization.")
                                                 .category("Accessories")
@@ -94,7 +94,7 @@ public class DataSeeder {
                                                 .build(),
                                 Product.builder()
                                                 .name("Mechanical Keyboard")
-                                                .price(new BigDecimal("159.99"))
+                                                .price(Money.of("159.99"))
                                                 .description(
                                                                 "Premium mechanical keyboard with Cherry MX switches, RGB backlighting, and aircraft-grade aluminum frame.")
                                                 .category("Electronics")
@@ -106,7 +106,7 @@ public class DataSeeder {
                                                 .build(),
                                 Product.builder()
                                                 .name("Standing Desk Converter")
-                                                .price(new BigDecimal("199.99"))
+                                                .price(Money.of("199.99"))
                                                 .description(
                                                                 "Transform any desk into a standing desk. Smooth height adjustment with gas spring mechanism. Supports up to 35 lbs.")
                                                 .category("Furniture")
@@ -118,7 +118,7 @@ public class DataSeeder {
                                                 .build(),
                                 Product.builder()
                                                 .name("Wireless Mouse")
-                                                .price(new BigDecimal("39.99"))
+                                                .price(Money.of("39.99"))
                                                 .description(
                                                                 "Precision wireless mouse with ergonomic design and silent clicks. 6-month battery life with single AA battery.")
                                                 .category("Electronics")
@@ -130,7 +130,7 @@ public class DataSeeder {
                                                 .build(),
                                 Product.builder()
                                                 .name("USB-C Hub")
-                                                .price(new BigDecimal("59.99"))
+                                                .price(Money.of("59.99"))
                                                 .description(
                                                                 "7-in-1 USB-C hub with HDMI 4K, USB 3.0 ports, SD card reader, and 100W power delivery pass-through.")
                                                 .category("Electronics")
@@ -142,7 +142,7 @@ public class DataSeeder {
                                                 .build(),
                                 Product.builder()
                                                 .name("Noise Cancelling Earbuds")
-                                                .price(new BigDecimal("179.99"))
+                                                .price(Money.of("179.99"))
                                                 .description(
                                                                 "True wireless earbuds with active noise cancellation, transparency mode, and 24-hour total battery life with case.")
                                                 .category("Electronics")
@@ -154,7 +154,7 @@ public class DataSeeder {
                                                 .build(),
                                 Product.builder()
                                                 .name("Monitor Stand")
-                                                .price(new BigDecimal("44.99"))
+                                                .price(Money.of("44.99"))
                                                 .description(
                                                                 "Bamboo monitor stand with storage drawer. Elevates screen to eye level for better posture.")
                                                 .category("Accessories")
@@ -166,7 +166,7 @@ public class DataSeeder {
                                                 .build(),
                                 Product.builder()
                                                 .name("Webcam HD")
-                                                .price(new BigDecimal("79.99"))
+                                                .price(Money.of("79.99"))
                                                 .description(
                                                                 "1080p HD webcam with auto-focus, dual noise-cancelling microphones, and privacy cover. Perfect for video calls.")
                                                 .category("Electronics")
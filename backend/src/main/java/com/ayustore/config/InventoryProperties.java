@@ -0,0 +1,20 @@
+package com.ayustore.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.inventory.low-stock")
+public class InventoryProperties {
+
+    // Used when neither the product nor its category sets a threshold
+    private int defaultThreshold = 5;
+
+    // Category name to threshold; a product's own lowStockThreshold wins over these
+    private Map<String, Integer> categoryThresholds = new HashMap<>();
+}
@@ -0,0 +1,50 @@
+package com.ayustore.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // LOCAL: in-process token buckets (single node). REDIS: shared sliding window (cluster).
+    private Mode mode = Mode.LOCAL;
+
+    // Use the first X-Forwarded-For hop as the client IP; only safe behind a trusted proxy
+    private boolean trustForwardedFor = false;
+
+    // Upper bound on tracked clients per node in LOCAL mode
+    private int maxTrackedKeys = 100_000;
+
+    private List<Route> routes = new ArrayList<>();
+
+    public enum Mode {
+        LOCAL, REDIS
+    }
+
+    public enum KeyType {
+        IP, USER
+    }
+
+    @Getter
+    @Setter
+    public static class Route {
+        private String name;
+        // Null matches any method
+        private String method;
+        // Exact path, or a prefix when it ends in /**
+        private String path;
+        private KeyType key = KeyType.IP;
+        // Burst size, and the sliding-window limit in REDIS mode
+        private int capacity = 20;
+        // Sustained rate; the REDIS window is capacity / refill-per-second seconds
+        private double refillPerSecond = 1;
+    }
+}
@@ -1,12 +1,13 @@
 package com.ayustore.config;
 
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Slf4j
 @Configuration
 public class RazorpayConfig {
@@ -17,13 +18,31 @@ public class RazorpayConfig {
     @Value("${app.razorpay.key-secret}")
     private String keySecret;
 
+    @Value("${app.razorpay.base-url:https://api.razorpay.com}")
+    private String baseUrl;
+
+    @Value("${app.payments.gateway.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    // One shared client so gateway calls reuse pooled keep-alive connections
     @Bean
-    public RazorpayClient razorpayClient() throws RazorpayException {
+    public HttpClient razorpayHttpClient() {
         log.info("Initializing Razorpay client with key: {}", keyId.substring(0, 8) + "...");
-        return new RazorpayClient(keyId, keySecret);
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
     }
 
     public String getKeyId() {
         return keyId;
     }
+
+    public String getKeySecret() {
+        return keySecret;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
 }
@@ -0,0 +1,45 @@
+package com.ayustore.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.datasource.replicas")
+public class ReplicaProperties {
+
+    // Off: everything uses the single spring.datasource pool
+    private boolean enabled = false;
+
+    private List<Node> nodes = new ArrayList<>();
+
+    // Replicas further behind the primary than this stop receiving reads until they catch up
+    private long maxLagMs = 5000;
+
+    // After a user's write commits, their reads stay on the primary for this long
+    private long readYourWritesMs = 5000;
+
+    private int maximumPoolSize = 10;
+
+    private long healthCheckIntervalMs = 5000;
+
+    private int checkTimeoutSeconds = 2;
+
+    // Kept short so a replica that is down fails over to the primary quickly instead of holding a
+    // request (or the health check) for Hikari's default 30 seconds
+    private long connectionTimeoutMs = 1000;
+
+    @Getter
+    @Setter
+    public static class Node {
+        private String name;
+        private String url;
+        // Default to the primary's credentials
+        private String username;
+        private String password;
+    }
+}
@@ -3,19 +3,29 @@ package com.ayustore.config;
 import com.ayustore.security.CustomOAuth2UserService;
 import com.ayustore.security.CustomOidcUserService;
 import com.ayustore.security.JwtAuthenticationFilter;
+import com.ayustore.security.NoOpOAuth2AuthorizedClientRepository;
+import com.ayustore.security.OAuth2AuthenticationFailureHandler;
 import com.ayustore.security.OAuth2AuthenticationSuccessHandler;
+import com.ayustore.security.RateLimitFilter;
+import com.ayustore.security.RedisOAuth2AuthorizationRequestRepository;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.savedrequest.NullRequestCache;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -26,13 +36,17 @@ import java.util.List;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
         private final JwtAuthenticationFilter jwtAuthenticationFilter;
+        private final RateLimitFilter rateLimitFilter;
         private final CustomOAuth2UserService customOAuth2UserService;
         private final CustomOidcUserService customOidcUserService;
         private final OAuth2AuthenticationSuccessHandler oAuth2AuthenticationSuccessHandler;
+        private final OAuth2AuthenticationFailureHandler oAuth2AuthenticationFailureHandler;
+        private final RedisOAuth2AuthorizationRequestRepository authorizationRequestRepository;
 
         @Value("${app.cors.allowed-origins}")
         private String allowedOrigins;
@@ -42,10 +56,14 @@ public class SecurityConfig {
                 http
                                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                                 .csrf(AbstractHttpConfigurer::disable)
-                                // Use IF_REQUIRED for session to support OAuth2 state parameter
+                                // No HttpSession anywhere: the OAuth2 state lives in Redis, so any node can
+                                // finish a login and the load balancer needs no sticky sessions
                                 .sessionManagement(session -> session
-                                                .sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED))
+                                                .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                                .requestCache(cache -> cache.requestCache(new NullRequestCache()))
                                 .authorizeHttpRequests(auth -> auth
+                                                // Async dispatches (SSE) continue a request that was already authorized
+                                                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                                                 // Public endpoints
                                                 .requestMatchers(
                                                                 "/api/auth/**",
@@ -57,6 +75,9 @@ public class SecurityConfig {
                                                                 "/actuator/health",
                                                                 "/error")
                                                 .permitAll()
+                                                .requestMatchers("/actuator/**").hasRole("ADMIN")
+                                                // Gateway callbacks authenticate with their HMAC signature
+                                                .requestMatchers(HttpMethod.POST, "/api/payments/razorpay/webhook").permitAll()
                                                 // Products are public for reading
                                                 .requestMatchers(HttpMethod.GET, "/api/products/**").permitAll()
                                                 // Admin endpoints
@@ -65,15 +86,26 @@ public class SecurityConfig {
                                                 .anyRequest().authenticated())
                                 .oauth2Login(oauth2 -> oauth2
                                                 .authorizationEndpoint(authorization -> authorization
-                                                                .baseUri("/oauth2/authorize"))
+                                                                .baseUri("/oauth2/authorize")
+                                                                .authorizationRequestRepository(
+                                                                                authorizationRequestRepository))
+                                                .authorizedClientRepository(new NoOpOAuth2AuthorizedClientRepository())
                                                 // Use the default Spring Security OAuth2 redirect URI
                                                 .redirectionEndpoint(redirection -> redirection
                                                                 .baseUri("/login/oauth2/code/*"))
                                                 .userInfoEndpoint(userInfo -> userInfo
                                                                 .userService(customOAuth2UserService)
                                                                 .oidcUserService(customOidcUserService))
-                                                .successHandler(oAuth2AuthenticationSuccessHandler))
-                                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                                                .successHandler(oAuth2AuthenticationSuccessHandler)
+                                                .failureHandler(oAuth2AuthenticationFailureHandler))
+                                // API clients get a 401 (and can refresh their token) instead of the OAuth2 login redirect
+                                .exceptionHandling(exceptions -> exceptions
+                                                .defaultAuthenticationEntryPointFor(
+                                                                new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED),
+                                                                new AntPathRequestMatcher("/api/**")))
+                                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                                // After authentication so per-user limits can key on the caller
+                                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
                 return http.build();
         }
@@ -92,8 +124,10 @@ public class SecurityConfig {
                 return source;
         }
 
+        // Raising the strength upgrades existing hashes on each user's next login
         @Bean
-        public org.springframework.security.crypto.password.PasswordEncoder passwordEncoder() {
-                return new org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder();
+        public org.springframework.security.crypto.password.PasswordEncoder passwordEncoder(
+                        @Value("${app.auth.bcrypt-strength:10}") int bcryptStrength) {
+                return new org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder(bcryptStrength);
         }
 }
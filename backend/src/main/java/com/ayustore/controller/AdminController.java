@@ -2,9 +2,18 @@ package com.ayustore.controller;
 
 import com.ayustore.dto.*;
 import com.ayustore.entity.Order;
+import com.ayustore.entity.OrderRollup;
+import com.ayustore.entity.User;
+import com.ayustore.service.CacheStatsService;
+import com.ayustore.service.DashboardStatsService;
+import com.ayustore.service.DashboardStreamService;
+import com.ayustore.service.OrderAnalyticsService;
 import com.ayustore.service.OrderService;
+import com.ayustore.service.PaymentReconciler;
 import com.ayustore.service.ProductService;
-import com.ayustore.service.UserService;
+import com.ayustore.service.PromotionService;
+import com.ayustore.service.StockMonitor;
+import com.ayustore.service.UserDirectoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -12,11 +21,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -31,7 +44,14 @@ public class AdminController {
 
     private final ProductService productService;
     private final OrderService orderService;
-    private final UserService userService;
+    private final PromotionService promotionService;
+    private final PaymentReconciler paymentReconciler;
+    private final DashboardStatsService dashboardStatsService;
+    private final DashboardStreamService dashboardStreamService;
+    private final OrderAnalyticsService orderAnalyticsService;
+    private final UserDirectoryService userDirectoryService;
+    private final StockMonitor stockMonitor;
+    private final CacheStatsService cacheStatsService;
 
     // Dashboard
 
@@ -39,22 +59,40 @@ public class AdminController {
     @Operation(summary = "Get dashboard statistics")
     public ResponseEntity<DashboardStatsDto> getDashboardStats() {
         log.info("GET /api/admin/dashboard");
-        DashboardStatsDto stats = DashboardStatsDto.builder()
-                .totalRevenue(orderService.getTotalRevenue())
-                .totalOrders(orderService.countAllOrders())
-                .activeProducts(productService.countActiveProducts())
-                .registeredUsers(userService.countUsers())
-                .build();
-        return ResponseEntity.ok(stats);
+        return ResponseEntity.ok(dashboardStatsService.getStats());
+    }
+
+    @GetMapping(value = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream dashboard updates",
+            description = "Server-sent 'dashboard' events with totals and new orders, coalesced to a few frames per second")
+    public SseEmitter streamDashboard() {
+        log.info("GET /api/admin/dashboard/stream");
+        return dashboardStreamService.subscribe();
+    }
+
+    // Analytics
+
+    @GetMapping("/analytics/orders")
+    @Operation(summary = "Order revenue, count and average basket over time",
+            description = "Served from pre-aggregated rollups; HOUR granularity covers the recent retention window")
+    public ResponseEntity<OrderAnalyticsDto> getOrderAnalytics(
+            @Parameter(description = "Range start (inclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Range end (exclusive)") @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "DAY") OrderRollup.Granularity granularity,
+            @Parameter(description = "Only this product category") @RequestParam(required = false) String category,
+            @Parameter(description = "Only orders currently in this status") @RequestParam(required = false) Order.OrderStatus status,
+            @RequestParam(defaultValue = "NONE") OrderAnalyticsService.GroupBy groupBy) {
+        return ResponseEntity.ok(orderAnalyticsService.query(granularity, from, to, category, status, groupBy));
     }
 
     // Orders
 
     @GetMapping("/orders")
-    @Operation(summary = "Get all orders")
-    public ResponseEntity<List<OrderDto>> getAllOrders() {
+    @Operation(summary = "Get all orders", description = "Delivered and cancelled orders older than the hot window are excluded unless requested")
+    public ResponseEntity<List<OrderDto>> getAllOrders(
+            @Parameter(description = "Include archived orders") @RequestParam(defaultValue = "false") boolean includeArchived) {
         log.info("GET /api/admin/orders");
-        List<OrderDto> orders = orderService.getAllOrders();
+        List<OrderDto> orders = orderService.getAllOrders(includeArchived);
         return ResponseEntity.ok(orders);
     }
 
@@ -98,13 +136,92 @@ public class AdminController {
         return ResponseEntity.ok(ApiResponse.success("Product deleted successfully"));
     }
 
+    // Promotions
+
+    @GetMapping("/promotions")
+    @Operation(summary = "Get all promotions")
+    public ResponseEntity<List<PromotionDto>> getAllPromotions() {
+        log.info("GET /api/admin/promotions");
+        return ResponseEntity.ok(promotionService.getAllPromotions());
+    }
+
+    @PostMapping("/promotions")
+    @Operation(summary = "Create a promotion or coupon")
+    public ResponseEntity<PromotionDto> createPromotion(
+            @Valid @RequestBody CreatePromotionRequest request) {
+        log.info("POST /api/admin/promotions - creating: {}", request.getName());
+        PromotionDto promotion = promotionService.createPromotion(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(promotion);
+    }
+
+    @PutMapping("/promotions/{id}")
+    @Operation(summary = "Update a promotion")
+    public ResponseEntity<PromotionDto> updatePromotion(
+            @Parameter(description = "Promotion ID") @PathVariable Long id,
+            @Valid @RequestBody CreatePromotionRequest request) {
+        log.info("PUT /api/admin/promotions/{}", id);
+        return ResponseEntity.ok(promotionService.updatePromotion(id, request));
+    }
+
+    @DeleteMapping("/promotions/{id}")
+    @Operation(summary = "Deactivate a promotion")
+    public ResponseEntity<ApiResponse<String>> deletePromotion(
+            @Parameter(description = "Promotion ID") @PathVariable Long id) {
+        log.info("DELETE /api/admin/promotions/{}", id);
+        promotionService.deletePromotion(id);
+        return ResponseEntity.ok(ApiResponse.success("Promotion deactivated successfully"));
+    }
+
+    // Payments
+
+    @PostMapping("/payments/reconcile")
+    @Operation(summary = "Start a payment reconciliation run against the gateway")
+    public ResponseEntity<ApiResponse<String>> reconcilePayments() {
+        log.info("POST /api/admin/payments/reconcile");
+        if (!paymentReconciler.reconcileAsync()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("Reconciliation is already running"));
+        }
+        return ResponseEntity.accepted().body(ApiResponse.success("Reconciliation started"));
+    }
+
+    @GetMapping("/payments/reconciliation")
+    @Operation(summary = "Get the report of the last completed reconciliation run")
+    public ResponseEntity<ReconciliationReportDto> getReconciliationReport() {
+        log.info("GET /api/admin/payments/reconciliation");
+        ReconciliationReportDto report = paymentReconciler.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
+    // Inventory
+
+    @GetMapping("/inventory/low-stock")
+    @Operation(summary = "Products at or below their low-stock threshold, most urgent first")
+    public ResponseEntity<List<LowStockItemDto>> getLowStock(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(stockMonitor.getLowStock(limit));
+    }
+
+    // Caches
+
+    @GetMapping("/cache/stats")
+    @Operation(summary = "Hit ratios of this node's second-level and query cache regions")
+    public ResponseEntity<List<CacheRegionStatsDto>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getRegionStats());
+    }
+
     // Users
 
     @GetMapping("/users")
-    @Operation(summary = "Get all users")
-    public ResponseEntity<List<UserDto>> getAllUsers() {
+    @Operation(summary = "List users", description = "Newest first, keyset paginated; pass nextCursor back as cursor")
+    public ResponseEntity<CursorPage<AdminUserDto>> getUsers(
+            @Parameter(description = "Cursor from the previous page") @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) User.Role role,
+            @RequestParam(required = false) UserDirectoryService.Provider provider,
+            @Parameter(description = "Created at or after") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @Parameter(description = "Created before") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @Parameter(description = "Email or name prefix") @RequestParam(required = false) String q) {
         log.info("GET /api/admin/users");
-        List<UserDto> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+        return ResponseEntity.ok(userDirectoryService.listUsers(cursor, size, role, provider, createdFrom, createdTo, q));
     }
 }
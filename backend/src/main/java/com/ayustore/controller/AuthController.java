@@ -2,11 +2,14 @@ package com.ayustore.controller;
 
 import com.ayustore.dto.AuthResponse;
 import com.ayustore.dto.LoginRequest;
+import com.ayustore.dto.RefreshTokenRequest;
 import com.ayustore.dto.RegisterRequest;
 import com.ayustore.dto.UserDto;
+import com.ayustore.security.JwtAuthenticationFilter;
 import com.ayustore.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,6 +45,21 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh access token", description = "Exchanges a refresh token for a new access token; the refresh token is rotated")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(userService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    @Operation(summary = "Logout", description = "Revokes the current access token and the given refresh token")
+    public ResponseEntity<Void> logout(HttpServletRequest httpRequest,
+            @RequestBody(required = false) RefreshTokenRequest request) {
+        userService.logout(JwtAuthenticationFilter.getJwtFromRequest(httpRequest),
+                request != null ? request.getRefreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/google")
     @Operation(summary = "Initiate Google OAuth login", description = "Redirects to Google OAuth consent screen. After successful auth, redirects back with JWT token.")
     public ResponseEntity<AuthResponse> googleLogin() {
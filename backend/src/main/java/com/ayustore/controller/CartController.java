@@ -0,0 +1,73 @@
+package com.ayustore.controller;
+
+import com.ayustore.dto.CartDto;
+import com.ayustore.dto.CartItemRequest;
+import com.ayustore.service.CartService;
+import com.ayustore.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/cart")
+@RequiredArgsConstructor
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Cart", description = "Server-side shopping cart endpoints")
+public class CartController {
+
+    private final CartService cartService;
+    private final UserService userService;
+
+    @GetMapping
+    @Operation(summary = "Get my cart", description = "Returns cart lines with their cached price and stock snapshots, priced with the best applicable promotion")
+    public ResponseEntity<CartDto> getCart(
+            @Parameter(description = "Coupon code to preview") @RequestParam(required = false) String coupon) {
+        log.info("GET /api/cart");
+        return ResponseEntity.ok(cartService.getCart(currentUserId(), coupon));
+    }
+
+    @PostMapping("/items")
+    @Operation(summary = "Add item to cart", description = "Adds the quantity to any existing line for the product")
+    public ResponseEntity<CartDto> addItem(@Valid @RequestBody CartItemRequest request) {
+        log.info("POST /api/cart/items - product: {}", request.getProductId());
+        return ResponseEntity.ok(cartService.addItem(currentUserId(), request.getProductId(), request.getQuantity()));
+    }
+
+    @PutMapping("/items/{productId}")
+    @Operation(summary = "Set cart item quantity", description = "A quantity of zero removes the line")
+    public ResponseEntity<CartDto> updateItem(
+            @Parameter(description = "Product ID") @PathVariable Long productId,
+            @Parameter(description = "New quantity") @RequestParam int quantity) {
+        log.info("PUT /api/cart/items/{} - quantity: {}", productId, quantity);
+        return ResponseEntity.ok(cartService.updateItem(currentUserId(), productId, quantity));
+    }
+
+    @DeleteMapping("/items/{productId}")
+    @Operation(summary = "Remove item from cart")
+    public ResponseEntity<CartDto> removeItem(
+            @Parameter(description = "Product ID") @PathVariable Long productId) {
+        log.info("DELETE /api/cart/items/{}", productId);
+        return ResponseEntity.ok(cartService.removeItem(currentUserId(), productId));
+    }
+
+    @DeleteMapping
+    @Operation(summary = "Clear cart")
+    public ResponseEntity<Void> clearCart() {
+        log.info("DELETE /api/cart");
+        cartService.clear(currentUserId());
+        return ResponseEntity.noContent().build();
+    }
+
+    private UUID currentUserId() {
+        return userService.getCurrentUserPrincipal().getId();
+    }
+}
@@ -1,5 +1,6 @@
 package com.ayustore.controller;
 
+import com.ayustore.dto.CheckoutRequest;
 import com.ayustore.dto.CreateOrderRequest;
 import com.ayustore.dto.OrderDto;
 import com.ayustore.service.OrderService;
@@ -35,11 +36,20 @@ public class OrderController {
         return ResponseEntity.status(HttpStatus.CREATED).body(order);
     }
 
+    @PostMapping("/checkout")
+    @Operation(summary = "Checkout server-side cart", description = "Creates an order from the cart stored on the server and clears it")
+    public ResponseEntity<OrderDto> checkoutCart(@RequestBody CheckoutRequest request) {
+        log.info("POST /api/orders/checkout - creating order from cart");
+        OrderDto order = orderService.checkoutCart(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(order);
+    }
+
     @GetMapping
-    @Operation(summary = "Get my orders", description = "Returns all orders for the authenticated user")
-    public ResponseEntity<List<OrderDto>> getMyOrders() {
+    @Operation(summary = "Get my orders", description = "Returns recent and still-open orders for the authenticated user; older delivered or cancelled orders are included on request")
+    public ResponseEntity<List<OrderDto>> getMyOrders(
+            @Parameter(description = "Include archived orders") @RequestParam(defaultValue = "false") boolean includeArchived) {
         log.info("GET /api/orders - fetching user orders");
-        List<OrderDto> orders = orderService.getCurrentUserOrders();
+        List<OrderDto> orders = orderService.getCurrentUserOrders(includeArchived);
         return ResponseEntity.ok(orders);
     }
 
@@ -4,6 +4,7 @@ import com.ayustore.dto.ApiResponse;
 import com.ayustore.dto.RazorpayOrderResponse;
 import com.ayustore.dto.VerifyPaymentRequest;
 import com.ayustore.service.PaymentService;
+import com.ayustore.service.PaymentWebhookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -25,6 +26,7 @@ import java.util.UUID;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final PaymentWebhookService paymentWebhookService;
 
     @PostMapping("/razorpay/create")
     @Operation(summary = "Create Razorpay order", description = "Creates a Razorpay order for the given order ID")
@@ -48,4 +50,14 @@ public class PaymentController {
                     .body(ApiResponse.error("Payment verification failed"));
         }
     }
+
+    @PostMapping("/razorpay/webhook")
+    @Operation(summary = "Razorpay webhook", description = "Verifies and queues a Razorpay event for asynchronous processing")
+    public ResponseEntity<Void> razorpayWebhook(
+            @RequestBody String body,
+            @RequestHeader(value = "X-Razorpay-Signature", required = false) String signature,
+            @RequestHeader(value = "X-Razorpay-Event-Id", required = false) String eventId) {
+        paymentWebhookService.enqueue(body, signature, eventId);
+        return ResponseEntity.ok().build();
+    }
 }
@@ -0,0 +1,31 @@
+package com.ayustore.controller;
+
+import com.ayustore.dto.VerifyPaymentRequest;
+import com.ayustore.service.SimulatedPaymentGateway;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/payments/simulated")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.payments.gateway.provider", havingValue = "simulated")
+@SecurityRequirement(name = "bearerAuth")
+@Tag(name = "Simulated payments", description = "Load-test stand-in for the Razorpay checkout widget")
+public class SimulatedPaymentController {
+
+    private final SimulatedPaymentGateway simulatedPaymentGateway;
+
+    @PostMapping("/orders/{gatewayOrderId}/pay")
+    @Operation(summary = "Pay a simulated gateway order",
+            description = "Returns the signed payload to post to /api/payments/razorpay/verify")
+    public ResponseEntity<VerifyPaymentRequest> pay(
+            @Parameter(description = "Gateway order ID") @PathVariable String gatewayOrderId) {
+        return ResponseEntity.ok(simulatedPaymentGateway.pay(gatewayOrderId));
+    }
+}
@@ -0,0 +1,42 @@
+package com.ayustore.dto;
+
+import com.ayustore.entity.Money;
+import com.ayustore.entity.User;
+import com.ayustore.entity.UserOrderStats;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AdminUserDto {
+    private String id;
+    private String name;
+    private String email;
+    private String phone;
+    private String role;
+    private String avatar;
+    // "google" when the account is linked to Google, otherwise "password"
+    private String provider;
+    private LocalDateTime createdAt;
+    private long orderCount;
+    private Money lifetimeValue;
+
+    public static AdminUserDto fromEntity(User user, UserOrderStats stats) {
+        return AdminUserDto.builder()
+                .id(user.getId().toString())
+                .name(user.getName())
+                .email(user.getEmail())
+                .phone(user.getPhone())
+                .role(user.getRole().name().toLowerCase())
+                .avatar(user.getAvatar())
+                .provider(user.getGoogleId() != null ? "google" : "password")
+                .createdAt(user.getCreatedAt())
+                .orderCount(stats != null ? stats.getOrderCount() : 0)
+                .lifetimeValue(stats != null ? Money.ofPaise(stats.getLifetimeValuePaise()) : Money.ZERO)
+                .build();
+    }
+}
@@ -11,5 +11,8 @@ import java.io.Serializable;
 @Builder
 public class AuthResponse implements Serializable {
     private String token;
+    private String refreshToken;
+    // Access token lifetime in seconds
+    private Long expiresIn;
     private UserDto user;
 }
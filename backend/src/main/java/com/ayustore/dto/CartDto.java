@@ -0,0 +1,39 @@
+package com.ayustore.dto;
+
+import com.ayustore.entity.Money;
+import com.ayustore.service.PromotionEngine;
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartDto implements Serializable {
+    private List<CartItemDto> items;
+    private Integer itemCount;
+    private Money subtotal;
+    private Money discount;
+    private Money total;
+    private String promotionName;
+    private String couponCode;
+
+    public static CartDto from(List<CartItemDto> items, PromotionEngine.PricingResult pricing) {
+        int itemCount = 0;
+        for (CartItemDto item : items) {
+            itemCount += item.getQuantity();
+        }
+        return CartDto.builder()
+                .items(items)
+                .itemCount(itemCount)
+                .subtotal(pricing.subtotal())
+                .discount(pricing.discount())
+                .total(pricing.total())
+                .promotionName(pricing.promotionName())
+                .couponCode(pricing.couponCode())
+                .build();
+    }
+}
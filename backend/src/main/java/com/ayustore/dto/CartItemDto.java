@@ -0,0 +1,51 @@
+package com.ayustore.dto;
+
+import com.ayustore.entity.Money;
+import com.ayustore.entity.Product;
+import com.ayustore.service.PromotionEngine;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.io.Serializable;
+
+// Stored as-is in the cart hash: a price/stock snapshot taken when the line was last written.
+// Lines saved before catalogVersion existed have no version and take the revalidation path once.
+@JsonIgnoreProperties("productVersion")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartItemDto implements Serializable {
+    private Long productId;
+    private String name;
+    private String image;
+    private String category;
+    private Money price;
+    private Integer stock;
+    private Integer quantity;
+    private Long catalogVersion;
+
+    public static CartItemDto fromProduct(Product product, int quantity) {
+        return CartItemDto.builder()
+                .productId(product.getId())
+                .name(product.getName())
+                .image(product.getImage())
+                .category(product.getCategory())
+                .price(product.getPrice())
+                .stock(product.getStock())
+                .quantity(quantity)
+                .catalogVersion(product.getCatalogVersion())
+                .build();
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Money getLineTotal() {
+        return price.times(quantity);
+    }
+
+    public PromotionEngine.PricingLine toPricingLine() {
+        return new PromotionEngine.PricingLine(productId, category, price.getPaise(), quantity);
+    }
+}
@@ -0,0 +1,20 @@
+package com.ayustore.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CheckoutRequest {
+
+    private String couponCode;
+
+    // Shipping info
+    private String firstName;
+    private String lastName;
+    private String address;
+    private String city;
+    private String zip;
+}
@@ -18,9 +18,11 @@ public class CreateOrderRequest {
     @Valid
     private List<CartItemRequest> items;
 
-    @NotNull(message = "Total is required")
+    // Client-side estimate only; the order total is always recomputed on the server
     private Double total;
 
+    private String couponCode;
+
     // Shipping info
     private String firstName;
     private String lastName;
@@ -29,4 +29,7 @@ public class CreateProductRequest {
 
     @Min(value = 0, message = "Stock cannot be negative")
     private Integer stock;
+
+    @Min(value = 0, message = "Low stock threshold cannot be negative")
+    private Integer lowStockThreshold;
 }
@@ -0,0 +1,57 @@
+package com.ayustore.dto;
+
+import com.ayustore.entity.Promotion;
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CreatePromotionRequest {
+
+    @NotBlank(message = "Promotion name is required")
+    @Size(max = 255, message = "Promotion name must be less than 255 characters")
+    private String name;
+
+    @Size(max = 64, message = "Coupon code must be less than 64 characters")
+    private String code;
+
+    @NotNull(message = "Promotion type is required")
+    private Promotion.PromotionType type;
+
+    // Required for FIXED promotions
+    @DecimalMin(value = "0.01", message = "Amount off must be greater than 0")
+    @Digits(integer = 8, fraction = 2, message = "Amount off can have at most two decimals")
+    private BigDecimal amountOff;
+
+    // Required for PERCENTAGE promotions
+    @DecimalMin(value = "0.01", message = "Percent off must be greater than 0")
+    @DecimalMax(value = "100", message = "Percent off cannot exceed 100")
+    @Digits(integer = 3, fraction = 2, message = "Percent off can have at most two decimals")
+    private BigDecimal percentOff;
+
+    @Min(value = 1, message = "Buy quantity must be at least 1")
+    private Integer buyQuantity;
+
+    @Min(value = 1, message = "Get quantity must be at least 1")
+    private Integer getQuantity;
+
+    private String category;
+
+    @DecimalMin(value = "0.00", message = "Minimum subtotal cannot be negative")
+    private BigDecimal minSubtotal;
+
+    @Min(value = 1, message = "Per-user limit must be at least 1")
+    private Integer perUserLimit;
+
+    private LocalDateTime startsAt;
+
+    private LocalDateTime endsAt;
+
+    private Boolean active;
+}
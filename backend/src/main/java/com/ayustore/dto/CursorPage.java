@@ -0,0 +1,17 @@
+package com.ayustore.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+// One page of a keyset-paginated listing; pass nextCursor back as ?cursor= for the following page
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,32 @@
+package com.ayustore.dto;
+
+import com.ayustore.entity.Money;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// One coalesced dashboard push: current totals plus the orders placed since the previous frame
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardFrameDto {
+    private DashboardStatsDto stats;
+    // All orders since the last frame, even when only the latest few are listed
+    private long newOrderCount;
+    private List<NewOrder> newOrders;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class NewOrder {
+        private UUID id;
+        private Money total;
+        private LocalDateTime createdAt;
+    }
+}
@@ -1,16 +1,15 @@
 package com.ayustore.dto;
 
+import com.ayustore.entity.Money;
 import lombok.*;
 
-import java.math.BigDecimal;
-
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class DashboardStatsDto {
-    private BigDecimal totalRevenue;
+    private Money totalRevenue;
     private Long totalOrders;
     private Long activeProducts;
     private Long registeredUsers;
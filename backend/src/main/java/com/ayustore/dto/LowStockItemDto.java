@@ -0,0 +1,17 @@
+package com.ayustore.dto;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LowStockItemDto {
+    private Long productId;
+    private String name;
+    private String category;
+    private int stock;
+    private int threshold;
+    private boolean outOfStock;
+}
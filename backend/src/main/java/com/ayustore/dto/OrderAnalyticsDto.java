@@ -0,0 +1,39 @@
+package com.ayustore.dto;
+
+import com.ayustore.entity.Money;
+import com.ayustore.entity.OrderRollup;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderAnalyticsDto {
+    private OrderRollup.Granularity granularity;
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private String groupBy;
+    private long orders;
+    private Money revenue;
+    private Money averageBasket;
+    // Only buckets with orders are listed
+    private List<Point> points;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Point {
+        private LocalDateTime bucket;
+        // Category or status name when grouped, otherwise null
+        private String group;
+        private long orders;
+        private Money revenue;
+        private Money averageBasket;
+    }
+}
@@ -1,5 +1,6 @@
 package com.ayustore.dto;
 
+import com.ayustore.entity.Money;
 import com.ayustore.entity.Order;
 import lombok.*;
 
@@ -16,7 +17,9 @@ import java.util.stream.Collectors;
 public class OrderDto implements Serializable {
     private String id;
     private String date;
-    private Double total;
+    private Money total;
+    private Money discount;
+    private String couponCode;
     private String status;
     private List<OrderItemDto> items;
 
@@ -30,7 +33,9 @@ public class OrderDto implements Serializable {
         return OrderDto.builder()
                 .id(order.getId().toString())
                 .date(order.getCreatedAt().format(DATE_FORMATTER))
-                .total(order.getTotal().doubleValue())
+                .total(order.getTotal())
+                .discount(order.getDiscount())
+                .couponCode(order.getCouponCode())
                 .status(capitalizeFirst(order.getStatus().name()))
                 .items(order.getItems().stream()
                         .map(OrderItemDto::fromEntity)
@@ -1,5 +1,6 @@
 package com.ayustore.dto;
 
+import com.ayustore.entity.Money;
 import com.ayustore.entity.OrderItem;
 import lombok.*;
 
@@ -13,7 +14,7 @@ import java.io.Serializable;
 public class OrderItemDto implements Serializable {
     private Long id;
     private String name;
-    private Double price;
+    private Money price;
     private String description;
     private String category;
     private String image;
@@ -26,7 +27,7 @@ public class OrderItemDto implements Serializable {
         return OrderItemDto.builder()
                 .id(item.getProduct().getId())
                 .name(item.getProductName())
-                .price(item.getPriceAtPurchase().doubleValue())
+                .price(item.getPriceAtPurchase())
                 .description(item.getProduct().getDescription())
                 .category(item.getProduct().getCategory())
                 .image(item.getProductImage())
@@ -1,5 +1,6 @@
 package com.ayustore.dto;
 
+import com.ayustore.entity.Money;
 import com.ayustore.entity.Product;
 import lombok.*;
 
@@ -13,7 +14,7 @@ import java.io.Serializable;
 public class ProductDto implements Serializable {
     private Long id;
     private String name;
-    private Double price;
+    private Money price;
     private String description;
     private String category;
     private String image;
@@ -25,7 +26,7 @@ public class ProductDto implements Serializable {
         return ProductDto.builder()
                 .id(product.getId())
                 .name(product.getName())
-                .price(product.getPrice().doubleValue())
+                .price(product.getPrice())
                 .description(product.getDescription())
                 .category(product.getCategory())
                 .image(product.getImage())
@@ -0,0 +1,52 @@
+package com.ayustore.dto;
+
+import com.ayustore.entity.Money;
+import com.ayustore.entity.Promotion;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PromotionDto {
+    private Long id;
+    private String name;
+    private String code;
+    private String type;
+    private Money amountOff;
+    // Percent with up to two decimals, e.g. 12.5
+    private BigDecimal percentOff;
+    private Integer buyQuantity;
+    private Integer getQuantity;
+    private String category;
+    private Money minSubtotal;
+    private Integer perUserLimit;
+    private LocalDateTime startsAt;
+    private LocalDateTime endsAt;
+    private Boolean active;
+
+    public static PromotionDto fromEntity(Promotion promotion) {
+        return PromotionDto.builder()
+                .id(promotion.getId())
+                .name(promotion.getName())
+                .code(promotion.getCode())
+                .type(promotion.getType().name())
+                .amountOff(promotion.getAmountOff())
+                .percentOff(promotion.getPercentBasisPoints() != null
+                        ? BigDecimal.valueOf(promotion.getPercentBasisPoints(), 2).stripTrailingZeros()
+                        : null)
+                .buyQuantity(promotion.getBuyQuantity())
+                .getQuantity(promotion.getGetQuantity())
+                .category(promotion.getCategory())
+                .minSubtotal(promotion.getMinSubtotal())
+                .perUserLimit(promotion.getPerUserLimit())
+                .startsAt(promotion.getStartsAt())
+                .endsAt(promotion.getEndsAt())
+                .active(promotion.getIsActive())
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.ayustore.dto;
 
+import com.ayustore.entity.Money;
 import lombok.*;
 
 @Getter
@@ -9,7 +10,7 @@ import lombok.*;
 @Builder
 public class RazorpayOrderResponse {
     private String razorpayOrderId;
-    private Double amount;
+    private Money amount;
     private String currency;
     private String keyId;
     private String orderId; // Our internal order ID
@@ -0,0 +1,37 @@
+package com.ayustore.dto;
+
+import com.ayustore.entity.Payment;
+import lombok.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReconciliationReportDto {
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long scanned;
+    private long markedCompleted;
+    private long markedFailed;
+    private long gatewayErrors;
+    private long discrepancyCount;
+    private List<Discrepancy> discrepancies;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Discrepancy {
+        private UUID paymentId;
+        private String razorpayOrderId;
+        private Payment.PaymentStatus localStatus;
+        private String gatewayStatus;
+        private String action;
+    }
+}
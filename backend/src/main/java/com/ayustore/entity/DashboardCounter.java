@@ -0,0 +1,37 @@
+package com.ayustore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+// One row per (counter, shard). Writers add to a random shard so concurrent checkouts do not
+// queue on a single hot row; a counter's value is the sum of its shards.
+@Entity
+@Table(name = "dashboard_counters")
+@IdClass(DashboardCounter.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardCounter {
+
+    @Id
+    @Column(length = 32)
+    private String name;
+
+    @Id
+    private Integer shard;
+
+    @Column(name = "counter_value", nullable = false)
+    private Long value;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String name;
+        private Integer shard;
+    }
+}
@@ -0,0 +1,157 @@
+package com.ayustore.entity;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Immutable INR amount held as a whole number of paise. Arithmetic stays on primitive longs
+// and only converts to BigDecimal at the database and JSON boundaries, where it is exact.
+@JsonSerialize(using = Money.JsonSerializer.class)
+@JsonDeserialize(using = Money.JsonDeserializer.class)
+public final class Money implements Serializable, Comparable<Money> {
+
+    public static final Money ZERO = new Money(0);
+
+    private static final int SCALE = 2;
+
+    private final long paise;
+
+    private Money(long paise) {
+        this.paise = paise;
+    }
+
+    public static Money ofPaise(long paise) {
+        return paise == 0 ? ZERO : new Money(paise);
+    }
+
+    public static Money of(String amount) {
+        return of(new BigDecimal(amount));
+    }
+
+    public static Money of(BigDecimal amount) {
+        BigDecimal scaled;
+        try {
+            scaled = amount.setScale(SCALE, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most two decimal places: " + amount);
+        }
+        try {
+            return ofPaise(scaled.unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount out of range: " + amount);
+        }
+    }
+
+    public long getPaise() {
+        return paise;
+    }
+
+    public Money plus(Money other) {
+        return ofPaise(Math.addExact(paise, other.paise));
+    }
+
+    public Money minus(Money other) {
+        return ofPaise(Math.subtractExact(paise, other.paise));
+    }
+
+    public Money times(long quantity) {
+        return ofPaise(Math.multiplyExact(paise, quantity));
+    }
+
+    public Money min(Money other) {
+        return paise <= other.paise ? this : other;
+    }
+
+    // Rate in basis points (1800 = 18%), rounded half away from zero to the nearest paisa
+    // (BigDecimal's HALF_UP), so a negative amount rounds to the negation of the positive one
+    public Money percentage(long basisPoints) {
+        return ofPaise(percentageOf(paise, basisPoints));
+    }
+
+    public static long percentageOf(long paise, long basisPoints) {
+        long scaled = Math.multiplyExact(paise, basisPoints);
+        long rounded = Math.addExact(Math.absExact(scaled), 5_000) / 10_000;
+        return scaled < 0 ? -rounded : rounded;
+    }
+
+    public boolean isZero() {
+        return paise == 0;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(paise, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(paise, other.paise);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money other && paise == other.paise);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(paise);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+
+    // Always a bare JSON number such as 129.99, even under the Redis serializer's default typing
+    static class JsonSerializer extends StdScalarSerializer<Money> {
+
+        JsonSerializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeNumber(value.toBigDecimal());
+        }
+
+        @Override
+        public void serializeWithType(Money value, JsonGenerator gen, SerializerProvider provider,
+                TypeSerializer typeSer) throws IOException {
+            serialize(value, gen, provider);
+        }
+    }
+
+    static class JsonDeserializer extends StdScalarDeserializer<Money> {
+
+        JsonDeserializer() {
+            super(Money.class);
+        }
+
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            if (p.hasToken(JsonToken.VALUE_STRING)) {
+                return Money.of(p.getText().trim());
+            }
+            return Money.of(p.getDecimalValue());
+        }
+
+        @Override
+        public Object deserializeWithType(JsonParser p, DeserializationContext ctxt,
+                TypeDeserializer typeDeserializer) throws IOException {
+            return deserialize(p, ctxt);
+        }
+    }
+}
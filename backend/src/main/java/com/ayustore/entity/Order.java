@@ -1,17 +1,19 @@
 package com.ayustore.entity;
 
+import com.ayustore.persistence.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
-import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.UpdateTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
+// Indexes live in the db/migration scripts
 @Table(name = "orders")
 @Getter
 @Setter
@@ -21,7 +23,7 @@ import java.util.UUID;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -34,7 +36,14 @@ public class Order {
     private OrderStatus status = OrderStatus.PENDING;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal total;
+    private Money total;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Money discount = Money.ZERO;
+
+    private String couponCode;
 
     @Embedded
     private ShippingAddress shippingAddress;
@@ -46,13 +55,20 @@ public class Order {
     @OneToOne(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Payment payment;
 
-    @CreationTimestamp
-    @Column(updatable = false)
+    // Partition key of orders and order_items, so it is fixed before the items are persisted
+    @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @UpdateTimestamp
     private LocalDateTime updatedAt;
 
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        }
+    }
+
     public enum OrderStatus {
         PENDING, PROCESSING, SHIPPED, DELIVERED, CANCELLED
     }
@@ -3,7 +3,7 @@ package com.ayustore.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "order_items")
@@ -22,6 +22,10 @@ public class OrderItem {
     @JoinColumn(name = "order_id", nullable = false)
     private Order order;
 
+    // Copy of the order's created_at: order_items is partitioned on it alongside orders
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime orderCreatedAt;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
@@ -30,9 +34,16 @@ public class OrderItem {
     private Integer quantity;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal priceAtPurchase;
+    private Money priceAtPurchase;
 
     // Snapshot of product details at purchase time
     private String productName;
     private String productImage;
+
+    @PrePersist
+    void onCreate() {
+        if (orderCreatedAt == null) {
+            orderCreatedAt = order.getCreatedAt();
+        }
+    }
 }
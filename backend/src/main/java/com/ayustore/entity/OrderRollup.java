@@ -0,0 +1,65 @@
+package com.ayustore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+// Pre-aggregated order metrics per time bucket, category and status. Rows with category "*" are
+// whole-order totals (order total after discounts); per-category rows sum their line amounts and
+// count each order once per category it appears in.
+@Entity
+@Table(name = "order_rollups")
+@IdClass(OrderRollup.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OrderRollup {
+
+    public static final String ALL_CATEGORIES = "*";
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 8)
+    private Granularity granularity;
+
+    @Id
+    private LocalDateTime bucketStart;
+
+    @Id
+    private String category;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Order.OrderStatus status;
+
+    @Column(nullable = false)
+    private Long orders;
+
+    @Column(nullable = false)
+    private Long revenuePaise;
+
+    // Rollup generation that last wrote this bucket
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long generation;
+
+    public enum Granularity {
+        HOUR, DAY
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Granularity granularity;
+        private LocalDateTime bucketStart;
+        private String category;
+        private Order.OrderStatus status;
+    }
+}
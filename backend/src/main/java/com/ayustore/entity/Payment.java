@@ -1,10 +1,10 @@
 package com.ayustore.entity;
 
+import com.ayustore.persistence.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
@@ -18,13 +18,17 @@ import java.util.UUID;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @OneToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "order_id", nullable = false)
+    @JoinColumn(name = "order_id", nullable = false, unique = true)
     private Order order;
 
+    // Second half of the foreign key into the partitioned orders table
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime orderCreatedAt;
+
     @Column(unique = true)
     private String razorpayOrderId;
 
@@ -33,7 +37,7 @@ public class Payment {
     private String razorpaySignature;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal amount;
+    private Money amount;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -46,6 +50,13 @@ public class Payment {
 
     private LocalDateTime completedAt;
 
+    @PrePersist
+    void onCreate() {
+        if (orderCreatedAt == null) {
+            orderCreatedAt = order.getCreatedAt();
+        }
+    }
+
     public enum PaymentStatus {
         PENDING, COMPLETED, FAILED, REFUNDED
     }
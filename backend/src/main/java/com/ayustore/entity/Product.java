@@ -2,15 +2,19 @@ package com.ayustore.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.io.Serializable;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "products")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "product")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,7 +30,7 @@ public class Product implements Serializable {
     private String name;
 
     @Column(nullable = false, precision = 10, scale = 2)
-    private BigDecimal price;
+    private Money price;
 
     @Column(length = 2000)
     private String description;
@@ -47,6 +51,22 @@ public class Product implements Serializable {
     @Builder.Default
     private Boolean isActive = true;
 
+    // Alert when stock falls to this level; null falls back to the category or default threshold
+    private Integer lowStockThreshold;
+
+    // Bumped on every write, stock included: guards admin edits and orders stock monitor events.
+    // Sales change stock with single-row updates, so they never conflict on it.
+    @Version
+    @ColumnDefault("0")
+    private Long version;
+
+    // Bumped only when what a cart line shows changes (name, price, category, image, active);
+    // cart snapshots compare against it at checkout, so concurrent sales leave them valid
+    @Builder.Default
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long catalogVersion = 0L;
+
     @CreationTimestamp
     @Column(updatable = false)
     private LocalDateTime createdAt;
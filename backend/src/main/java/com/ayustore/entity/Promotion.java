@@ -0,0 +1,70 @@
+package com.ayustore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "promotions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Promotion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    // Coupon code the customer must enter; null for promotions applied automatically
+    @Column(unique = true)
+    private String code;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PromotionType type;
+
+    // Amount off a FIXED promotion
+    @Column(precision = 10, scale = 2)
+    private Money amountOff;
+
+    // Percentage off a PERCENTAGE promotion, in basis points (12.5% = 1250)
+    private Integer percentBasisPoints;
+
+    private Integer buyQuantity;
+
+    private Integer getQuantity;
+
+    // Restricts the promotion to lines of this category; null means the whole cart
+    private String category;
+
+    @Column(precision = 10, scale = 2)
+    private Money minSubtotal;
+
+    private Integer perUserLimit;
+
+    private LocalDateTime startsAt;
+
+    private LocalDateTime endsAt;
+
+    @Builder.Default
+    private Boolean isActive = true;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
+    public enum PromotionType {
+        PERCENTAGE, FIXED, BUY_X_GET_Y
+    }
+}
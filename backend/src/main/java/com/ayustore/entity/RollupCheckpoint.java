@@ -0,0 +1,29 @@
+package com.ayustore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// How far a rollup job has processed its source table; the row lock also keeps concurrent
+// nodes from running the same job at once
+@Entity
+@Table(name = "rollup_checkpoints")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RollupCheckpoint {
+
+    @Id
+    @Column(length = 32)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime processedUntil;
+
+    // Bumped whenever a run changed rollups, so nodes know when to reload their cache
+    @Column(nullable = false)
+    private Long generation;
+}
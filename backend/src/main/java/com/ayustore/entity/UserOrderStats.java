@@ -0,0 +1,27 @@
+package com.ayustore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+// Per-user order aggregates, maintained by OrderService in the same transaction as the order change.
+// Lifetime value is the total of all orders that are not cancelled.
+@Entity
+@Table(name = "user_order_stats")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserOrderStats {
+
+    @Id
+    private UUID userId;
+
+    @Column(nullable = false)
+    private Long orderCount;
+
+    @Column(nullable = false)
+    private Long lifetimeValuePaise;
+}
@@ -0,0 +1,138 @@
+package com.ayustore.persistence;
+
+import com.ayustore.entity.Product;
+import com.ayustore.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+// The second-level cache is per node. Hibernate keeps this node's entries current on entity updates;
+// committed updates and deletes are announced over pub/sub so the other nodes drop their copies.
+// Bulk and native statements bypass the entity events, so their callers evict explicitly.
+// The category list is a query over products; the local update-timestamps region only sees this
+// node's writes, so any committed product insert, update or delete also clears it everywhere else.
+@Slf4j
+@Component
+public class EntityCacheInvalidator implements MessageListener, PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final String CHANNEL = "l2:evictions";
+    private static final String QUERY_REGION = "QueryRegion";
+    private static final String PRODUCT_CATEGORIES_REGION = "product-categories";
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public EntityCacheInvalidator(EntityManagerFactory entityManagerFactory,
+            StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer listenerContainer) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.stringRedisTemplate = stringRedisTemplate;
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    // For changes made without loading the entity; evicts here and on every other node once committed
+    public void evictAfterCommit(Class<?> entityClass, Object id) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                entityManagerFactory.getCache().evict(entityClass, id);
+                publish(entityClass.getSimpleName(), id);
+            }
+        });
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publishQuerySpaces(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getEntity().getClass().getSimpleName(), event.getId());
+        publishQuerySpaces(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getEntity().getClass().getSimpleName(), event.getId());
+        publishQuerySpaces(event.getEntity());
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // nodeId|Entity|id or nodeId|QueryRegion|region
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        switch (parts[1]) {
+            case "Product" -> entityManagerFactory.getCache().evict(Product.class, Long.valueOf(parts[2]));
+            case "User" -> entityManagerFactory.getCache().evict(User.class, UUID.fromString(parts[2]));
+            case QUERY_REGION -> entityManagerFactory.unwrap(SessionFactory.class).getCache()
+                    .evictQueryRegion(parts[2]);
+            default -> log.debug("Ignoring eviction for uncached entity {}", parts[1]);
+        }
+    }
+
+    private void publishQuerySpaces(Object entity) {
+        if (entity instanceof Product) {
+            publish(QUERY_REGION, PRODUCT_CATEGORIES_REGION);
+        }
+    }
+
+    private void publish(String kind, Object key) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, nodeId + '|' + kind + '|' + key);
+        } catch (DataAccessException e) {
+            // Other nodes fall back to the region's expiry
+            log.warn("Could not publish cache eviction for {} {}: {}", kind, key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.ayustore.persistence;
+
+import com.ayustore.config.ReplicaProperties;
+import com.ayustore.security.UserPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Read-only transactions go round-robin to the replicas that passed the last health check and are
+// within the lag limit; everything else, and all reads when no replica qualifies, use the primary.
+// A user whose write committed recently reads from the primary so they see their own changes.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+
+    // Zero only while the WAL receiver is streaming and everything received has been replayed, so an
+    // idle primary does not read as lag. A replica whose receiver is down has nothing new to compare
+    // against, so it reports the age of its last replayed transaction (unknown counts as infinitely behind).
+    // Reading pg_stat_wal_receiver.status needs pg_read_all_stats for a non-superuser.
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming')
+                    AND pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(CAST(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000
+                    AS double precision), CAST('Infinity' AS double precision))
+            END
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReplicaProperties properties;
+    private final Cache<UUID, Boolean> recentWriters;
+    private final AtomicInteger next = new AtomicInteger();
+    // Health checks get their own thread: a replica that hangs must not delay startup or other jobs
+    private final ScheduledExecutorService healthChecker;
+    private volatile Replica[] available = new Replica[0];
+
+    private static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy;
+        volatile long lagMs;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicaDataSources,
+            ReplicaProperties properties) {
+        this.primary = primary;
+        this.properties = properties;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(properties.getReadYourWritesMs()))
+                .build();
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicaDataSources.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource);
+            replicas.add(replica);
+            targets.put(name, dataSource);
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+
+        // Replicas take no reads until their first check passes
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, 0, properties.getHealthCheckIntervalMs(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Replica replica = route();
+        return replica != null ? replica.name : PRIMARY;
+    }
+
+    // Falls back to the primary when the chosen replica cannot hand out a connection
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            log.warn("Replica {} unavailable, reading from primary: {}", replica.name, e.getMessage());
+            markDown(replica);
+            return primary.getConnection();
+        }
+    }
+
+    private Replica route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                rememberWriter();
+            }
+            return null;
+        }
+        UUID userId = currentUserId();
+        if (userId != null && recentWriters.getIfPresent(userId) != null) {
+            return null;
+        }
+        Replica[] candidates = available;
+        if (candidates.length == 0) {
+            return null;
+        }
+        return candidates[Math.floorMod(next.getAndIncrement(), candidates.length)];
+    }
+
+    private void rememberWriter() {
+        UUID userId = currentUserId();
+        if (userId == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(userId, Boolean.TRUE);
+            }
+        });
+    }
+
+    private static UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal
+                ? principal.getId()
+                : null;
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(properties.getCheckTimeoutSeconds());
+                try (ResultSet rs = statement.executeQuery(LAG_QUERY)) {
+                    rs.next();
+                    replica.lagMs = (long) rs.getDouble(1);
+                }
+                replica.healthy = replica.lagMs <= properties.getMaxLagMs();
+                if (!replica.healthy && wasHealthy) {
+                    log.warn("Replica {} is {} ms behind, routing its reads to the primary", replica.name,
+                            replica.lagMs);
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.healthy = false;
+                if (wasHealthy) {
+                    log.warn("Replica {} failed its health check: {}", replica.name, e.getMessage());
+                }
+            }
+            if (replica.healthy && !wasHealthy) {
+                log.info("Replica {} is serving reads ({} ms behind)", replica.name, replica.lagMs);
+            }
+        }
+        publish();
+    }
+
+    private void markDown(Replica replica) {
+        replica.healthy = false;
+        publish();
+    }
+
+    private synchronized void publish() {
+        available = replicas.stream().filter(r -> r.healthy).toArray(Replica[]::new);
+    }
+
+    // The primary pool is a bean of its own and closed by the container
+    public void close() throws IOException {
+        healthChecker.shutdownNow();
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
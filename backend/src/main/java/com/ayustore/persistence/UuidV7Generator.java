@@ -0,0 +1,57 @@
+package com.ayustore.persistence;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    // Packed as (unix millis << 12 | 12-bit sequence) so ids stay monotonic within a millisecond
+    private static final AtomicLong LAST_TIMESTAMP_AND_SEQUENCE = new AtomicLong();
+
+    public UuidV7Generator(UuidV7 config, Member member, CustomIdGeneratorCreationContext context) {
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+            EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    public static UUID next() {
+        long stamp = nextTimestampAndSequence();
+        long millis = stamp >>> 12;
+        long sequence = stamp & 0xFFFL;
+
+        // 48-bit timestamp | version 7 | 12-bit sequence
+        long msb = (millis << 16) | 0x7000L | sequence;
+        // variant 10 | 62 random bits
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+
+    private static long nextTimestampAndSequence() {
+        while (true) {
+            long last = LAST_TIMESTAMP_AND_SEQUENCE.get();
+            long now = System.currentTimeMillis() << 12;
+            // Clock went backwards or sequence is exhausted: borrow from the next millisecond
+            long next = now > last ? now : last + 1;
+            if (LAST_TIMESTAMP_AND_SEQUENCE.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+}
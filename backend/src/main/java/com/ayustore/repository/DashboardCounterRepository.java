@@ -0,0 +1,38 @@
+package com.ayustore.repository;
+
+import com.ayustore.entity.DashboardCounter;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DashboardCounterRepository extends JpaRepository<DashboardCounter, DashboardCounter.Key> {
+
+    // Atomic add that also creates the shard row on first use; a delta of 0 just ensures it exists
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "dashboard_counters"))
+    @Query(value = "INSERT INTO dashboard_counters (name, shard, counter_value) VALUES (:name, :shard, :delta) "
+            + "ON CONFLICT (name, shard) DO UPDATE SET counter_value = dashboard_counters.counter_value + :delta",
+            nativeQuery = true)
+    int add(@Param("name") String name, @Param("shard") int shard, @Param("delta") long delta);
+
+    @Query("SELECT c.name, SUM(c.value) FROM DashboardCounter c GROUP BY c.name")
+    List<Object[]> sumByName();
+
+    // Blocks writers to this counter until the caller's transaction ends
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM DashboardCounter c WHERE c.name = :name")
+    List<DashboardCounter> lockByName(@Param("name") String name);
+
+    @Modifying
+    @Query("UPDATE DashboardCounter c SET c.value = CASE WHEN c.shard = 0 THEN :value ELSE 0 END WHERE c.name = :name")
+    int reset(@Param("name") String name, @Param("value") long value);
+}
@@ -2,26 +2,65 @@ package com.ayustore.repository;
 
 import com.ayustore.entity.Order;
 import com.ayustore.entity.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, UUID> {
 
+    // Must stay in step with the predicate of the partial indexes in V8__open_order_indexes.sql
+    String OPEN = "AND o.status NOT IN (com.ayustore.entity.Order.OrderStatus.DELIVERED, "
+            + "com.ayustore.entity.Order.OrderStatus.CANCELLED) ";
+
     List<Order> findByUserOrderByCreatedAtDesc(User user);
 
+    // The customer columns of OrderDto come along in the same query
+    @EntityGraph(attributePaths = "user")
     List<Order> findByUserIdOrderByCreatedAtDesc(UUID userId);
 
+    // Hot listings: the created_at bound lets Postgres prune the archive and older monthly partitions
+    @EntityGraph(attributePaths = "user")
+    List<Order> findByUserIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(UUID userId, LocalDateTime since);
+
+    // Orders from before the hot window that are not yet delivered or cancelled; they stay in default
+    // listings however old they are. Served by the partial open-order indexes from V8.
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT o FROM Order o WHERE o.user.id = :userId AND o.createdAt < :before " + OPEN
+            + "ORDER BY o.createdAt DESC")
+    List<Order> findOpenByUserIdCreatedBefore(@Param("userId") UUID userId, @Param("before") LocalDateTime before);
+
     @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC")
     List<Order> findAllOrderByCreatedAtDesc();
 
+    @Query("SELECT o FROM Order o WHERE o.createdAt >= :since ORDER BY o.createdAt DESC")
+    List<Order> findHotOrderByCreatedAtDesc(@Param("since") LocalDateTime since);
+
+    @Query("SELECT o FROM Order o WHERE o.createdAt < :before " + OPEN + "ORDER BY o.createdAt DESC")
+    List<Order> findOpenCreatedBefore(@Param("before") LocalDateTime before);
+
     @Query("SELECT COUNT(o) FROM Order o")
     long countAllOrders();
 
-    @Query("SELECT SUM(o.total) FROM Order o WHERE o.status = 'DELIVERED'")
+    @Query(value = "SELECT COALESCE(SUM(total), 0) FROM orders WHERE status = 'DELIVERED'", nativeQuery = true)
     java.math.BigDecimal sumCompletedOrdersTotal();
+
+    // Creates any missing monthly partitions of orders/order_items starting at fromMonth
+    @Query(value = "SELECT ensure_order_partitions(CAST(:fromMonth AS date), :months)", nativeQuery = true)
+    int ensurePartitions(@Param("fromMonth") LocalDate fromMonth, @Param("months") int months);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.status = com.ayustore.entity.Order.OrderStatus.PROCESSING, o.updatedAt = :now "
+            + "WHERE o.status = com.ayustore.entity.Order.OrderStatus.PENDING "
+            + "AND o.id IN (SELECT p.order.id FROM Payment p WHERE p.id IN :paymentIds)")
+    int markPaidOrdersProcessing(@Param("paymentIds") Collection<UUID> paymentIds, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,83 @@
+package com.ayustore.repository;
+
+import com.ayustore.entity.OrderRollup;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderRollupRepository extends JpaRepository<OrderRollup, OrderRollup.Key> {
+
+    // Hours (as epoch seconds of the wall-clock hour) holding orders created or changed since the cutoff;
+    // reads only the changed rows via idx_orders_updated_at
+    @Query(value = "SELECT DISTINCT CAST(EXTRACT(EPOCH FROM date_trunc('hour', created_at)) AS bigint) "
+            + "FROM orders WHERE updated_at > :since", nativeQuery = true)
+    List<Long> findDirtyHours(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "order_rollups"))
+    @Query(value = "DELETE FROM order_rollups WHERE granularity = :granularity AND bucket_start IN (:buckets)",
+            nativeQuery = true)
+    int deleteBuckets(@Param("granularity") String granularity, @Param("buckets") Collection<LocalDateTime> buckets);
+
+    // The from/to range lets the created_at index narrow the scan before the exact hour filter
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "order_rollups"))
+    @Query(value = "INSERT INTO order_rollups "
+            + "(granularity, bucket_start, category, status, orders, revenue_paise, generation) "
+            + "SELECT 'HOUR', date_trunc('hour', o.created_at), '*', o.status, COUNT(*), "
+            + "CAST(ROUND(SUM(o.total) * 100) AS bigint), :generation "
+            + "FROM orders o WHERE o.created_at >= :from AND o.created_at < :to "
+            + "AND date_trunc('hour', o.created_at) IN (:hours) "
+            + "GROUP BY date_trunc('hour', o.created_at), o.status", nativeQuery = true)
+    int insertHourlyTotals(@Param("hours") Collection<LocalDateTime> hours,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("generation") long generation);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "order_rollups"))
+    @Query(value = "INSERT INTO order_rollups "
+            + "(granularity, bucket_start, category, status, orders, revenue_paise, generation) "
+            + "SELECT 'HOUR', date_trunc('hour', o.created_at), COALESCE(p.category, 'Uncategorized'), o.status, "
+            + "COUNT(DISTINCT o.id), CAST(ROUND(SUM(oi.price_at_purchase * oi.quantity) * 100) AS bigint), "
+            + ":generation "
+            + "FROM orders o JOIN order_items oi ON oi.order_id = o.id AND oi.order_created_at = o.created_at "
+            + "JOIN products p ON p.id = oi.product_id "
+            + "WHERE o.created_at >= :from AND o.created_at < :to "
+            + "AND date_trunc('hour', o.created_at) IN (:hours) "
+            + "GROUP BY date_trunc('hour', o.created_at), COALESCE(p.category, 'Uncategorized'), o.status",
+            nativeQuery = true)
+    int insertHourlyByCategory(@Param("hours") Collection<LocalDateTime> hours,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("generation") long generation);
+
+    // Days are rebuilt from their hours, never from orders
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "order_rollups"))
+    @Query(value = "INSERT INTO order_rollups "
+            + "(granularity, bucket_start, category, status, orders, revenue_paise, generation) "
+            + "SELECT 'DAY', date_trunc('day', r.bucket_start), r.category, r.status, SUM(r.orders), SUM(r.revenue_paise), "
+            + ":generation "
+            + "FROM order_rollups r WHERE r.granularity = 'HOUR' AND r.bucket_start >= :from AND r.bucket_start < :to "
+            + "AND date_trunc('day', r.bucket_start) IN (:days) "
+            + "GROUP BY date_trunc('day', r.bucket_start), r.category, r.status", nativeQuery = true)
+    int insertDailyFromHourly(@Param("days") Collection<LocalDateTime> days,
+            @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+            @Param("generation") long generation);
+
+    // Rows written after the given generation, as (granularity, bucket epoch second, category, status,
+    // orders, revenue_paise); plain columns rather than entities since a first load reads the whole window
+    @Query(value = "SELECT granularity, CAST(EXTRACT(EPOCH FROM bucket_start) AS bigint), category, status, "
+            + "orders, revenue_paise FROM order_rollups WHERE generation > :afterGeneration "
+            + "AND (granularity = 'DAY' OR bucket_start >= :hourlyFrom) ORDER BY bucket_start", nativeQuery = true)
+    List<Object[]> findRowsWrittenAfter(@Param("afterGeneration") long afterGeneration,
+            @Param("hourlyFrom") LocalDateTime hourlyFrom);
+}
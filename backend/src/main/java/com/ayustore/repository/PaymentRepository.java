@@ -1,9 +1,16 @@
 package com.ayustore.repository;
 
 import com.ayustore.entity.Payment;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,4 +20,31 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     Optional<Payment> findByRazorpayOrderId(String razorpayOrderId);
 
     Optional<Payment> findByOrderId(UUID orderId);
+
+    @Query("SELECT p FROM Payment p JOIN FETCH p.order WHERE p.razorpayOrderId IN :razorpayOrderIds")
+    List<Payment> findAllWithOrderByRazorpayOrderIdIn(@Param("razorpayOrderIds") Collection<String> razorpayOrderIds);
+
+    // Keyset page over pending and recent payments; UUIDv7 ids are time-ordered, so this is also creation order
+    @Query("SELECT p FROM Payment p WHERE p.id > :afterId AND p.razorpayOrderId IS NOT NULL "
+            + "AND (p.status = com.ayustore.entity.Payment.PaymentStatus.PENDING OR p.createdAt >= :since) "
+            + "ORDER BY p.id")
+    List<Payment> findReconciliationPage(@Param("afterId") UUID afterId, @Param("since") LocalDateTime since,
+            Limit limit);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.ayustore.entity.Payment.PaymentStatus.COMPLETED, "
+            + "p.completedAt = :completedAt WHERE p.id IN :ids "
+            + "AND p.status IN (com.ayustore.entity.Payment.PaymentStatus.PENDING, com.ayustore.entity.Payment.PaymentStatus.FAILED)")
+    int markCompleted(@Param("ids") Collection<UUID> ids, @Param("completedAt") LocalDateTime completedAt);
+
+    // Fills in the captured payment id the reconciler learned from the gateway; a verified id is kept
+    @Modifying
+    @Query("UPDATE Payment p SET p.razorpayPaymentId = :razorpayPaymentId "
+            + "WHERE p.id = :id AND p.razorpayPaymentId IS NULL")
+    int setRazorpayPaymentIdIfMissing(@Param("id") UUID id, @Param("razorpayPaymentId") String razorpayPaymentId);
+
+    @Modifying
+    @Query("UPDATE Payment p SET p.status = com.ayustore.entity.Payment.PaymentStatus.FAILED "
+            + "WHERE p.id IN :ids AND p.status = com.ayustore.entity.Payment.PaymentStatus.PENDING")
+    int markFailed(@Param("ids") Collection<UUID> ids);
 }
@@ -1,8 +1,11 @@
 package com.ayustore.repository;
 
 import com.ayustore.entity.Product;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,12 +15,42 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByIsActiveTrue();
 
+    long countByIsActiveTrue();
+
+    // Just the columns the stock monitor needs, without loading entities
+    @Query("SELECT p.id, p.name, p.category, p.stock, p.lowStockThreshold, p.version FROM Product p "
+            + "WHERE p.isActive = true")
+    List<Object[]> findActiveStockLevels();
+
     List<Product> findByCategory(String category);
 
     List<Product> findByCategoryAndIsActiveTrue(String category);
 
+    // Served from the query cache until the products table changes through Hibernate
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "product-categories")
+    })
     @Query("SELECT DISTINCT p.category FROM Product p WHERE p.isActive = true")
     List<String> findAllCategories();
 
     List<Product> findByNameContainingIgnoreCaseAndIsActiveTrue(String name);
+
+    // Takes stock for a cart line whose snapshot is still current: the catalog fields it shows are
+    // unchanged and there is enough stock. Returns the product's new version, or null when nothing was
+    // updated. Native with its own query space so a checkout does not clear the whole product cache
+    // region (or the category query cache); callers evict the one product instead.
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "product_stock"))
+    @Query(value = "UPDATE products SET stock = stock - :quantity, version = version + 1 "
+            + "WHERE id = :id AND catalog_version = :catalogVersion AND stock >= :quantity AND is_active = true "
+            + "RETURNING version", nativeQuery = true)
+    Long decrementStockIfCatalogUnchanged(@Param("id") Long id, @Param("catalogVersion") Long catalogVersion,
+            @Param("quantity") int quantity);
+
+    // Takes stock in one statement, so concurrent orders for the same product queue on the row lock
+    // instead of failing an optimistic version check. Returns the new version, or null if short.
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "product_stock"))
+    @Query(value = "UPDATE products SET stock = stock - :quantity, version = version + 1 "
+            + "WHERE id = :id AND stock >= :quantity AND is_active = true RETURNING version", nativeQuery = true)
+    Long decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
@@ -0,0 +1,21 @@
+package com.ayustore.repository;
+
+import com.ayustore.entity.PromotionRedemption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface PromotionRedemptionRepository extends JpaRepository<PromotionRedemption, Long> {
+
+    long countByPromotionIdAndUserId(Long promotionId, UUID userId);
+
+    // Transaction-scoped lock on one (promotion, user) pair: the per-user limit check and the
+    // redemption insert of concurrent checkouts by the same user run one after the other
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(CAST(:promotionId AS integer), "
+            + "hashtext(CAST(:userId AS text)))) l", nativeQuery = true)
+    int lockForUser(@Param("promotionId") Long promotionId, @Param("userId") UUID userId);
+}
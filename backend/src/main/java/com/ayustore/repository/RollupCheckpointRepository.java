@@ -0,0 +1,26 @@
+package com.ayustore.repository;
+
+import com.ayustore.entity.RollupCheckpoint;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface RollupCheckpointRepository extends JpaRepository<RollupCheckpoint, String> {
+
+    // SKIP LOCKED: a node finding the row held by another node's run skips its own run
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT c FROM RollupCheckpoint c WHERE c.name = :name")
+    Optional<RollupCheckpoint> lockByName(@Param("name") String name);
+
+    @Query("SELECT c.generation FROM RollupCheckpoint c WHERE c.name = :name")
+    Optional<Long> findGenerationByName(@Param("name") String name);
+}
@@ -0,0 +1,34 @@
+package com.ayustore.repository;
+
+import com.ayustore.entity.UserOrderStats;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface UserOrderStatsRepository extends JpaRepository<UserOrderStats, UUID> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "user_order_stats"))
+    @Query(value = "INSERT INTO user_order_stats (user_id, order_count, lifetime_value_paise) "
+            + "VALUES (:userId, :orders, :valuePaise) ON CONFLICT (user_id) DO UPDATE SET "
+            + "order_count = user_order_stats.order_count + :orders, "
+            + "lifetime_value_paise = user_order_stats.lifetime_value_paise + :valuePaise", nativeQuery = true)
+    int add(@Param("userId") UUID userId, @Param("orders") long orders, @Param("valuePaise") long valuePaise);
+
+    // Recomputes every user's aggregate from orders; used once to seed the table
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "user_order_stats"))
+    @Query(value = "INSERT INTO user_order_stats (user_id, order_count, lifetime_value_paise) "
+            + "SELECT user_id, COUNT(*), COALESCE(CAST(ROUND(SUM(CASE WHEN status <> 'CANCELLED' THEN total ELSE 0 END) * 100) AS bigint), 0) "
+            + "FROM orders GROUP BY user_id ON CONFLICT (user_id) DO UPDATE SET "
+            + "order_count = EXCLUDED.order_count, lifetime_value_paise = EXCLUDED.lifetime_value_paise",
+            nativeQuery = true)
+    int rebuildAll();
+}
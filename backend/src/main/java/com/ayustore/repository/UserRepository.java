@@ -2,17 +2,32 @@ package com.ayustore.repository;
 
 import com.ayustore.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, UUID>, JpaSpecificationExecutor<User> {
 
     Optional<User> findByEmail(String email);
 
     Optional<User> findByGoogleId(String googleId);
 
+    // One round trip for Google sign-in: the linked account and/or the account with the same email
+    List<User> findByGoogleIdOrEmail(String googleId, String email);
+
     boolean existsByEmail(String email);
+
+    @Modifying
+    @Query("UPDATE User u SET u.googleId = :googleId, u.avatar = :avatar WHERE u.id = :id")
+    int linkGoogleAccount(@Param("id") UUID id, @Param("googleId") String googleId, @Param("avatar") String avatar);
+
+    @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findTokenVersionById(@Param("id") UUID id);
 }
@@ -1,7 +1,5 @@
 package com.ayustore.security;
 
-import com.ayustore.entity.User;
-import com.ayustore.repository.UserRepository;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,7 +14,6 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.UUID;
 
 @Slf4j
 @Component
@@ -24,7 +21,8 @@ import java.util.UUID;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider tokenProvider;
-    private final UserRepository userRepository;
+    private final TokenVersionCache tokenVersionCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -33,18 +31,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                UUID userId = tokenProvider.getUserIdFromToken(jwt);
+            JwtTokenProvider.VerifiedToken verified = StringUtils.hasText(jwt) ? tokenProvider.verify(jwt) : null;
+            if (verified != null && tokenRevocationService.isRevoked(verified.tokenId())) {
+                log.debug("Rejected revoked token {}", verified.tokenId());
+            } else if (verified != null) {
+                UserPrincipal userPrincipal = verified.principal();
 
-                User user = userRepository.findById(userId).orElse(null);
-                if (user != null) {
-                    UserPrincipal userPrincipal = UserPrincipal.create(user);
+                // Only the version stamp is checked against the store, and that is cached
+                if (tokenVersionCache.isCurrent(userPrincipal.getId(), userPrincipal.getTokenVersion())) {
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                             userPrincipal,
                             null,
                             userPrincipal.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+                } else {
+                    log.debug("Rejected revoked or outdated token for user {}", userPrincipal.getId());
                 }
             }
         } catch (Exception ex) {
@@ -54,7 +56,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-    private String getJwtFromRequest(HttpServletRequest request) {
+    public static String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
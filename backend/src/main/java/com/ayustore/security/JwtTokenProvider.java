@@ -1,5 +1,9 @@
 package com.ayustore.security;
 
+import com.ayustore.entity.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -9,33 +13,93 @@ import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
 public class JwtTokenProvider {
 
+    private static final String CLAIM_EMAIL = "email";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_NAME = "name";
+    private static final String CLAIM_AVATAR = "avatar";
+    private static final String CLAIM_VERSION = "ver";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
     private final SecretKey key;
     private final long jwtExpiration;
+    // Built once; JwtParser is immutable and thread-safe
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    // Token id (jti) and expiry travel with the principal so a token can be revoked until it expires
+    public record VerifiedToken(UserPrincipal principal, String tokenId, long expiresAtMillis) {
+    }
 
     public JwtTokenProvider(
             @Value("${app.jwt.secret}") String jwtSecret,
-            @Value("${app.jwt.expiration}") long jwtExpiration) {
+            @Value("${app.jwt.expiration}") long jwtExpiration,
+            @Value("${app.jwt.verified-cache.max-size:10000}") long verifiedCacheSize) {
         // Ensure secret is at least 256 bits for HS256
         byte[] keyBytes = Decoders.BASE64.decode(jwtSecret);
         this.key = Keys.hmacShaKeyFor(keyBytes);
         this.jwtExpiration = jwtExpiration;
+        this.parser = Jwts.parser().verifyWith(key).build();
+        // Entries live exactly as long as the token they vouch for
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken verified, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(
+                                Math.max(0, verified.expiresAtMillis() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken verified, long currentTime,
+                            long currentDuration) {
+                        return expireAfterCreate(digest, verified, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken verified, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public String generateToken(User user) {
+        return generateToken(UserPrincipal.create(user));
     }
 
-    public String generateToken(UUID userId, String email, String role) {
+    // Carries everything the principal needs, so the filter never has to load the user
+    public String generateToken(UserPrincipal userPrincipal) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpiration);
 
         return Jwts.builder()
-                .subject(userId.toString())
-                .claim("email", email)
-                .claim("role", role)
+                .subject(userPrincipal.getId().toString())
+                .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                .claim(CLAIM_ROLE, userPrincipal.getRole())
+                .claim(CLAIM_NAME, userPrincipal.getName())
+                .claim(CLAIM_AVATAR, userPrincipal.getAvatar())
+                .claim(CLAIM_VERSION, userPrincipal.getTokenVersion())
+                .id(UUID.randomUUID().toString())
                 .issuedAt(now)
                 .expiration(expiryDate)
                 .signWith(key)
@@ -43,56 +107,86 @@ public class JwtTokenProvider {
     }
 
     public String generateToken(Authentication authentication) {
-        UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-        return generateToken(
-                userPrincipal.getId(),
-                userPrincipal.getEmail(),
-                userPrincipal.getRole());
+        return generateToken((UserPrincipal) authentication.getPrincipal());
+    }
+
+    public long getAccessTokenExpirationMs() {
+        return jwtExpiration;
+    }
+
+    public UserPrincipal authenticate(String token) {
+        VerifiedToken verified = verify(token);
+        return verified != null ? verified.principal() : null;
+    }
+
+    // Single verification pass: signature, expiry and claim extraction happen once per distinct token,
+    // after which the result is served from the digest-keyed cache until the token expires.
+    // Returns null for anything that does not verify.
+    public VerifiedToken verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String digest = digest(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        // The cache expires on its own ticker; the token's own expiry is what must never be outlived
+        if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+            return cached;
+        }
+
+        Claims claims = parseVerifiedClaims(token);
+        if (claims == null) {
+            return null;
+        }
+        Integer version = claims.get(CLAIM_VERSION, Integer.class);
+        UserPrincipal principal = UserPrincipal.create(
+                UUID.fromString(claims.getSubject()),
+                claims.get(CLAIM_EMAIL, String.class),
+                claims.get(CLAIM_NAME, String.class),
+                claims.get(CLAIM_AVATAR, String.class),
+                claims.get(CLAIM_ROLE, String.class),
+                version != null ? version : 0);
+        Date expiration = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(principal, claims.getId(),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
+        if (expiration != null) {
+            verifiedTokens.put(digest, verified);
+        }
+        return verified;
     }
 
     public UUID getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return UUID.fromString(claims.getSubject());
+        UserPrincipal principal = authenticate(token);
+        return principal != null ? principal.getId() : null;
     }
 
     public String getEmailFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("email", String.class);
+        UserPrincipal principal = authenticate(token);
+        return principal != null ? principal.getEmail() : null;
     }
 
     public String getRoleFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return claims.get("role", String.class);
+        UserPrincipal principal = authenticate(token);
+        return principal != null ? principal.getRole() : null;
     }
 
     public boolean validateToken(String token) {
+        return authenticate(token) != null;
+    }
+
+    private static String digest(String token) {
+        return HexFormat.of().formatHex(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private Claims parseVerifiedClaims(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
-        } catch (MalformedJwtException ex) {
-            log.error("Invalid JWT token");
+            return parser.parseSignedClaims(token).getPayload();
         } catch (ExpiredJwtException ex) {
-            log.error("Expired JWT token");
-        } catch (UnsupportedJwtException ex) {
-            log.error("Unsupported JWT token");
+            log.debug("Expired JWT token");
+        } catch (JwtException ex) {
+            log.warn("Invalid JWT token: {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
-            log.error("JWT claims string is empty");
+            log.warn("JWT claims string is empty");
         }
-        return false;
+        return null;
     }
 }
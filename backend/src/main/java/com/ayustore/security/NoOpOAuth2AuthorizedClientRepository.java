@@ -0,0 +1,28 @@
+package com.ayustore.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClient;
+import org.springframework.security.oauth2.client.web.OAuth2AuthorizedClientRepository;
+
+// Google is only used to sign in; its access token is never used afterwards. The default repository
+// keeps every user's authorized client in node memory forever, so discard them instead.
+public class NoOpOAuth2AuthorizedClientRepository implements OAuth2AuthorizedClientRepository {
+
+    @Override
+    public <T extends OAuth2AuthorizedClient> T loadAuthorizedClient(String clientRegistrationId,
+            Authentication principal, HttpServletRequest request) {
+        return null;
+    }
+
+    @Override
+    public void saveAuthorizedClient(OAuth2AuthorizedClient authorizedClient, Authentication principal,
+            HttpServletRequest request, HttpServletResponse response) {
+    }
+
+    @Override
+    public void removeAuthorizedClient(String clientRegistrationId, Authentication principal,
+            HttpServletRequest request, HttpServletResponse response) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.ayustore.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+// Sends failed Google logins back to the frontend instead of stashing the error in an HttpSession
+@Slf4j
+@Component
+public class OAuth2AuthenticationFailureHandler extends SimpleUrlAuthenticationFailureHandler {
+
+        @Value("${app.cors.allowed-origins}")
+        private String frontendUrl;
+
+        @Override
+        public void onAuthenticationFailure(HttpServletRequest request,
+                        HttpServletResponse response,
+                        AuthenticationException exception) throws IOException {
+                log.warn("OAuth2 authentication failed: {}", exception.getMessage());
+                getRedirectStrategy().sendRedirect(request, response, frontendUrl + "/#/login?error=auth_failed");
+        }
+}
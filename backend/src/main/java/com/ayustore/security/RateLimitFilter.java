@@ -0,0 +1,164 @@
+package com.ayustore.security;
+
+import com.ayustore.config.RateLimitProperties;
+import com.ayustore.dto.ApiResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Per-route limits for expensive endpoints. Runs after JwtAuthenticationFilter so USER-keyed routes
+// can use the caller's id; anonymous callers on those routes fall back to their IP.
+@Slf4j
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    // Sliding window over a sorted set of request timestamps: trim, count, admit, all atomically
+    private static final RedisScript<Long> SLIDING_WINDOW = new DefaultRedisScript<>("""
+            local now = tonumber(ARGV[1])
+            local window = tonumber(ARGV[2])
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], 0, now - window)
+            if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[3]) then
+              return 0
+            end
+            redis.call('ZADD', KEYS[1], now, ARGV[4])
+            redis.call('PEXPIRE', KEYS[1], window)
+            return 1
+            """, Long.class);
+
+    private final RateLimitProperties properties;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final StripedTokenBuckets localBuckets;
+    private final CompiledRoute[] routes;
+    // Logged on the transitions only, so an outage does not add a warning to every request
+    private final AtomicBoolean redisHealthy = new AtomicBoolean(true);
+
+    private record CompiledRoute(String name, String method, String path, boolean prefix,
+            RateLimitProperties.KeyType key, int capacity, double refillPerSecond, long windowMillis) {
+
+        boolean matches(String requestMethod, String requestPath) {
+            if (method != null && !method.equals(requestMethod)) {
+                return false;
+            }
+            return prefix ? requestPath.startsWith(path) : requestPath.equals(path);
+        }
+    }
+
+    public RateLimitFilter(RateLimitProperties properties, StringRedisTemplate stringRedisTemplate,
+            ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.localBuckets = new StripedTokenBuckets(properties.getMaxTrackedKeys());
+        this.routes = compile(properties.getRoutes());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || routes.length == 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        String method = request.getMethod();
+        String path = request.getRequestURI();
+        for (CompiledRoute route : routes) {
+            if (route.matches(method, path)) {
+                long retryAfterNanos = tryAcquire(route, route.name() + ':' + clientKey(route, request));
+                if (retryAfterNanos > 0) {
+                    reject(response, route, retryAfterNanos);
+                    return;
+                }
+                break;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private long tryAcquire(CompiledRoute route, String key) {
+        if (properties.getMode() == RateLimitProperties.Mode.REDIS) {
+            try {
+                long now = System.currentTimeMillis();
+                Long admitted = stringRedisTemplate.execute(SLIDING_WINDOW, List.of("rl:" + key),
+                        Long.toString(now), Long.toString(route.windowMillis()), Integer.toString(route.capacity()),
+                        now + "-" + ThreadLocalRandom.current().nextInt());
+                if (redisHealthy.compareAndSet(false, true)) {
+                    log.info("Redis rate limiter is back, sharing limits across nodes again");
+                }
+                return admitted != null && admitted == 1 ? 0 : TimeUnit.MILLISECONDS.toNanos(route.windowMillis());
+            } catch (DataAccessException e) {
+                // Degrade to this node's buckets rather than failing open or closed
+                if (redisHealthy.compareAndSet(true, false)) {
+                    log.warn("Redis rate limiter unavailable, using local buckets: {}", e.getMessage());
+                }
+            }
+        }
+        return localBuckets.tryAcquire(key, route.capacity(), route.refillPerSecond());
+    }
+
+    private String clientKey(CompiledRoute route, HttpServletRequest request) {
+        if (route.key() == RateLimitProperties.KeyType.USER) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+                return "u:" + principal.getId();
+            }
+        }
+        return "ip:" + clientIp(request);
+    }
+
+    private String clientIp(HttpServletRequest request) {
+        if (properties.isTrustForwardedFor()) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isEmpty()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, CompiledRoute route, long retryAfterNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999));
+        log.debug("Rate limit exceeded on {}", route.name());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                ApiResponse.error("Too many requests, please retry in " + retryAfterSeconds + "s"));
+    }
+
+    private static CompiledRoute[] compile(List<RateLimitProperties.Route> configured) {
+        CompiledRoute[] compiled = new CompiledRoute[configured.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            RateLimitProperties.Route route = configured.get(i);
+            boolean prefix = route.getPath().endsWith("/**");
+            String path = prefix ? route.getPath().substring(0, route.getPath().length() - 3) : route.getPath();
+            String name = route.getName() != null ? route.getName() : route.getPath();
+            long windowMillis = (long) Math.ceil(route.getCapacity() / route.getRefillPerSecond() * 1000);
+            compiled[i] = new CompiledRoute(name, route.getMethod() != null ? route.getMethod().toUpperCase() : null,
+                    path, prefix, route.getKey(), route.getCapacity(), route.getRefillPerSecond(), windowMillis);
+        }
+        return compiled;
+    }
+}
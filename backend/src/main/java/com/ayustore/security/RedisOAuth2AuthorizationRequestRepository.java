@@ -0,0 +1,132 @@
+package com.ayustore.security;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+
+// Keeps the pending OAuth2 authorization request in Redis, keyed by its state, instead of the
+// HttpSession, so whichever node receives the Google callback can complete the login.
+// The state is also set in a short-lived cookie that must match on the callback, so the login only
+// completes in the browser that started it.
+@Slf4j
+@Component
+public class RedisOAuth2AuthorizationRequestRepository
+        implements AuthorizationRequestRepository<OAuth2AuthorizationRequest> {
+
+    private static final String KEY_PREFIX = "oauth2:authreq:";
+    private static final String STATE_COOKIE = "oauth2_state";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    // Only ever deserializes what this repository wrote itself
+    private final JdkSerializationRedisSerializer serializer = new JdkSerializationRedisSerializer();
+    private final Duration ttl;
+
+    public RedisOAuth2AuthorizationRequestRepository(StringRedisTemplate stringRedisTemplate,
+            @Value("${app.oauth2.authorization-request-ttl-seconds:600}") long ttlSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest loadAuthorizationRequest(HttpServletRequest request) {
+        String state = boundState(request);
+        if (state == null) {
+            return null;
+        }
+        byte[] key = key(state);
+        return deserialize(stringRedisTemplate.execute(
+                (RedisCallback<byte[]>) connection -> connection.stringCommands().get(key)));
+    }
+
+    @Override
+    public void saveAuthorizationRequest(OAuth2AuthorizationRequest authorizationRequest,
+            HttpServletRequest request, HttpServletResponse response) {
+        if (authorizationRequest == null) {
+            removeAuthorizationRequest(request, response);
+            return;
+        }
+        String state = authorizationRequest.getState();
+        byte[] key = key(state);
+        byte[] value = serializer.serialize(authorizationRequest);
+        stringRedisTemplate.execute((RedisCallback<Boolean>) connection -> connection.stringCommands()
+                .set(key, value, Expiration.from(ttl), RedisStringCommands.SetOption.upsert()));
+        writeStateCookie(request, response, state, ttl);
+    }
+
+    @Override
+    public OAuth2AuthorizationRequest removeAuthorizationRequest(HttpServletRequest request,
+            HttpServletResponse response) {
+        String state = boundState(request);
+        if (state == null) {
+            return null;
+        }
+        writeStateCookie(request, response, "", Duration.ZERO);
+        byte[] key = key(state);
+        try {
+            // Single use: a second callback with the same state finds nothing
+            return deserialize(stringRedisTemplate.execute(
+                    (RedisCallback<byte[]>) connection -> connection.stringCommands().getDel(key)));
+        } catch (DataAccessException e) {
+            log.warn("Could not load OAuth2 authorization request: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    // The callback's state parameter, provided it matches the cookie set when the flow started
+    private static String boundState(HttpServletRequest request) {
+        String state = request.getParameter(OAuth2ParameterNames.STATE);
+        if (state == null || state.isEmpty() || request.getCookies() == null) {
+            return null;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (STATE_COOKIE.equals(cookie.getName())) {
+                boolean matches = MessageDigest.isEqual(state.getBytes(StandardCharsets.UTF_8),
+                        cookie.getValue().getBytes(StandardCharsets.UTF_8));
+                if (!matches) {
+                    log.debug("OAuth2 state does not match the state cookie");
+                }
+                return matches ? state : null;
+            }
+        }
+        return null;
+    }
+
+    private static void writeStateCookie(HttpServletRequest request, HttpServletResponse response, String value,
+            Duration maxAge) {
+        // Lax so the cookie comes back on Google's top-level redirect to the callback
+        ResponseCookie cookie = ResponseCookie.from(STATE_COOKIE, value)
+                .path("/")
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .maxAge(maxAge)
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    private OAuth2AuthorizationRequest deserialize(byte[] value) {
+        return value != null ? (OAuth2AuthorizationRequest) serializer.deserialize(value) : null;
+    }
+
+    private static byte[] key(String state) {
+        return (KEY_PREFIX + state).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,100 @@
+package com.ayustore.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+// Opaque refresh tokens, stored only as SHA-256 digests in Redis. Every refresh rotates the token
+// within its family; presenting an already-rotated token is treated as theft and kills the family.
+@Slf4j
+@Component
+public class RefreshTokenService {
+
+    private static final String TOKEN_PREFIX = "rt:";
+    private static final String USED_PREFIX = "rt:used:";
+    private static final String FAMILY_PREFIX = "rt:family:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Duration ttl;
+
+    public RefreshTokenService(StringRedisTemplate stringRedisTemplate,
+            @Value("${app.jwt.refresh-expiration-days:30}") long refreshExpirationDays) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ttl = Duration.ofDays(refreshExpirationDays);
+    }
+
+    public record RefreshGrant(UUID userId, String family, int tokenVersion) {
+    }
+
+    public String issue(UUID userId, int tokenVersion) {
+        return store(userId, UUID.randomUUID().toString(), tokenVersion);
+    }
+
+    // Consumes the token and returns its grant, or null when it is unknown, expired or replayed
+    public RefreshGrant consume(String refreshToken) {
+        String digest = digest(refreshToken);
+        String value = stringRedisTemplate.opsForValue().getAndDelete(TOKEN_PREFIX + digest);
+        if (value == null) {
+            String family = stringRedisTemplate.opsForValue().get(USED_PREFIX + digest);
+            if (family != null) {
+                log.warn("Rotated refresh token was replayed; revoking token family {}", family);
+                revokeFamily(family);
+            }
+            return null;
+        }
+
+        String[] parts = value.split("\\|");
+        String family = parts[1];
+        stringRedisTemplate.opsForValue().set(USED_PREFIX + digest, family, ttl);
+        return new RefreshGrant(UUID.fromString(parts[0]), family, Integer.parseInt(parts[2]));
+    }
+
+    // Issues the successor of a token just consumed, keeping it in the same family
+    public String rotate(RefreshGrant grant, int tokenVersion) {
+        return store(grant.userId(), grant.family(), tokenVersion);
+    }
+
+    public void revoke(String refreshToken) {
+        String value = stringRedisTemplate.opsForValue().getAndDelete(TOKEN_PREFIX + digest(refreshToken));
+        if (value != null) {
+            revokeFamily(value.split("\\|")[1]);
+        }
+    }
+
+    private String store(UUID userId, String family, int tokenVersion) {
+        byte[] bytes = new byte[32];
+        secureRandom.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String digest = digest(token);
+        stringRedisTemplate.opsForValue().set(TOKEN_PREFIX + digest, userId + "|" + family + "|" + tokenVersion, ttl);
+        stringRedisTemplate.opsForValue().set(FAMILY_PREFIX + family, digest, ttl);
+        return token;
+    }
+
+    private void revokeFamily(String family) {
+        String current = stringRedisTemplate.opsForValue().getAndDelete(FAMILY_PREFIX + family);
+        if (current != null) {
+            stringRedisTemplate.delete(TOKEN_PREFIX + current);
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ayustore.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Token buckets keyed by client, split over lock stripes so unrelated clients never contend.
+// Each stripe is a small access-ordered map that drops its least recently seen client when full,
+// which bounds memory under IP-spraying without a separate sweeper.
+class StripedTokenBuckets {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final LinkedHashMap<String, Bucket>[] buckets;
+
+    private static final class Bucket {
+        double tokens;
+        long lastRefillNanos;
+
+        Bucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.lastRefillNanos = now;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    StripedTokenBuckets(int maxKeys) {
+        int perStripe = Math.max(16, maxKeys / STRIPES);
+        buckets = new LinkedHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+            buckets[i] = new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+                    return size() > perStripe;
+                }
+            };
+        }
+    }
+
+    // Returns 0 when a token was taken, otherwise the nanoseconds until one will be available
+    long tryAcquire(String key, int capacity, double refillPerSecond) {
+        int stripe = (key.hashCode() ^ (key.hashCode() >>> 16)) & (STRIPES - 1);
+        long now = System.nanoTime();
+        ReentrantLock lock = locks[stripe];
+        lock.lock();
+        try {
+            Bucket bucket = buckets[stripe].get(key);
+            if (bucket == null) {
+                buckets[stripe].put(key, new Bucket(capacity - 1, now));
+                return 0;
+            }
+            double refilled = (now - bucket.lastRefillNanos) * refillPerSecond / 1e9;
+            bucket.tokens = Math.min(capacity, bucket.tokens + refilled);
+            bucket.lastRefillNanos = now;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) ((1 - bucket.tokens) / refillPerSecond * 1e9);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.ayustore.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Revoked access-token ids live in a Redis sorted set scored by token expiry, and every node mirrors
+// them into a local bloom filter. A "not revoked" answer, which is nearly every request, is a few
+// bit probes; only bloom hits are confirmed against Redis. New revocations fan out over pub/sub.
+@Slf4j
+@Component
+public class TokenRevocationService implements MessageListener {
+
+    private static final String REVOKED_KEY = "jwt:revoked";
+    private static final String CHANNEL = "jwt:revocations";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final long expectedRevocations;
+    private final double falsePositiveRate;
+
+    private final AtomicReference<BloomFilter> filter;
+    // Non-null while a rebuild is loading, so revocations arriving meanwhile land in both filters
+    private volatile BloomFilter rebuilding;
+
+    public TokenRevocationService(StringRedisTemplate stringRedisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            @Value("${app.jwt.revocation.expected-revocations:100000}") long expectedRevocations,
+            @Value("${app.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new AtomicReference<>(new BloomFilter(expectedRevocations, falsePositiveRate));
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (tokenId == null || expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        addLocally(tokenId);
+        try {
+            stringRedisTemplate.opsForZSet().add(REVOKED_KEY, tokenId, expiresAtMillis);
+            stringRedisTemplate.convertAndSend(CHANNEL, tokenId);
+        } catch (DataAccessException e) {
+            log.error("Could not publish revocation of token {}; only this node knows about it", tokenId, e);
+        }
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !filter.get().mightContain(tokenId)) {
+            return false;
+        }
+        try {
+            return stringRedisTemplate.opsForZSet().score(REVOKED_KEY, tokenId) != null;
+        } catch (DataAccessException e) {
+            // Only reached on a bloom hit, so failing closed here costs almost nothing
+            log.warn("Could not confirm revocation of token {}, treating it as revoked", tokenId);
+            return true;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        addLocally(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    // A bloom filter cannot forget, so expired ids are dropped by rebuilding it from the live set
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.jwt.revocation.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.jwt.revocation.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        try {
+            long now = System.currentTimeMillis();
+            stringRedisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, 0, now);
+            Long live = stringRedisTemplate.opsForZSet().zCard(REVOKED_KEY);
+            BloomFilter next = new BloomFilter(Math.max(expectedRevocations, live != null ? live * 2 : 0),
+                    falsePositiveRate);
+            rebuilding = next;
+            Set<String> revoked = stringRedisTemplate.opsForZSet().rangeByScore(REVOKED_KEY, now, Double.MAX_VALUE);
+            if (revoked != null) {
+                revoked.forEach(next::add);
+            }
+            filter.set(next);
+            rebuilding = null;
+            log.debug("Rebuilt token revocation filter with {} ids", revoked != null ? revoked.size() : 0);
+        } catch (DataAccessException e) {
+            rebuilding = null;
+            log.warn("Could not rebuild token revocation filter: {}", e.getMessage());
+        }
+    }
+
+    private void addLocally(String tokenId) {
+        filter.get().add(tokenId);
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.add(tokenId);
+        }
+    }
+}
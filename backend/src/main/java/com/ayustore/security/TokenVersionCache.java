@@ -0,0 +1,38 @@
+package com.ayustore.security;
+
+import com.ayustore.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+
+// Current token version per user, so the filter can reject stale tokens without loading the user.
+// Local invalidation is immediate; other instances converge within the TTL.
+@Component
+public class TokenVersionCache {
+
+    // Deleted users load as this, so none of their tokens can match
+    private static final int MISSING_USER = -1;
+
+    private final LoadingCache<UUID, Integer> versions;
+
+    public TokenVersionCache(UserRepository userRepository,
+            @Value("${app.jwt.version-cache.ttl-seconds:30}") long ttlSeconds,
+            @Value("${app.jwt.version-cache.max-size:100000}") long maxSize) {
+        this.versions = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(maxSize)
+                .build(userId -> userRepository.findTokenVersionById(userId).orElse(MISSING_USER));
+    }
+
+    public boolean isCurrent(UUID userId, int tokenVersion) {
+        return versions.get(userId) == tokenVersion;
+    }
+
+    public void invalidate(UUID userId) {
+        versions.invalidate(userId);
+    }
+}
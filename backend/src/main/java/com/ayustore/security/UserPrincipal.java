@@ -17,23 +17,39 @@ public class UserPrincipal implements UserDetails, OAuth2User {
     private UUID id;
     private String email;
     private String name;
+    private String avatar;
     private String role;
+    private int tokenVersion;
     private Collection<? extends GrantedAuthority> authorities;
     private Map<String, Object> attributes;
 
     public static UserPrincipal create(User user) {
+        return create(user.getId(), user.getEmail(), user.getName(), user.getAvatar(),
+                user.getRole().name(), user.getTokenVersion() != null ? user.getTokenVersion() : 0);
+    }
+
+    // Built straight from verified token claims, so authenticated requests need no user lookup
+    public static UserPrincipal create(UUID id, String email, String name, String avatar, String role,
+            int tokenVersion) {
         List<GrantedAuthority> authorities = Collections.singletonList(
-                new SimpleGrantedAuthority("ROLE_" + user.getRole().name()));
+                new SimpleGrantedAuthority("ROLE_" + role));
 
         return new UserPrincipal(
-                user.getId(),
-                user.getEmail(),
-                user.getName(),
-                user.getRole().name(),
+                id,
+                email,
+                name,
+                avatar,
+                role,
+                tokenVersion,
                 authorities,
                 new HashMap<>());
     }
 
+    public static UserPrincipal create(UserPrincipal principal, Map<String, Object> attributes) {
+        return new UserPrincipal(principal.id, principal.email, principal.name, principal.avatar, principal.role,
+                principal.tokenVersion, principal.authorities, attributes);
+    }
+
     public static UserPrincipal create(User user, Map<String, Object> attributes) {
         UserPrincipal userPrincipal = create(user);
         userPrincipal.attributes = attributes;
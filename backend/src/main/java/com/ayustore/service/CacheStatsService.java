@@ -0,0 +1,44 @@
+package com.ayustore.service;
+
+import com.ayustore.dto.CacheRegionStatsDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+public class CacheStatsService {
+
+    private final Statistics statistics;
+
+    public CacheStatsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Second-level and query cache regions on this node
+    public List<CacheRegionStatsDto> getRegionStats() {
+        String[] regions = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+        List<CacheRegionStatsDto> result = new ArrayList<>(regions.length);
+        for (String region : regions) {
+            CacheRegionStatistics stats = statistics.getCacheRegionStatistics(region);
+            if (stats == null) {
+                continue;
+            }
+            long lookups = stats.getHitCount() + stats.getMissCount();
+            result.add(CacheRegionStatsDto.builder()
+                    .region(region)
+                    .hits(stats.getHitCount())
+                    .misses(stats.getMissCount())
+                    .puts(stats.getPutCount())
+                    .hitRatio(lookups > 0 ? (double) stats.getHitCount() / lookups : null)
+                    .build());
+        }
+        return result;
+    }
+}
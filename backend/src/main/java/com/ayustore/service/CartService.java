@@ -0,0 +1,134 @@
+package com.ayustore.service;
+
+import com.ayustore.dto.CartDto;
+import com.ayustore.dto.CartItemDto;
+import com.ayustore.entity.Product;
+import com.ayustore.exception.BadRequestException;
+import com.ayustore.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartService {
+
+    private static final String CART_KEY_PREFIX = "cart:";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ProductService productService;
+    private final PromotionEngine promotionEngine;
+
+    @Value("${app.cart.ttl-days:7}")
+    private long cartTtlDays;
+
+    public CartDto getCart(UUID userId) {
+        return getCart(userId, null);
+    }
+
+    public CartDto getCart(UUID userId, String couponCode) {
+        List<CartItemDto> items = getItems(userId);
+        return CartDto.from(items, promotionEngine.price(toPricingLines(items), couponCode));
+    }
+
+    public static List<PromotionEngine.PricingLine> toPricingLines(List<CartItemDto> items) {
+        List<PromotionEngine.PricingLine> lines = new ArrayList<>(items.size());
+        for (CartItemDto item : items) {
+            lines.add(item.toPricingLine());
+        }
+        return lines;
+    }
+
+    // HGETALL and the sliding TTL refresh share one pipelined round-trip
+    public List<CartItemDto> getItems(UUID userId) {
+        String key = cartKey(userId);
+        Duration ttl = Duration.ofDays(cartTtlDays);
+        List<Object> results = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.opsForHash().entries(key);
+                operations.expire(key, ttl);
+                return null;
+            }
+        });
+
+        @SuppressWarnings("unchecked")
+        Map<Object, Object> entries = (Map<Object, Object>) results.get(0);
+        List<CartItemDto> items = new ArrayList<>(entries.size());
+        for (Object value : entries.values()) {
+            items.add((CartItemDto) value);
+        }
+        items.sort(Comparator.comparing(CartItemDto::getProductId));
+        return items;
+    }
+
+    public CartDto addItem(UUID userId, Long productId, int quantity) {
+        CartItemDto existing = getItem(userId, productId);
+        int newQuantity = existing != null ? existing.getQuantity() + quantity : quantity;
+        return putItem(userId, productId, newQuantity);
+    }
+
+    public CartDto updateItem(UUID userId, Long productId, int quantity) {
+        if (quantity <= 0) {
+            return removeItem(userId, productId);
+        }
+        if (getItem(userId, productId) == null) {
+            throw new ResourceNotFoundException("Cart item", "productId", productId);
+        }
+        return putItem(userId, productId, quantity);
+    }
+
+    public CartDto removeItem(UUID userId, Long productId) {
+        redisTemplate.opsForHash().delete(cartKey(userId), productId.toString());
+        return getCart(userId);
+    }
+
+    public void clear(UUID userId) {
+        redisTemplate.delete(cartKey(userId));
+    }
+
+    // Writes always take a fresh snapshot so the cart page never needs to hit the catalog
+    private CartDto putItem(UUID userId, Long productId, int quantity) {
+        Product product = productService.getProductEntity(productId);
+        if (product.getStock() < quantity) {
+            throw new BadRequestException("Insufficient stock for product: " + product.getName());
+        }
+
+        String key = cartKey(userId);
+        CartItemDto item = CartItemDto.fromProduct(product, quantity);
+        Duration ttl = Duration.ofDays(cartTtlDays);
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Object execute(RedisOperations operations) throws DataAccessException {
+                operations.opsForHash().put(key, productId.toString(), item);
+                operations.expire(key, ttl);
+                return null;
+            }
+        });
+        log.info("Cart of user {} now has {} x product {}", userId, quantity, productId);
+        return getCart(userId);
+    }
+
+    private CartItemDto getItem(UUID userId, Long productId) {
+        return (CartItemDto) redisTemplate.opsForHash().get(cartKey(userId), productId.toString());
+    }
+
+    private String cartKey(UUID userId) {
+        return CART_KEY_PREFIX + userId;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ayustore.service;
+
+import com.ayustore.entity.User;
+import com.ayustore.exception.ResourceNotFoundException;
+import com.ayustore.repository.UserRepository;
+import com.ayustore.security.UserPrincipal;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.UUID;
+
+// Identity of the caller for the current request. Id, email, name and role come from the token
+// claims; the User entity is only loaded when a caller genuinely needs it, and then once per request.
+@Component
+@RequestScope
+@RequiredArgsConstructor
+public class CurrentUserContext {
+
+    private final UserRepository userRepository;
+
+    private User user;
+
+    public UserPrincipal getPrincipal() {
+        return (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication()
+                .getPrincipal();
+    }
+
+    public UUID getUserId() {
+        return getPrincipal().getId();
+    }
+
+    public boolean isAdmin() {
+        return User.Role.ADMIN.name().equals(getPrincipal().getRole());
+    }
+
+    // Uninitialized proxy for use as an association target; issues no query
+    public User getUserReference() {
+        return user != null ? user : userRepository.getReferenceById(getUserId());
+    }
+
+    public User getUser() {
+        if (user == null) {
+            UUID userId = getUserId();
+            user = userRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+        }
+        return user;
+    }
+}
@@ -0,0 +1,151 @@
+package com.ayustore.service;
+
+import com.ayustore.dto.DashboardStatsDto;
+import com.ayustore.entity.DashboardCounter;
+import com.ayustore.entity.Money;
+import com.ayustore.repository.DashboardCounterRepository;
+import com.ayustore.repository.OrderRepository;
+import com.ayustore.repository.ProductRepository;
+import com.ayustore.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Dashboard aggregates kept incrementally: every product, order and user write adds its delta to
+// the counters table in the writer's own transaction, and to this node's in-memory mirror once that
+// transaction commits. Reading the dashboard is four array loads. Other nodes' writes reach the
+// mirror on the next refresh, and the reconciler recomputes from the source tables to fix any drift.
+@Slf4j
+@Service
+public class DashboardStatsService {
+
+    public enum Counter {
+        ORDERS, ACTIVE_PRODUCTS, USERS, REVENUE_PAISE
+    }
+
+    private static final Counter[] COUNTERS = Counter.values();
+
+    private final DashboardCounterRepository counterRepository;
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int shards;
+    private final AtomicLongArray mirror = new AtomicLongArray(COUNTERS.length);
+    // Told whenever the mirror changes, e.g. to push the dashboard to connected admins
+    private final List<Runnable> changeListeners = new CopyOnWriteArrayList<>();
+
+    public DashboardStatsService(DashboardCounterRepository counterRepository, OrderRepository orderRepository,
+            ProductRepository productRepository, UserRepository userRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.dashboard.counter-shards:8}") int shards) {
+        this.counterRepository = counterRepository;
+        this.orderRepository = orderRepository;
+        this.productRepository = productRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shards = shards;
+    }
+
+    public void addChangeListener(Runnable listener) {
+        changeListeners.add(listener);
+    }
+
+    public DashboardStatsDto getStats() {
+        return DashboardStatsDto.builder()
+                .totalRevenue(Money.ofPaise(mirror.get(Counter.REVENUE_PAISE.ordinal())))
+                .totalOrders(mirror.get(Counter.ORDERS.ordinal()))
+                .activeProducts(mirror.get(Counter.ACTIVE_PRODUCTS.ordinal()))
+                .registeredUsers(mirror.get(Counter.USERS.ordinal()))
+                .build();
+    }
+
+    // Must be called inside the transaction that makes the change, so both commit or neither does
+    public void increment(Counter counter, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Dashboard counters must be updated inside a transaction");
+        }
+        counterRepository.add(counter.name(), ThreadLocalRandom.current().nextInt(shards), delta);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                mirror.addAndGet(counter.ordinal(), delta);
+                changeListeners.forEach(Runnable::run);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        // Create every shard up front so the reconciler's row locks cover all of them
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Counter counter : COUNTERS) {
+                for (int shard = 0; shard < shards; shard++) {
+                    counterRepository.add(counter.name(), shard, 0);
+                }
+            }
+        });
+        reconcile();
+    }
+
+    // Picks up increments committed on other nodes
+    @Scheduled(fixedDelayString = "${app.dashboard.refresh-interval-ms:30000}",
+            initialDelayString = "${app.dashboard.refresh-interval-ms:30000}")
+    public void refresh() {
+        long[] totals = new long[COUNTERS.length];
+        for (Object[] row : counterRepository.sumByName()) {
+            try {
+                totals[Counter.valueOf((String) row[0]).ordinal()] = ((Number) row[1]).longValue();
+            } catch (IllegalArgumentException e) {
+                log.debug("Ignoring unknown dashboard counter {}", row[0]);
+            }
+        }
+        boolean changed = false;
+        for (int i = 0; i < totals.length; i++) {
+            changed |= mirror.getAndSet(i, totals[i]) != totals[i];
+        }
+        if (changed) {
+            changeListeners.forEach(Runnable::run);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.dashboard.reconcile-interval-ms:3600000}",
+            initialDelayString = "${app.dashboard.reconcile-interval-ms:3600000}")
+    public void reconcile() {
+        reconcile(Counter.ORDERS, orderRepository::countAllOrders);
+        reconcile(Counter.ACTIVE_PRODUCTS, productRepository::countByIsActiveTrue);
+        reconcile(Counter.USERS, userRepository::count);
+        reconcile(Counter.REVENUE_PAISE, () -> Money.of(orderRepository.sumCompletedOrdersTotal()).getPaise());
+        refresh();
+    }
+
+    // Locking the shards first means every writer that already bumped the counter has committed
+    // (and is visible to the recount), while writers that have not are held until the reset is done
+    private void reconcile(Counter counter, LongSupplier source) {
+        transactionTemplate.executeWithoutResult(status -> {
+            long counted = counterRepository.lockByName(counter.name()).stream()
+                    .mapToLong(DashboardCounter::getValue)
+                    .sum();
+            long actual = source.getAsLong();
+            if (counted != actual) {
+                log.warn("Dashboard counter {} drifted: {} counted, {} actual; correcting", counter, counted, actual);
+                counterRepository.reset(counter.name(), actual);
+            }
+        });
+    }
+}
@@ -0,0 +1,190 @@
+package com.ayustore.service;
+
+import com.ayustore.dto.DashboardFrameDto;
+import com.ayustore.entity.Order;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Pushes the admin dashboard over server-sent events. Changes only set a dirty flag; a single
+// ticker turns them into at most max-frames-per-second frames, serializes each frame once and
+// writes the same payload to every connection, so a flash sale costs a few frames per second
+// rather than one message per order per admin. New orders reach every node over Redis pub/sub.
+@Slf4j
+@Service
+public class DashboardStreamService implements MessageListener {
+
+    private static final String CHANNEL = "dashboard:orders";
+    private static final int MAX_ORDERS_PER_FRAME = 20;
+    private static final long HEARTBEAT_MS = 15_000;
+
+    private final DashboardStatsService dashboardStatsService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+
+    private final Set<SseEmitter> emitters = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    // Latest orders since the last frame; the list is capped, the count is not
+    private final ConcurrentLinkedDeque<DashboardFrameDto.NewOrder> pendingOrders = new ConcurrentLinkedDeque<>();
+    private final AtomicLong pendingOrderCount = new AtomicLong();
+    private final ScheduledExecutorService ticker;
+    private volatile long lastSentAt;
+
+    public DashboardStreamService(DashboardStatsService dashboardStatsService,
+            StringRedisTemplate stringRedisTemplate, ObjectMapper objectMapper,
+            RedisMessageListenerContainer listenerContainer,
+            @Value("${app.dashboard.stream.max-frames-per-second:2}") int maxFramesPerSecond,
+            @Value("${app.dashboard.stream.timeout-ms:900000}") long timeoutMs) {
+        this.dashboardStatsService = dashboardStatsService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+
+        dashboardStatsService.addChangeListener(() -> dirty.set(true));
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+
+        this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "dashboard-stream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMs = Math.max(1, 1000 / Math.max(1, maxFramesPerSecond));
+        ticker.scheduleAtFixedRate(this::tick, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    // The timeout roughly matches the access token lifetime, so clients reconnect with a fresh token
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        try {
+            emitter.send(frameEvent(frame(List.of(), 0)));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    // Call inside the transaction that created the order; it is announced only if that commits
+    public void orderPlaced(Order order) {
+        DashboardFrameDto.NewOrder event = DashboardFrameDto.NewOrder.builder()
+                .id(order.getId())
+                .total(order.getTotal())
+                .createdAt(order.getCreatedAt())
+                .build();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(event));
+                } catch (JsonProcessingException | DataAccessException e) {
+                    log.warn("Could not publish new order {} to dashboards: {}", event.getId(), e.getMessage());
+                    enqueue(event);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            enqueue(objectMapper.readValue(message.getBody(), DashboardFrameDto.NewOrder.class));
+        } catch (IOException e) {
+            log.warn("Ignoring malformed dashboard order event: {}", e.getMessage());
+        }
+    }
+
+    private void enqueue(DashboardFrameDto.NewOrder event) {
+        pendingOrderCount.incrementAndGet();
+        pendingOrders.addLast(event);
+        while (pendingOrders.size() > MAX_ORDERS_PER_FRAME) {
+            pendingOrders.pollFirst();
+        }
+        dirty.set(true);
+    }
+
+    private void tick() {
+        try {
+            if (emitters.isEmpty()) {
+                // Nobody is watching; drop what accumulated instead of bursting it at the next admin
+                pendingOrders.clear();
+                pendingOrderCount.set(0);
+                dirty.set(false);
+                return;
+            }
+            if (dirty.getAndSet(false)) {
+                long count = pendingOrderCount.getAndSet(0);
+                List<DashboardFrameDto.NewOrder> orders = new ArrayList<>(MAX_ORDERS_PER_FRAME);
+                DashboardFrameDto.NewOrder next;
+                while ((next = pendingOrders.pollFirst()) != null) {
+                    orders.add(next);
+                }
+                broadcast(frameEvent(frame(orders, Math.max(count, orders.size()))));
+            } else if (System.currentTimeMillis() - lastSentAt >= HEARTBEAT_MS) {
+                // Keeps idle connections from being cut by proxies
+                broadcast(SseEmitter.event().comment("keep-alive"));
+            }
+        } catch (RuntimeException | IOException e) {
+            log.warn("Dashboard stream tick failed: {}", e.getMessage());
+        }
+    }
+
+    private void broadcast(SseEmitter.SseEventBuilder event) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                // Client went away; the container's callbacks finish the cleanup
+                emitters.remove(emitter);
+            }
+        }
+        lastSentAt = System.currentTimeMillis();
+    }
+
+    private DashboardFrameDto frame(List<DashboardFrameDto.NewOrder> orders, long orderCount) {
+        return DashboardFrameDto.builder()
+                .stats(dashboardStatsService.getStats())
+                .newOrderCount(orderCount)
+                .newOrders(orders)
+                .build();
+    }
+
+    // Serialized once and shared by every connection
+    private SseEmitter.SseEventBuilder frameEvent(DashboardFrameDto frame) throws IOException {
+        return SseEmitter.event()
+                .name("dashboard")
+                .data(objectMapper.writeValueAsString(frame), MediaType.APPLICATION_JSON);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+        emitters.clear();
+    }
+}
@@ -0,0 +1,170 @@
+package com.ayustore.service;
+
+import com.ayustore.entity.User;
+import com.ayustore.persistence.EntityCacheInvalidator;
+import com.ayustore.repository.UserRepository;
+import com.ayustore.security.UserPrincipal;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Resolves the local account for a Google sign-in with one lookup. Identity changes (new account,
+// linking Google to an email account) are written immediately; cosmetic profile changes (name,
+// avatar) are coalesced per user and flushed in batches, so a login burst is not a write burst.
+@Slf4j
+@Service
+public class OAuthUserService {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DashboardStatsService dashboardStatsService;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+    private final int maxPending;
+    private final int batchSize;
+    // Latest profile seen per user; repeated logins before a flush overwrite each other
+    private final ConcurrentHashMap<UUID, ProfileUpdate> pending = new ConcurrentHashMap<>();
+
+    private record ProfileUpdate(String name, String avatar) {
+    }
+
+    public OAuthUserService(UserRepository userRepository, TransactionTemplate transactionTemplate,
+            DashboardStatsService dashboardStatsService, EntityCacheInvalidator entityCacheInvalidator,
+            @Value("${app.oauth2.profile-sync.max-pending:10000}") int maxPending,
+            @Value("${app.oauth2.profile-sync.batch-size:200}") int batchSize) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.dashboardStatsService = dashboardStatsService;
+        this.entityCacheInvalidator = entityCacheInvalidator;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+    }
+
+    // Returns the principal with the profile Google just reported, whether or not it has been written yet
+    public UserPrincipal syncUser(String googleId, String email, String name, String avatar) {
+        User user;
+        try {
+            user = resolve(googleId, email, name, avatar);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent first login for the same account won the insert; it exists now
+            log.debug("Concurrent OAuth2 signup for {}, re-reading", email);
+            user = resolve(googleId, email, name, avatar);
+        }
+
+        String currentName = name != null ? name : user.getName();
+        if (!Objects.equals(currentName, user.getName()) || !Objects.equals(avatar, user.getAvatar())) {
+            enqueue(user.getId(), new ProfileUpdate(currentName, avatar));
+        }
+        return UserPrincipal.create(user.getId(), user.getEmail(), currentName, avatar, user.getRole().name(),
+                user.getTokenVersion() != null ? user.getTokenVersion() : 0);
+    }
+
+    private User resolve(String googleId, String email, String name, String avatar) {
+        List<User> matches = userRepository.findByGoogleIdOrEmail(googleId, email);
+        // Prefer the account already linked to this Google identity over an email match
+        User user = matches.stream()
+                .filter(candidate -> googleId.equals(candidate.getGoogleId()))
+                .findFirst()
+                .orElse(matches.isEmpty() ? null : matches.get(0));
+
+        if (user == null) {
+            User created = transactionTemplate.execute(status -> {
+                User saved = userRepository.save(User.builder()
+                        .email(email)
+                        .name(name)
+                        .avatar(avatar)
+                        .googleId(googleId)
+                        .role(User.Role.USER)
+                        .build());
+                dashboardStatsService.increment(DashboardStatsService.Counter.USERS, 1);
+                return saved;
+            });
+            log.info("Created new user: {}", created.getEmail());
+            return created;
+        }
+
+        if (!googleId.equals(user.getGoogleId())) {
+            // First Google login for an existing email account
+            transactionTemplate.executeWithoutResult(status -> {
+                userRepository.linkGoogleAccount(user.getId(), googleId, avatar);
+                entityCacheInvalidator.evictAfterCommit(User.class, user.getId());
+            });
+            user.setGoogleId(googleId);
+            user.setAvatar(avatar);
+            log.info("Linked Google account to existing user: {}", user.getEmail());
+        }
+        return user;
+    }
+
+    private void enqueue(UUID userId, ProfileUpdate update) {
+        // Over the cap, drop the cosmetic update; the next login will report it again
+        if (pending.size() >= maxPending && !pending.containsKey(userId)) {
+            log.debug("Profile sync buffer full, skipping update for user {}", userId);
+            return;
+        }
+        pending.put(userId, update);
+    }
+
+    @Scheduled(fixedDelayString = "${app.oauth2.profile-sync.flush-interval-ms:5000}")
+    public void flush() {
+        while (!pending.isEmpty()) {
+            Map<UUID, ProfileUpdate> batch = drain();
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                Integer updated = transactionTemplate.execute(status -> apply(batch));
+                log.debug("Flushed {} OAuth2 profile updates ({} changed)", batch.size(), updated);
+            } catch (RuntimeException e) {
+                // Requeue unless a newer update for the same user arrived meanwhile
+                batch.forEach(pending::putIfAbsent);
+                log.warn("Could not flush {} OAuth2 profile updates: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private Map<UUID, ProfileUpdate> drain() {
+        Map<UUID, ProfileUpdate> batch = new HashMap<>();
+        Iterator<Map.Entry<UUID, ProfileUpdate>> it = pending.entrySet().iterator();
+        while (it.hasNext() && batch.size() < batchSize) {
+            Map.Entry<UUID, ProfileUpdate> entry = it.next();
+            // remove(key, value) so an update that raced in after we read the entry is kept for next time
+            if (pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return batch;
+    }
+
+    // Dirty checking only writes rows whose profile actually changed; hibernate.jdbc.batch_size
+    // sends those UPDATEs to the database in JDBC batches
+    private int apply(Map<UUID, ProfileUpdate> batch) {
+        int changed = 0;
+        for (User user : userRepository.findAllById(batch.keySet())) {
+            ProfileUpdate update = batch.get(user.getId());
+            if (!Objects.equals(update.name(), user.getName()) || !Objects.equals(update.avatar(), user.getAvatar())) {
+                user.setName(update.name());
+                user.setAvatar(update.avatar());
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
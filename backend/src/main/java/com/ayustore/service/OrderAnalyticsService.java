@@ -0,0 +1,349 @@
+package com.ayustore.service;
+
+import com.ayustore.dto.OrderAnalyticsDto;
+import com.ayustore.entity.Money;
+import com.ayustore.entity.Order;
+import com.ayustore.entity.OrderRollup;
+import com.ayustore.entity.RollupCheckpoint;
+import com.ayustore.exception.BadRequestException;
+import com.ayustore.repository.OrderRollupRepository;
+import com.ayustore.repository.RollupCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+// Order analytics served entirely from memory. A background job re-aggregates only the hours that
+// contain orders created or changed since its last run (status changes move revenue between
+// statuses), rebuilds the affected days from those hours, and stamps the rewritten rows with a new
+// generation. Every node then merges just those buckets into its column arrays. Queries never touch
+// the orders table.
+@Slf4j
+@Service
+public class OrderAnalyticsService {
+
+    private static final String CHECKPOINT = "order_rollups";
+    private static final int CHUNK_SIZE = 500;
+    private static final Order.OrderStatus[] STATUSES = Order.OrderStatus.values();
+
+    public enum GroupBy {
+        NONE, CATEGORY, STATUS
+    }
+
+    private final OrderRollupRepository rollupRepository;
+    private final RollupCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int hourlyRetentionDays;
+    // Re-scan this far behind the checkpoint to catch transactions that committed late
+    private final Duration overlap;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // One granularity's rollup rows as parallel arrays, sorted by bucket
+    private record Columns(long[] buckets, int[] categories, byte[] statuses, long[] orders, long[] revenue) {
+
+        // Index of the first row whose bucket is >= the given bucket
+        int lowerBound(long bucket) {
+            int low = 0;
+            int high = buckets.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (buckets[mid] < bucket) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    // Category index 0 is always the whole-order ("*") row
+    private record Snapshot(long generation, String[] categoryNames, Map<String, Integer> categoryIndex,
+            LocalDateTime hourlyFrom, Columns hourly, Columns daily) {
+
+        static final Snapshot EMPTY = new Snapshot(-1, new String[] { OrderRollup.ALL_CATEGORIES },
+                Map.of(OrderRollup.ALL_CATEGORIES, 0), LocalDateTime.MAX,
+                new Columns(new long[0], new int[0], new byte[0], new long[0], new long[0]),
+                new Columns(new long[0], new int[0], new byte[0], new long[0], new long[0]));
+    }
+
+    public OrderAnalyticsService(OrderRollupRepository rollupRepository,
+            RollupCheckpointRepository checkpointRepository, TransactionTemplate transactionTemplate,
+            @Value("${app.analytics.hourly-retention-days:90}") int hourlyRetentionDays,
+            @Value("${app.analytics.overlap-minutes:5}") long overlapMinutes) {
+        this.rollupRepository = rollupRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.hourlyRetentionDays = hourlyRetentionDays;
+        this.overlap = Duration.ofMinutes(overlapMinutes);
+    }
+
+    public OrderAnalyticsDto query(OrderRollup.Granularity granularity, LocalDateTime from, LocalDateTime to,
+            String category, Order.OrderStatus status, GroupBy groupBy) {
+        if (!from.isBefore(to)) {
+            throw new BadRequestException("'from' must be before 'to'");
+        }
+        Snapshot current = snapshot;
+        // Before the first load there is nothing to report rather than a retention window to enforce
+        if (granularity == OrderRollup.Granularity.HOUR && current.generation() >= 0
+                && from.isBefore(current.hourlyFrom())) {
+            throw new BadRequestException("Hourly analytics cover the last " + hourlyRetentionDays
+                    + " days; use DAY granularity for older ranges");
+        }
+        Columns columns = granularity == OrderRollup.Granularity.HOUR ? current.hourly() : current.daily();
+        ChronoUnit unit = granularity == OrderRollup.Granularity.HOUR ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+        LocalDateTime start = from.truncatedTo(unit);
+
+        int categoryFilter = -1;
+        if (category != null) {
+            Integer index = current.categoryIndex().get(category);
+            // Unknown category: nothing can match
+            categoryFilter = index != null && index != 0 ? index : Integer.MAX_VALUE;
+        }
+        // Category rows when grouping or filtering by category, otherwise the whole-order rows
+        boolean categoryRows = groupBy == GroupBy.CATEGORY || category != null;
+        int statusFilter = status != null ? status.ordinal() : -1;
+        int groupCount = switch (groupBy) {
+            case CATEGORY -> current.categoryNames().length;
+            case STATUS -> STATUSES.length;
+            case NONE -> 1;
+        };
+
+        long[] groupOrders = new long[groupCount];
+        long[] groupRevenue = new long[groupCount];
+        long totalOrders = 0;
+        long totalRevenue = 0;
+        List<OrderAnalyticsDto.Point> points = new ArrayList<>();
+
+        int end = columns.lowerBound(epoch(to));
+        long bucket = Long.MIN_VALUE;
+        for (int i = columns.lowerBound(epoch(start)); i < end; i++) {
+            int rowCategory = columns.categories()[i];
+            if ((rowCategory != 0) != categoryRows
+                    || (categoryFilter >= 0 && rowCategory != categoryFilter)
+                    || (statusFilter >= 0 && columns.statuses()[i] != statusFilter)) {
+                continue;
+            }
+            if (columns.buckets()[i] != bucket) {
+                emit(points, bucket, groupBy, current, groupOrders, groupRevenue);
+                bucket = columns.buckets()[i];
+            }
+            int group = switch (groupBy) {
+                case CATEGORY -> rowCategory;
+                case STATUS -> columns.statuses()[i];
+                case NONE -> 0;
+            };
+            groupOrders[group] += columns.orders()[i];
+            groupRevenue[group] += columns.revenue()[i];
+            totalOrders += columns.orders()[i];
+            totalRevenue += columns.revenue()[i];
+        }
+        emit(points, bucket, groupBy, current, groupOrders, groupRevenue);
+
+        return OrderAnalyticsDto.builder()
+                .granularity(granularity)
+                .from(start)
+                .to(to)
+                .groupBy(groupBy.name())
+                .orders(totalOrders)
+                .revenue(Money.ofPaise(totalRevenue))
+                .averageBasket(averageBasket(totalRevenue, totalOrders))
+                .points(points)
+                .build();
+    }
+
+    // Flushes one bucket's accumulated groups as points and clears the accumulators
+    private static void emit(List<OrderAnalyticsDto.Point> points, long bucket, GroupBy groupBy, Snapshot snapshot,
+            long[] groupOrders, long[] groupRevenue) {
+        if (bucket == Long.MIN_VALUE) {
+            return;
+        }
+        for (int group = 0; group < groupOrders.length; group++) {
+            if (groupOrders[group] == 0) {
+                continue;
+            }
+            points.add(OrderAnalyticsDto.Point.builder()
+                    .bucket(LocalDateTime.ofEpochSecond(bucket, 0, ZoneOffset.UTC))
+                    .group(switch (groupBy) {
+                        case CATEGORY -> snapshot.categoryNames()[group];
+                        case STATUS -> STATUSES[group].name();
+                        case NONE -> null;
+                    })
+                    .orders(groupOrders[group])
+                    .revenue(Money.ofPaise(groupRevenue[group]))
+                    .averageBasket(averageBasket(groupRevenue[group], groupOrders[group]))
+                    .build());
+            groupOrders[group] = 0;
+            groupRevenue[group] = 0;
+        }
+    }
+
+    private static Money averageBasket(long revenuePaise, long orders) {
+        return orders == 0 ? Money.ZERO : Money.ofPaise(Math.round((double) revenuePaise / orders));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!checkpointRepository.existsById(CHECKPOINT)) {
+            try {
+                // Starting from the epoch makes the first run a one-off backfill
+                checkpointRepository.save(RollupCheckpoint.builder()
+                        .name(CHECKPOINT)
+                        .processedUntil(LocalDateTime.of(1970, 1, 1, 0, 0))
+                        .generation(0L)
+                        .build());
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Rollup checkpoint created concurrently by another node");
+            }
+        }
+        rollUp();
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.rollup-interval-ms:60000}",
+            initialDelayString = "${app.analytics.rollup-interval-ms:60000}")
+    public void rollUp() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> checkpointRepository.lockByName(CHECKPOINT)
+                    .ifPresent(this::rollUp));
+        } catch (RuntimeException e) {
+            log.error("Order rollup run failed", e);
+        }
+        reloadIfStale();
+    }
+
+    private void rollUp(RollupCheckpoint checkpoint) {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<LocalDateTime> hours = rollupRepository.findDirtyHours(checkpoint.getProcessedUntil().minus(overlap))
+                .stream()
+                .map(epochSecond -> LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC))
+                .sorted()
+                .toList();
+        checkpoint.setProcessedUntil(startedAt);
+        if (hours.isEmpty()) {
+            return;
+        }
+
+        long generation = checkpoint.getGeneration() + 1;
+        for (List<LocalDateTime> chunk : chunks(hours)) {
+            LocalDateTime from = chunk.get(0);
+            LocalDateTime to = chunk.get(chunk.size() - 1).plusHours(1);
+            rollupRepository.deleteBuckets(OrderRollup.Granularity.HOUR.name(), chunk);
+            rollupRepository.insertHourlyTotals(chunk, from, to, generation);
+            rollupRepository.insertHourlyByCategory(chunk, from, to, generation);
+        }
+        List<LocalDateTime> days = hours.stream()
+                .map(hour -> hour.truncatedTo(ChronoUnit.DAYS))
+                .distinct()
+                .toList();
+        for (List<LocalDateTime> chunk : chunks(days)) {
+            rollupRepository.deleteBuckets(OrderRollup.Granularity.DAY.name(), chunk);
+            rollupRepository.insertDailyFromHourly(chunk, chunk.get(0), chunk.get(chunk.size() - 1).plusDays(1),
+                    generation);
+        }
+        checkpoint.setGeneration(generation);
+        log.debug("Rolled up {} hours across {} days", hours.size(), days.size());
+    }
+
+    // Loads only the rows written by generations this node has not seen yet. A rewritten bucket is
+    // rewritten whole, so its new rows replace every old row of that bucket.
+    private void reloadIfStale() {
+        long generation = checkpointRepository.findGenerationByName(CHECKPOINT).orElse(0L);
+        Snapshot current = snapshot;
+        if (generation == current.generation()) {
+            return;
+        }
+        // A checkpoint that went backwards was reset: start over
+        Snapshot base = generation > current.generation() ? current : Snapshot.EMPTY;
+        LocalDateTime hourlyFrom = LocalDateTime.now().minusDays(hourlyRetentionDays).truncatedTo(ChronoUnit.HOURS);
+        List<Object[]> rows = rollupRepository.findRowsWrittenAfter(base.generation(), hourlyFrom);
+
+        List<String> names = new ArrayList<>(Arrays.asList(base.categoryNames()));
+        Map<String, Integer> index = new HashMap<>(base.categoryIndex());
+        List<Object[]> hourlyRows = new ArrayList<>();
+        List<Object[]> dailyRows = new ArrayList<>();
+        for (Object[] row : rows) {
+            (OrderRollup.Granularity.HOUR.name().equals(row[0]) ? hourlyRows : dailyRows).add(row);
+        }
+        Columns hourly = merge(base.hourly(), toColumns(hourlyRows, names, index), epoch(hourlyFrom));
+        Columns daily = merge(base.daily(), toColumns(dailyRows, names, index), Long.MIN_VALUE);
+        snapshot = new Snapshot(generation, names.toArray(String[]::new), Map.copyOf(index), hourlyFrom, hourly, daily);
+        log.debug("Loaded order analytics generation {} ({} changed rows; {} hourly, {} daily rows)", generation,
+                rows.size(), hourly.buckets().length, daily.buckets().length);
+    }
+
+    // Rows are (granularity, bucket epoch second, category, status, orders, revenue_paise), sorted by bucket
+    private static Columns toColumns(List<Object[]> rows, List<String> names, Map<String, Integer> index) {
+        int size = rows.size();
+        Columns columns = new Columns(new long[size], new int[size], new byte[size], new long[size], new long[size]);
+        for (int i = 0; i < size; i++) {
+            Object[] row = rows.get(i);
+            columns.buckets()[i] = ((Number) row[1]).longValue();
+            columns.categories()[i] = index.computeIfAbsent((String) row[2], name -> {
+                names.add(name);
+                return names.size() - 1;
+            });
+            columns.statuses()[i] = (byte) Order.OrderStatus.valueOf((String) row[3]).ordinal();
+            columns.orders()[i] = ((Number) row[4]).longValue();
+            columns.revenue()[i] = ((Number) row[5]).longValue();
+        }
+        return columns;
+    }
+
+    // Old rows outside the changed buckets (and not before minBucket) interleaved with the changed rows,
+    // keeping the arrays sorted by bucket
+    private static Columns merge(Columns old, Columns changed, long minBucket) {
+        Set<Long> changedBuckets = new HashSet<>();
+        for (long bucket : changed.buckets()) {
+            changedBuckets.add(bucket);
+        }
+        int kept = 0;
+        for (long bucket : old.buckets()) {
+            if (bucket >= minBucket && !changedBuckets.contains(bucket)) {
+                kept++;
+            }
+        }
+        int size = kept + changed.buckets().length;
+        Columns merged = new Columns(new long[size], new int[size], new byte[size], new long[size], new long[size]);
+        int i = 0;
+        int j = 0;
+        for (int k = 0; k < size; k++) {
+            while (i < old.buckets().length
+                    && (old.buckets()[i] < minBucket || changedBuckets.contains(old.buckets()[i]))) {
+                i++;
+            }
+            boolean fromOld = j == changed.buckets().length
+                    || (i < old.buckets().length && old.buckets()[i] <= changed.buckets()[j]);
+            Columns source = fromOld ? old : changed;
+            int row = fromOld ? i++ : j++;
+            merged.buckets()[k] = source.buckets()[row];
+            merged.categories()[k] = source.categories()[row];
+            merged.statuses()[k] = source.statuses()[row];
+            merged.orders()[k] = source.orders()[row];
+            merged.revenue()[k] = source.revenue()[row];
+        }
+        return merged;
+    }
+
+    private static long epoch(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static <T> List<List<T>> chunks(List<T> items) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += CHUNK_SIZE) {
+            chunks.add(items.subList(i, Math.min(items.size(), i + CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+}
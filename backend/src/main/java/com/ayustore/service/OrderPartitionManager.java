@@ -0,0 +1,41 @@
+package com.ayustore.service;
+
+import com.ayustore.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+// orders/order_items are range-partitioned by month on created_at (see V3__partition_orders.sql).
+// Rows never move: default listings skip delivered and cancelled orders in months older than the hot
+// window, and reach open orders there through partial indexes (V8).
+// This keeps the partitions for the coming months in place so inserts always have a target.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderPartitionManager {
+
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.orders.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.orders.partitions.interval-ms:3600000}",
+            initialDelayString = "${app.orders.partitions.interval-ms:3600000}")
+    public void ensurePartitions() {
+        LocalDate currentMonth = LocalDate.now().withDayOfMonth(1);
+        Integer created = transactionTemplate.execute(
+                status -> orderRepository.ensurePartitions(currentMonth, monthsAhead));
+        if (created != null && created > 0) {
+            log.info("Created {} monthly order partitions from {}", created, currentMonth);
+        }
+    }
+}
@@ -1,18 +1,32 @@
 package com.ayustore.service;
 
+import com.ayustore.dto.CartItemDto;
+import com.ayustore.dto.CheckoutRequest;
 import com.ayustore.dto.CreateOrderRequest;
 import com.ayustore.dto.OrderDto;
 import com.ayustore.entity.*;
 import com.ayustore.exception.BadRequestException;
 import com.ayustore.exception.ResourceNotFoundException;
+import com.ayustore.persistence.EntityCacheInvalidator;
 import com.ayustore.repository.OrderRepository;
+import com.ayustore.repository.ProductRepository;
+import com.ayustore.repository.PromotionRedemptionRepository;
+import com.ayustore.repository.UserOrderStatsRepository;
+import com.ayustore.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -23,7 +37,21 @@ public class OrderService {
 
     private final OrderRepository orderRepository;
     private final UserService userService;
+    private final CurrentUserContext currentUserContext;
     private final ProductService productService;
+    private final ProductRepository productRepository;
+    private final CartService cartService;
+    private final PromotionEngine promotionEngine;
+    private final PromotionRedemptionRepository redemptionRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final UserOrderStatsRepository userOrderStatsRepository;
+    private final DashboardStreamService dashboardStreamService;
+    private final StockMonitor stockMonitor;
+    private final EntityCacheInvalidator entityCacheInvalidator;
+
+    // Default listings only cover orders placed within this many days
+    @Value("${app.orders.hot-days:90}")
+    private int hotDays;
 
     @Transactional
     public OrderDto createOrder(CreateOrderRequest request) {
@@ -37,17 +65,11 @@ public class OrderService {
         Order order = Order.builder()
                 .user(currentUser)
                 .status(Order.OrderStatus.PENDING)
-                .total(BigDecimal.valueOf(request.getTotal()))
-                .shippingAddress(ShippingAddress.builder()
-                        .firstName(request.getFirstName())
-                        .lastName(request.getLastName())
-                        .address(request.getAddress())
-                        .city(request.getCity())
-                        .zipCode(request.getZip())
-                        .country("India") // Default for Razorpay
-                        .build())
+                .shippingAddress(buildShippingAddress(request.getFirstName(), request.getLastName(),
+                        request.getAddress(), request.getCity(), request.getZip()))
                 .build();
 
+        List<PromotionEngine.PricingLine> pricingLines = new ArrayList<>(request.getItems().size());
         for (CreateOrderRequest.CartItemRequest item : request.getItems()) {
             Product product = productService.getProductEntity(item.getId());
 
@@ -65,35 +87,141 @@ public class OrderService {
                     .build();
 
             order.addItem(orderItem);
+            pricingLines.add(new PromotionEngine.PricingLine(
+                    product.getId(), product.getCategory(), product.getPrice().getPaise(), item.getQuantity()));
+
+            takeStock(product, item.getQuantity());
+        }
 
-            // Reduce stock
-            product.setStock(product.getStock() - item.getQuantity());
+        PromotionEngine.PricingResult pricing = applyPricing(order, pricingLines, request.getCouponCode(),
+                currentUser.getId());
+        if (request.getTotal() != null
+                && BigDecimal.valueOf(request.getTotal()).compareTo(order.getTotal().toBigDecimal()) != 0) {
+            log.warn("Client total {} differs from server total {}", request.getTotal(), order.getTotal());
         }
 
         order = orderRepository.save(order);
+        recordRedemption(pricing, order);
+        recordOrderPlaced(order);
         log.info("Order created with ID: {}", order.getId());
 
         return OrderDto.fromEntity(order);
     }
 
-    @Transactional(readOnly = true)
-    public List<OrderDto> getCurrentUserOrders() {
+    @Transactional
+    public OrderDto checkoutCart(CheckoutRequest request) {
         User currentUser = userService.getCurrentUser();
+        List<CartItemDto> lines = cartService.getItems(currentUser.getId());
+        log.info("Checking out cart of {} lines for user: {}", lines.size(), currentUser.getEmail());
+
+        if (lines.isEmpty()) {
+            throw new BadRequestException("Cart is empty");
+        }
+
+        Order order = Order.builder()
+                .user(currentUser)
+                .status(Order.OrderStatus.PENDING)
+                .shippingAddress(buildShippingAddress(request.getFirstName(), request.getLastName(),
+                        request.getAddress(), request.getCity(), request.getZip()))
+                .build();
+
+        List<PromotionEngine.PricingLine> pricingLines = new ArrayList<>(lines.size());
+        int revalidated = 0;
+        for (CartItemDto line : lines) {
+            OrderItem orderItem;
+            // Catalog unchanged: the snapshot is still exact, so stock is taken without loading the row.
+            // Sales by other carts change only stock, which the update checks itself.
+            Long newVersion = productRepository.decrementStockIfCatalogUnchanged(
+                    line.getProductId(), line.getCatalogVersion(), line.getQuantity());
+            if (newVersion != null) {
+                stockMonitor.stockDecremented(line.getProductId(), line.getQuantity(), newVersion);
+                entityCacheInvalidator.evictAfterCommit(Product.class, line.getProductId());
+                orderItem = OrderItem.builder()
+                        .product(productRepository.getReferenceById(line.getProductId()))
+                        .quantity(line.getQuantity())
+                        .priceAtPurchase(line.getPrice())
+                        .productName(line.getName())
+                        .productImage(line.getImage())
+                        .build();
+                pricingLines.add(line.toPricingLine());
+            } else {
+                revalidated++;
+                Product product = productService.getProductEntity(line.getProductId());
+                if (product.getStock() < line.getQuantity()) {
+                    throw new BadRequestException("Insufficient stock for product: " + product.getName());
+                }
+                orderItem = OrderItem.builder()
+                        .product(product)
+                        .quantity(line.getQuantity())
+                        .priceAtPurchase(product.getPrice())
+                        .productName(product.getName())
+                        .productImage(product.getImage())
+                        .build();
+                pricingLines.add(new PromotionEngine.PricingLine(
+                        product.getId(), product.getCategory(), product.getPrice().getPaise(), line.getQuantity()));
+                takeStock(product, line.getQuantity());
+            }
+
+            order.addItem(orderItem);
+        }
+
+        PromotionEngine.PricingResult pricing = applyPricing(order, pricingLines, request.getCouponCode(),
+                currentUser.getId());
+
+        order = orderRepository.save(order);
+        recordRedemption(pricing, order);
+        recordOrderPlaced(order);
+        log.info("Order created from cart with ID: {} ({} lines revalidated)", order.getId(), revalidated);
+
+        UUID userId = currentUser.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cartService.clear(userId);
+            }
+        });
+
+        return OrderDto.fromEntity(order);
+    }
+
+    // A single conditional update per line: concurrent orders for a hot product wait on the row lock
+    // instead of conflicting on its version. The product entity already loaded stays untouched.
+    private void takeStock(Product product, int quantity) {
+        Long newVersion = productRepository.decrementStock(product.getId(), quantity);
+        if (newVersion == null) {
+            throw new BadRequestException("Insufficient stock for product: " + product.getName());
+        }
+        stockMonitor.stockDecremented(product.getId(), quantity, newVersion);
+        entityCacheInvalidator.evictAfterCommit(Product.class, product.getId());
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderDto> getCurrentUserOrders(boolean includeArchived) {
+        UserPrincipal currentUser = currentUserContext.getPrincipal();
         log.info("Fetching orders for user: {}", currentUser.getEmail());
-        return orderRepository.findByUserIdOrderByCreatedAtDesc(currentUser.getId()).stream()
+        List<Order> orders;
+        if (includeArchived) {
+            orders = orderRepository.findByUserIdOrderByCreatedAtDesc(currentUser.getId());
+        } else {
+            LocalDateTime since = hotSince();
+            orders = concat(
+                    orderRepository.findByUserIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc(
+                            currentUser.getId(), since),
+                    orderRepository.findOpenByUserIdCreatedBefore(currentUser.getId(), since));
+        }
+        return orders.stream()
                 .map(OrderDto::fromEntity)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
     public OrderDto getOrderById(UUID orderId) {
-        User currentUser = userService.getCurrentUser();
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
 
         // Check ownership unless admin
-        if (!order.getUser().getId().equals(currentUser.getId())
-                && currentUser.getRole() != User.Role.ADMIN) {
+        if (!order.getUser().getId().equals(currentUserContext.getUserId())
+                && !currentUserContext.isAdmin()) {
             throw new ResourceNotFoundException("Order", "id", orderId);
         }
 
@@ -109,31 +237,114 @@ public class OrderService {
     // Admin operations
 
     @Transactional(readOnly = true)
-    public List<OrderDto> getAllOrders() {
-        log.info("Admin fetching all orders");
-        return orderRepository.findAllOrderByCreatedAtDesc().stream()
+    public List<OrderDto> getAllOrders(boolean includeArchived) {
+        log.info("Admin fetching all orders (includeArchived={})", includeArchived);
+        List<Order> orders;
+        if (includeArchived) {
+            orders = orderRepository.findAllOrderByCreatedAtDesc();
+        } else {
+            LocalDateTime since = hotSince();
+            orders = concat(orderRepository.findHotOrderByCreatedAtDesc(since),
+                    orderRepository.findOpenCreatedBefore(since));
+        }
+        return orders.stream()
                 .map(OrderDto::fromEntity)
                 .collect(Collectors.toList());
     }
 
+    // Only delivered and cancelled orders age out of default listings; open ones are shown however old.
+    // Both halves are sorted newest first and every hot order is newer than every older open one.
+    private LocalDateTime hotSince() {
+        return LocalDateTime.now().minusDays(hotDays);
+    }
+
+    private static List<Order> concat(List<Order> hot, List<Order> olderOpen) {
+        if (olderOpen.isEmpty()) {
+            return hot;
+        }
+        List<Order> orders = new ArrayList<>(hot.size() + olderOpen.size());
+        orders.addAll(hot);
+        orders.addAll(olderOpen);
+        return orders;
+    }
+
     @Transactional
     public OrderDto updateOrderStatus(UUID orderId, Order.OrderStatus newStatus) {
         log.info("Updating order {} status to {}", orderId, newStatus);
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        // Revenue counts delivered orders only
+        boolean wasDelivered = order.getStatus() == Order.OrderStatus.DELIVERED;
+        boolean isDelivered = newStatus == Order.OrderStatus.DELIVERED;
+        if (wasDelivered != isDelivered) {
+            long paise = order.getTotal().getPaise();
+            dashboardStatsService.increment(DashboardStatsService.Counter.REVENUE_PAISE, isDelivered ? paise : -paise);
+        }
+        // Cancelled orders drop out of the customer's lifetime value
+        boolean wasCancelled = order.getStatus() == Order.OrderStatus.CANCELLED;
+        boolean isCancelled = newStatus == Order.OrderStatus.CANCELLED;
+        if (wasCancelled != isCancelled) {
+            long paise = order.getTotal().getPaise();
+            userOrderStatsRepository.add(order.getUser().getId(), 0, isCancelled ? -paise : paise);
+        }
         order.setStatus(newStatus);
         order = orderRepository.save(order);
         return OrderDto.fromEntity(order);
     }
 
-    @Transactional(readOnly = true)
-    public long countAllOrders() {
-        return orderRepository.countAllOrders();
+    private void recordOrderPlaced(Order order) {
+        dashboardStatsService.increment(DashboardStatsService.Counter.ORDERS, 1);
+        userOrderStatsRepository.add(order.getUser().getId(), 1, order.getTotal().getPaise());
+        dashboardStreamService.orderPlaced(order);
     }
 
-    @Transactional(readOnly = true)
-    public BigDecimal getTotalRevenue() {
-        BigDecimal revenue = orderRepository.sumCompletedOrdersTotal();
-        return revenue != null ? revenue : BigDecimal.ZERO;
+    // Per-user limits are the only promotion check that needs the database; a promotion over
+    // its limit is excluded and the cart is re-priced
+    private PromotionEngine.PricingResult applyPricing(Order order, List<PromotionEngine.PricingLine> lines,
+            String couponCode, UUID userId) {
+        Set<Long> excluded = new HashSet<>();
+        PromotionEngine.PricingResult pricing = promotionEngine.price(lines, couponCode, excluded);
+        while (pricing.promotionId() != null && pricing.perUserLimit() != null
+                && limitReached(pricing, userId)) {
+            if (pricing.couponCode() != null) {
+                throw new BadRequestException("Coupon " + pricing.couponCode() + " has already been used");
+            }
+            excluded.add(pricing.promotionId());
+            pricing = promotionEngine.price(lines, couponCode, excluded);
+        }
+
+        order.setTotal(pricing.total());
+        order.setDiscount(pricing.discount());
+        order.setCouponCode(pricing.couponCode());
+        return pricing;
+    }
+
+    // Held until this checkout commits, so a concurrent checkout of the same user counts our redemption
+    private boolean limitReached(PromotionEngine.PricingResult pricing, UUID userId) {
+        redemptionRepository.lockForUser(pricing.promotionId(), userId);
+        return redemptionRepository.countByPromotionIdAndUserId(pricing.promotionId(), userId)
+                >= pricing.perUserLimit();
+    }
+
+    private void recordRedemption(PromotionEngine.PricingResult pricing, Order order) {
+        if (pricing.promotionId() != null) {
+            redemptionRepository.save(PromotionRedemption.builder()
+                    .promotionId(pricing.promotionId())
+                    .userId(order.getUser().getId())
+                    .orderId(order.getId())
+                    .build());
+        }
+    }
+
+    private ShippingAddress buildShippingAddress(String firstName, String lastName, String address,
+            String city, String zip) {
+        return ShippingAddress.builder()
+                .firstName(firstName)
+                .lastName(lastName)
+                .address(address)
+                .city(city)
+                .zipCode(zip)
+                .country("India") // Default for Razorpay
+                .build();
     }
 }
@@ -0,0 +1,15 @@
+package com.ayustore.service;
+
+// Remote payment provider operations used by checkout and reconciliation. Implementations are
+// blocking and are always invoked off the request thread's transaction.
+public interface PaymentGateway {
+
+    // Creates a gateway order and returns its id
+    String createOrder(long amountInPaise, String currency, String receipt);
+
+    // Returns the gateway order status: created, attempted or paid
+    String fetchOrderStatus(String gatewayOrderId);
+
+    // Returns the id of the captured payment of a paid gateway order, or null if there is none
+    String fetchCapturedPaymentId(String gatewayOrderId);
+}
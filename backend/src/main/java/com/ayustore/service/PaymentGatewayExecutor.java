@@ -0,0 +1,124 @@
+package com.ayustore.service;
+
+import com.ayustore.exception.PaymentException;
+import com.ayustore.exception.ServiceUnavailableException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Bulkhead for payment gateway calls: a small dedicated pool with a bounded queue, a hard
+// per-call timeout and a consecutive-failure circuit breaker. A slow or failing gateway can
+// only exhaust this pool, never Tomcat request threads or the Hikari pool.
+@Slf4j
+@Component
+public class PaymentGatewayExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final int failureThreshold;
+    private final long openMs;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean trialInFlight = new AtomicBoolean();
+    private volatile long openUntil;
+
+    public PaymentGatewayExecutor(
+            @Value("${app.payments.gateway.max-concurrent:16}") int maxConcurrent,
+            @Value("${app.payments.gateway.queue-capacity:32}") int queueCapacity,
+            @Value("${app.payments.gateway.timeout-ms:5000}") long timeoutMs,
+            @Value("${app.payments.gateway.breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${app.payments.gateway.breaker.open-ms:30000}") long openMs) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(maxConcurrent, maxConcurrent, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-gateway-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.timeoutMs = timeoutMs;
+        this.failureThreshold = failureThreshold;
+        this.openMs = openMs;
+    }
+
+    public <T> T call(String operation, Callable<T> call) {
+        boolean trial = acquirePermission(operation);
+        Future<T> future;
+        try {
+            future = executor.submit(call);
+        } catch (RejectedExecutionException e) {
+            releaseTrial(trial);
+            log.warn("Payment gateway bulkhead full, rejecting {}", operation);
+            throw new ServiceUnavailableException("Payment gateway is busy, please retry");
+        }
+
+        try {
+            T result = future.get(timeoutMs, TimeUnit.MILLISECONDS);
+            onSuccess(trial);
+            return result;
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            onFailure(operation, trial);
+            throw new ServiceUnavailableException("Payment gateway timed out");
+        } catch (ExecutionException e) {
+            onFailure(operation, trial);
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new PaymentException("Payment gateway call failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            releaseTrial(trial);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for payment gateway");
+        }
+    }
+
+    public boolean isCircuitOpen() {
+        return System.currentTimeMillis() < openUntil;
+    }
+
+    // Closed: everything passes. Open: fail fast until the cool-down ends. Half-open: one trial call.
+    private boolean acquirePermission(String operation) {
+        if (consecutiveFailures.get() < failureThreshold) {
+            return false;
+        }
+        if (isCircuitOpen() || !trialInFlight.compareAndSet(false, true)) {
+            log.debug("Payment gateway circuit open, rejecting {}", operation);
+            throw new ServiceUnavailableException("Payment gateway is temporarily unavailable");
+        }
+        return true;
+    }
+
+    private void onSuccess(boolean trial) {
+        consecutiveFailures.set(0);
+        releaseTrial(trial);
+    }
+
+    private void onFailure(String operation, boolean trial) {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (failures >= failureThreshold) {
+            openUntil = System.currentTimeMillis() + openMs;
+            log.warn("Payment gateway circuit opened after {} consecutive failures ({})", failures, operation);
+        }
+        releaseTrial(trial);
+    }
+
+    private void releaseTrial(boolean trial) {
+        if (trial) {
+            trialInFlight.set(false);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
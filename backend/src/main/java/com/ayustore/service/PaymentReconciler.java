@@ -0,0 +1,289 @@
+package com.ayustore.service;
+
+import com.ayustore.dto.ReconciliationReportDto;
+import com.ayustore.entity.Payment;
+import com.ayustore.repository.OrderRepository;
+import com.ayustore.repository.PaymentRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Walks pending and recent payments by keyset, asks the gateway for each order's status on a
+// small rate-limited pool, and fixes whole pages with bulk updates. Paid-but-pending payments
+// are completed; long-abandoned ones are failed; anything else that disagrees is only reported.
+// Runs happen on a dedicated thread so a long run never holds up the shared scheduler.
+@Slf4j
+@Component
+public class PaymentReconciler {
+
+    private static final String GATEWAY_PAID = "paid";
+
+    private final PaymentRepository paymentRepository;
+    private final OrderRepository orderRepository;
+    private final PaymentGateway paymentGateway;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService runExecutor;
+    private final ExecutorService executor;
+    private final RateLimiter rateLimiter;
+
+    @Value("${app.payments.reconciliation.lookback-hours:48}")
+    private long lookbackHours;
+
+    @Value("${app.payments.reconciliation.abandon-after-minutes:1440}")
+    private long abandonAfterMinutes;
+
+    @Value("${app.payments.reconciliation.page-size:200}")
+    private int pageSize;
+
+    @Value("${app.payments.reconciliation.max-reported:100}")
+    private int maxReported;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicReference<ReconciliationReportDto> lastReport = new AtomicReference<>();
+
+    public PaymentReconciler(PaymentRepository paymentRepository, OrderRepository orderRepository,
+            PaymentGateway paymentGateway, PaymentService paymentService, TransactionTemplate transactionTemplate,
+            @Value("${app.payments.reconciliation.concurrency:8}") int concurrency,
+            @Value("${app.payments.reconciliation.requests-per-second:20}") double requestsPerSecond) {
+        this.paymentRepository = paymentRepository;
+        this.orderRepository = orderRepository;
+        this.paymentGateway = paymentGateway;
+        this.paymentService = paymentService;
+        this.transactionTemplate = transactionTemplate;
+        this.runExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-reconciler-run");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "payment-reconciler-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rateLimiter = new RateLimiter(requestsPerSecond);
+    }
+
+    private record Check(Payment payment, String gatewayStatus, String capturedPaymentId) {
+    }
+
+    @Scheduled(fixedDelayString = "${app.payments.reconciliation.interval-ms:900000}",
+            initialDelayString = "${app.payments.reconciliation.initial-delay-ms:120000}")
+    public void scheduledRun() {
+        if (running.get()) {
+            log.debug("Skipping scheduled reconciliation, a run is already in progress");
+            return;
+        }
+        runExecutor.execute(this::reconcile);
+    }
+
+    // Admin trigger; returns false when a run is already in progress
+    public boolean reconcileAsync() {
+        if (running.get()) {
+            return false;
+        }
+        runExecutor.execute(this::reconcile);
+        return true;
+    }
+
+    public ReconciliationReportDto getLastReport() {
+        return lastReport.get();
+    }
+
+    boolean reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            ReconciliationReportDto report = run();
+            lastReport.set(report);
+            log.info("Payment reconciliation scanned {}: {} completed, {} failed, {} discrepancies, {} gateway errors",
+                    report.getScanned(), report.getMarkedCompleted(), report.getMarkedFailed(),
+                    report.getDiscrepancyCount(), report.getGatewayErrors());
+        } catch (RuntimeException e) {
+            log.error("Payment reconciliation aborted", e);
+        } finally {
+            running.set(false);
+        }
+        return true;
+    }
+
+    private ReconciliationReportDto run() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime since = startedAt.minusHours(lookbackHours);
+        LocalDateTime abandonedBefore = startedAt.minusMinutes(abandonAfterMinutes);
+        ReconciliationReportDto report = ReconciliationReportDto.builder()
+                .startedAt(startedAt)
+                .discrepancies(new ArrayList<>())
+                .build();
+
+        UUID afterId = new UUID(0L, 0L);
+        List<Payment> page;
+        do {
+            UUID cursor = afterId;
+            page = transactionTemplate.execute(
+                    status -> paymentRepository.findReconciliationPage(cursor, since, Limit.of(pageSize)));
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+
+            List<Check> checks = checkWithGateway(page, report);
+            List<Check> toComplete = new ArrayList<>();
+            List<UUID> toFail = new ArrayList<>();
+            for (Check check : checks) {
+                classify(check, abandonedBefore, toComplete, toFail, report);
+            }
+
+            if (!toComplete.isEmpty() || !toFail.isEmpty()) {
+                LocalDateTime now = LocalDateTime.now();
+                List<UUID> completeIds = toComplete.stream().map(check -> check.payment().getId()).toList();
+                transactionTemplate.executeWithoutResult(status -> {
+                    if (!toComplete.isEmpty()) {
+                        report.setMarkedCompleted(report.getMarkedCompleted()
+                                + paymentRepository.markCompleted(completeIds, now));
+                        for (Check check : toComplete) {
+                            if (check.capturedPaymentId() != null) {
+                                paymentRepository.setRazorpayPaymentIdIfMissing(
+                                        check.payment().getId(), check.capturedPaymentId());
+                            }
+                        }
+                        orderRepository.markPaidOrdersProcessing(completeIds, now);
+                    }
+                    if (!toFail.isEmpty()) {
+                        report.setMarkedFailed(report.getMarkedFailed() + paymentRepository.markFailed(toFail));
+                    }
+                });
+                // A cached gateway order for a now-paid order would let checkout offer it again
+                if (!toComplete.isEmpty()) {
+                    paymentService.invalidateGatewayOrders(
+                            toComplete.stream().map(check -> check.payment().getOrder().getId()).toList());
+                }
+            }
+
+            report.setScanned(report.getScanned() + page.size());
+            afterId = page.get(page.size() - 1).getId();
+        } while (page.size() == pageSize);
+
+        report.setFinishedAt(LocalDateTime.now());
+        return report;
+    }
+
+    private List<Check> checkWithGateway(List<Payment> page, ReconciliationReportDto report) {
+        List<Future<Check>> futures = new ArrayList<>(page.size());
+        for (Payment payment : page) {
+            futures.add(executor.submit(() -> {
+                rateLimiter.acquire();
+                String gatewayStatus = paymentGateway.fetchOrderStatus(payment.getRazorpayOrderId());
+                String capturedPaymentId = null;
+                // Only payments about to be completed need the gateway's payment id
+                if (GATEWAY_PAID.equals(gatewayStatus) && payment.getRazorpayPaymentId() == null
+                        && payment.getStatus() != Payment.PaymentStatus.COMPLETED
+                        && payment.getStatus() != Payment.PaymentStatus.REFUNDED) {
+                    rateLimiter.acquire();
+                    capturedPaymentId = paymentGateway.fetchCapturedPaymentId(payment.getRazorpayOrderId());
+                }
+                return new Check(payment, gatewayStatus, capturedPaymentId);
+            }));
+        }
+
+        List<Check> checks = new ArrayList<>(page.size());
+        for (Future<Check> future : futures) {
+            try {
+                checks.add(future.get());
+            } catch (ExecutionException e) {
+                report.setGatewayErrors(report.getGatewayErrors() + 1);
+                log.debug("Gateway lookup failed during reconciliation: {}", e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Reconciliation interrupted", e);
+            }
+        }
+        return checks;
+    }
+
+    private void classify(Check check, LocalDateTime abandonedBefore, List<Check> toComplete, List<UUID> toFail,
+            ReconciliationReportDto report) {
+        Payment payment = check.payment();
+        boolean paid = GATEWAY_PAID.equals(check.gatewayStatus());
+        String action = null;
+
+        switch (payment.getStatus()) {
+            case PENDING, FAILED -> {
+                if (paid) {
+                    toComplete.add(check);
+                    action = "MARKED_COMPLETED";
+                } else if (payment.getStatus() == Payment.PaymentStatus.PENDING
+                        && payment.getCreatedAt() != null && payment.getCreatedAt().isBefore(abandonedBefore)) {
+                    toFail.add(payment.getId());
+                    action = "MARKED_FAILED";
+                }
+            }
+            case COMPLETED -> {
+                if (!paid) {
+                    action = "REVIEW";
+                }
+            }
+            case REFUNDED -> {
+            }
+        }
+
+        if (action != null) {
+            report.setDiscrepancyCount(report.getDiscrepancyCount() + 1);
+            if (report.getDiscrepancies().size() < maxReported) {
+                report.getDiscrepancies().add(ReconciliationReportDto.Discrepancy.builder()
+                        .paymentId(payment.getId())
+                        .razorpayOrderId(payment.getRazorpayOrderId())
+                        .localStatus(payment.getStatus())
+                        .gatewayStatus(check.gatewayStatus())
+                        .action(action)
+                        .build());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        runExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    // Spaces permits evenly so the gateway sees a steady rate rather than bursts of `concurrency`
+    private static final class RateLimiter {
+
+        private final long intervalNanos;
+        private long nextPermitAt;
+
+        RateLimiter(double permitsPerSecond) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        }
+
+        void acquire() throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                if (nextPermitAt < now) {
+                    nextPermitAt = now;
+                }
+                waitNanos = nextPermitAt - now;
+                nextPermitAt += intervalNanos;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+}
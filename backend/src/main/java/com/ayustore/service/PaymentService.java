@@ -3,28 +3,30 @@ package com.ayustore.service;
 import com.ayustore.config.RazorpayConfig;
 import com.ayustore.dto.RazorpayOrderResponse;
 import com.ayustore.dto.VerifyPaymentRequest;
+import com.ayustore.entity.Money;
 import com.ayustore.entity.Order;
 import com.ayustore.entity.Payment;
+import com.ayustore.exception.BadRequestException;
 import com.ayustore.exception.PaymentException;
 import com.ayustore.exception.ResourceNotFoundException;
 import com.ayustore.repository.OrderRepository;
 import com.ayustore.repository.PaymentRepository;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HexFormat;
+import java.util.Collection;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Slf4j
 @Service
@@ -33,54 +35,126 @@ public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
-    private final RazorpayClient razorpayClient;
+    private final PaymentGateway paymentGateway;
+    private final PaymentGatewayExecutor gatewayExecutor;
     private final RazorpayConfig razorpayConfig;
+    private final RazorpaySignatureVerifier signatureVerifier;
+    private final TransactionTemplate transactionTemplate;
 
-    @Value("${app.razorpay.key-secret}")
-    private String razorpayKeySecret;
+    private AsyncCache<UUID, RazorpayOrderResponse> gatewayOrderCache;
 
-    @Transactional
+    private record GatewayOrderLookup(Money amount, LocalDateTime orderCreatedAt, Payment payment) {
+    }
+
+    @Value("${app.payments.gateway-order-cache.ttl-seconds:600}")
+    void setGatewayOrderCacheTtl(long ttlSeconds) {
+        this.gatewayOrderCache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .maximumSize(10_000)
+                .buildAsync();
+    }
+
+    // Deliberately not @Transactional: the gateway round-trip runs on the payment bulkhead between two
+    // short transactions, so a slow gateway never pins a request thread and a pooled connection together.
+    // Repeat "Pay" clicks reuse the order's existing gateway order; the cache also makes concurrent
+    // clicks for the same order wait for a single in-flight creation instead of racing. The creation
+    // runs on the calling thread outside any cache lock: only the future is published, so a slow
+    // gateway never blocks Caffeine's map or callers for other orders. Failed futures are dropped.
     public RazorpayOrderResponse createRazorpayOrder(UUID orderId) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+        CompletableFuture<RazorpayOrderResponse> created = new CompletableFuture<>();
+        CompletableFuture<RazorpayOrderResponse> inFlight = gatewayOrderCache.asMap().putIfAbsent(orderId, created);
+        if (inFlight == null) {
+            try {
+                created.complete(findOrCreateGatewayOrder(orderId));
+            } catch (RuntimeException e) {
+                created.completeExceptionally(e);
+                throw e;
+            }
+            return created.join();
+        }
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private RazorpayOrderResponse findOrCreateGatewayOrder(UUID orderId) {
+        GatewayOrderLookup lookup = transactionTemplate.execute(status -> {
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Order", "id", orderId));
+            return new GatewayOrderLookup(order.getTotal(), order.getCreatedAt(),
+                    paymentRepository.findByOrderId(orderId).orElse(null));
+        });
+        Money amount = lookup.amount();
+        Payment existing = lookup.payment();
+
+        if (existing != null) {
+            if (existing.getStatus() == Payment.PaymentStatus.COMPLETED
+                    || existing.getStatus() == Payment.PaymentStatus.REFUNDED) {
+                throw new BadRequestException("Order has already been paid");
+            }
+            // A Razorpay order accepts further attempts until it is paid, so a failed attempt is reusable too
+            if (existing.getRazorpayOrderId() != null && existing.getAmount().equals(amount)) {
+                log.info("Reusing Razorpay order {} for order: {}", existing.getRazorpayOrderId(), orderId);
+                if (existing.getStatus() == Payment.PaymentStatus.FAILED) {
+                    transactionTemplate.executeWithoutResult(status -> paymentRepository.findById(existing.getId())
+                            .ifPresent(payment -> payment.setStatus(Payment.PaymentStatus.PENDING)));
+                }
+                return toResponse(orderId, existing.getRazorpayOrderId(), amount);
+            }
+        }
 
         log.info("Creating Razorpay order for order: {}", orderId);
 
+        // Amount in paise (smallest currency unit)
+        long amountInPaise = amount.getPaise();
+        String razorpayOrderId = gatewayExecutor.call("createOrder",
+                () -> paymentGateway.createOrder(amountInPaise, "INR", orderId.toString()));
+
+        log.info("Razorpay order created: {}", razorpayOrderId);
+
+        // Create or repoint the order's single payment record
         try {
-            // Amount in paise (smallest currency unit)
-            long amountInPaise = order.getTotal().multiply(BigDecimal.valueOf(100)).longValue();
-
-            JSONObject orderRequest = new JSONObject();
-            orderRequest.put("amount", amountInPaise);
-            orderRequest.put("currency", "INR");
-            orderRequest.put("receipt", order.getId().toString());
-
-            com.razorpay.Order razorpayOrder = razorpayClient.orders.create(orderRequest);
-            String razorpayOrderId = razorpayOrder.get("id");
-
-            log.info("Razorpay order created: {}", razorpayOrderId);
-
-            // Create payment record
-            Payment payment = Payment.builder()
-                    .order(order)
-                    .razorpayOrderId(razorpayOrderId)
-                    .amount(order.getTotal())
-                    .status(Payment.PaymentStatus.PENDING)
-                    .build();
-            paymentRepository.save(payment);
-
-            return RazorpayOrderResponse.builder()
-                    .razorpayOrderId(razorpayOrderId)
-                    .amount(order.getTotal().doubleValue())
-                    .currency("INR")
-                    .keyId(razorpayConfig.getKeyId())
-                    .orderId(orderId.toString())
-                    .build();
-
-        } catch (RazorpayException e) {
-            log.error("Error creating Razorpay order", e);
-            throw new PaymentException("Failed to create payment order: " + e.getMessage(), e);
+            transactionTemplate.executeWithoutResult(status -> {
+                Payment payment = existing != null
+                        ? paymentRepository.findById(existing.getId()).orElseThrow()
+                        : Payment.builder()
+                                .order(orderRepository.getReferenceById(orderId))
+                                .orderCreatedAt(lookup.orderCreatedAt())
+                                .build();
+                payment.setRazorpayOrderId(razorpayOrderId);
+                payment.setAmount(amount);
+                payment.setStatus(Payment.PaymentStatus.PENDING);
+                paymentRepository.saveAndFlush(payment);
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (existing != null) {
+                throw e;
+            }
+            // Another node or an evicted cache entry created the order's payment first (payments.order_id
+            // is unique); hand out the winner's gateway order and leave ours unpaid to expire
+            log.info("Payment for order {} created concurrently, dropping Razorpay order {}",
+                    orderId, razorpayOrderId);
+            Payment winner = transactionTemplate.execute(status -> paymentRepository.findByOrderId(orderId))
+                    .orElseThrow(() -> e);
+            return toResponse(orderId, winner.getRazorpayOrderId(), winner.getAmount());
         }
+
+        return toResponse(orderId, razorpayOrderId, amount);
+    }
+
+    private RazorpayOrderResponse toResponse(UUID orderId, String razorpayOrderId, Money amount) {
+        return RazorpayOrderResponse.builder()
+                .razorpayOrderId(razorpayOrderId)
+                .amount(amount)
+                .currency("INR")
+                .keyId(razorpayConfig.getKeyId())
+                .orderId(orderId.toString())
+                .build();
     }
 
     @Transactional
@@ -92,44 +166,50 @@ public class PaymentService {
                         request.getRazorpayOrderId()));
 
         // Verify signature
-        String data = request.getRazorpayOrderId() + "|" + request.getRazorpayPaymentId();
-        boolean isValid = verifySignature(data, request.getRazorpaySignature());
+        boolean isValid = signatureVerifier.isValidPaymentSignature(
+                request.getRazorpayOrderId(), request.getRazorpayPaymentId(), request.getRazorpaySignature());
 
         if (isValid) {
             log.info("Payment verified successfully");
-            payment.setRazorpayPaymentId(request.getRazorpayPaymentId());
             payment.setRazorpaySignature(request.getRazorpaySignature());
-            payment.setStatus(Payment.PaymentStatus.COMPLETED);
-            payment.setCompletedAt(LocalDateTime.now());
-            paymentRepository.save(payment);
-
-            // Update order status
-            Order order = payment.getOrder();
-            order.setStatus(Order.OrderStatus.PROCESSING);
-            orderRepository.save(order);
-
+            markCompleted(payment, request.getRazorpayPaymentId());
             return true;
         } else {
             log.error("Payment signature verification failed");
-            payment.setStatus(Payment.PaymentStatus.FAILED);
-            paymentRepository.save(payment);
+            markFailed(payment);
             throw new PaymentException("Payment verification failed");
         }
     }
 
-    private boolean verifySignature(String data, String signature) {
-        try {
-            Mac mac = Mac.getInstance("HmacSHA256");
-            SecretKeySpec secretKey = new SecretKeySpec(
-                    razorpayKeySecret.getBytes(StandardCharsets.UTF_8),
-                    "HmacSHA256");
-            mac.init(secretKey);
-            byte[] hash = mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
-            String generatedSignature = HexFormat.of().formatHex(hash);
-            return generatedSignature.equals(signature);
-        } catch (Exception e) {
-            log.error("Error verifying signature", e);
-            return false;
+    // Transitions shared by the browser callback and the webhook processor; both are idempotent so
+    // a duplicate or late event never regresses a payment or an order that has moved on
+    void markCompleted(Payment payment, String razorpayPaymentId) {
+        if (payment.getStatus() == Payment.PaymentStatus.COMPLETED
+                || payment.getStatus() == Payment.PaymentStatus.REFUNDED) {
+            return;
+        }
+        if (razorpayPaymentId != null) {
+            payment.setRazorpayPaymentId(razorpayPaymentId);
+        }
+        payment.setStatus(Payment.PaymentStatus.COMPLETED);
+        payment.setCompletedAt(LocalDateTime.now());
+        gatewayOrderCache.synchronous().invalidate(payment.getOrder().getId());
+
+        // Update order status
+        Order order = payment.getOrder();
+        if (order.getStatus() == Order.OrderStatus.PENDING) {
+            order.setStatus(Order.OrderStatus.PROCESSING);
+        }
+    }
+
+    // For bulk status updates that bypass markCompleted; call once they have committed
+    void invalidateGatewayOrders(Collection<UUID> orderIds) {
+        gatewayOrderCache.synchronous().invalidateAll(orderIds);
+    }
+
+    void markFailed(Payment payment) {
+        if (payment.getStatus() == Payment.PaymentStatus.PENDING) {
+            payment.setStatus(Payment.PaymentStatus.FAILED);
         }
     }
 }
@@ -0,0 +1,289 @@
+package com.ayustore.service;
+
+import com.ayustore.entity.Payment;
+import com.ayustore.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.*;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+
+// Drains the webhook stream through a consumer group. Each poll takes up to batch-size events,
+// collapses duplicates and superseded events per gateway order, applies them in one transaction
+// and only then acknowledges, so a crash between the two simply replays the batch. If the batch
+// transaction fails, each gateway order is retried in its own transaction and only the failing
+// ones stay pending; a periodic sweep claims entries left idle (by a failure here or by a consumer
+// that went away) and moves them to a dead-letter stream once they have been delivered max-deliveries times.
+@Slf4j
+@Component
+public class PaymentWebhookProcessor {
+
+    private static final String GROUP = "payment-webhooks";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final PaymentRepository paymentRepository;
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final String streamKey;
+    private final String consumerName;
+    private final int batchSize;
+    private final String deadLetterKey;
+    private final int maxDeliveries;
+    private final Duration claimIdle;
+
+    private volatile boolean groupReady;
+    // Start by replaying anything this consumer read but never acknowledged
+    private volatile boolean replayPending = true;
+
+    public PaymentWebhookProcessor(StringRedisTemplate stringRedisTemplate, PaymentRepository paymentRepository,
+            PaymentService paymentService, TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+            @Value("${app.payments.webhook.stream-key:payments:webhooks}") String streamKey,
+            @Value("${app.payments.webhook.consumer:${HOSTNAME:ayustore}}") String consumerName,
+            @Value("${app.payments.webhook.batch-size:500}") int batchSize,
+            @Value("${app.payments.webhook.dead-letter-key:payments:webhooks:dead}") String deadLetterKey,
+            @Value("${app.payments.webhook.max-deliveries:5}") int maxDeliveries,
+            @Value("${app.payments.webhook.claim-idle-ms:60000}") long claimIdleMs) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.paymentRepository = paymentRepository;
+        this.paymentService = paymentService;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.streamKey = streamKey;
+        this.consumerName = consumerName;
+        this.batchSize = batchSize;
+        this.deadLetterKey = deadLetterKey;
+        this.maxDeliveries = maxDeliveries;
+        this.claimIdle = Duration.ofMillis(claimIdleMs);
+    }
+
+    private enum Outcome {
+        FAILED, CAPTURED
+    }
+
+    private record Transition(Outcome outcome, String razorpayPaymentId) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createGroup() {
+        try {
+            stringRedisTemplate.opsForStream().createGroup(streamKey, ReadOffset.from("0"), GROUP);
+            groupReady = true;
+        } catch (DataAccessException e) {
+            // BUSYGROUP: another instance or an earlier run already created it
+            groupReady = e.getMessage() != null && e.getMessage().contains("BUSYGROUP");
+            if (!groupReady) {
+                log.warn("Could not create webhook consumer group, will retry: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.payments.webhook.poll-interval-ms:200}",
+            initialDelayString = "${app.payments.webhook.poll-interval-ms:200}")
+    public synchronized void drain() {
+        if (!groupReady) {
+            createGroup();
+            if (!groupReady) {
+                return;
+            }
+        }
+
+        try {
+            List<MapRecord<String, Object, Object>> records;
+            // Replay walks forward through the pending list, past entries that fail again
+            String replayFrom = "0";
+            // Keep going while batches come back full, so a storm is worked off without idle polls
+            do {
+                ReadOffset offset = replayPending ? ReadOffset.from(replayFrom) : ReadOffset.lastConsumed();
+                records = stringRedisTemplate.opsForStream().read(Consumer.from(GROUP, consumerName),
+                        StreamReadOptions.empty().count(batchSize), StreamOffset.create(streamKey, offset));
+                if (records == null || records.isEmpty()) {
+                    if (!replayPending) {
+                        return;
+                    }
+                    replayPending = false;
+                    continue;
+                }
+                replayFrom = records.get(records.size() - 1).getId().getValue();
+                process(records);
+            } while (records.size() == batchSize || replayPending);
+        } catch (RuntimeException e) {
+            // Unacknowledged events stay in the pending list and are replayed on the next poll
+            log.error("Webhook batch failed, will replay", e);
+            replayPending = true;
+            if (e instanceof DataAccessException && e.getMessage() != null && e.getMessage().contains("NOGROUP")) {
+                groupReady = false;
+            }
+        }
+    }
+
+    // XPENDING + XCLAIM with a min idle time: the same effect as XAUTOCLAIM, which Spring Data Redis does
+    // not expose, plus the delivery counts needed for dead-lettering
+    @Scheduled(fixedDelayString = "${app.payments.webhook.claim-interval-ms:30000}",
+            initialDelayString = "${app.payments.webhook.claim-interval-ms:30000}")
+    public synchronized void claimAbandoned() {
+        if (!groupReady) {
+            return;
+        }
+
+        try {
+            PendingMessages pending = stringRedisTemplate.opsForStream()
+                    .pending(streamKey, GROUP, Range.unbounded(), batchSize);
+            List<RecordId> retry = new ArrayList<>();
+            List<RecordId> exhausted = new ArrayList<>();
+            for (PendingMessage message : pending) {
+                if (message.getElapsedTimeSinceLastDelivery().compareTo(claimIdle) < 0) {
+                    continue;
+                }
+                (message.getTotalDeliveryCount() >= maxDeliveries ? exhausted : retry).add(message.getId());
+            }
+
+            if (!exhausted.isEmpty()) {
+                deadLetter(claim(exhausted));
+            }
+            if (!retry.isEmpty()) {
+                List<MapRecord<String, Object, Object>> claimed = claim(retry);
+                if (!claimed.isEmpty()) {
+                    log.info("Claimed {} idle webhook events for another attempt", claimed.size());
+                    process(claimed);
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Webhook claim sweep failed", e);
+        }
+    }
+
+    // Another node may have claimed some of them in the meantime; min idle makes XCLAIM skip those
+    private List<MapRecord<String, Object, Object>> claim(List<RecordId> ids) {
+        return stringRedisTemplate.opsForStream()
+                .claim(streamKey, GROUP, consumerName, claimIdle, ids.toArray(RecordId[]::new));
+    }
+
+    private void deadLetter(List<MapRecord<String, Object, Object>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<Object, Object> value = new HashMap<>(record.getValue());
+            value.put("stream_id", record.getId().getValue());
+            stringRedisTemplate.opsForStream().add(StreamRecords.newRecord().in(deadLetterKey).ofMap(value));
+        }
+        RecordId[] ids = records.stream().map(MapRecord::getId).toArray(RecordId[]::new);
+        stringRedisTemplate.opsForStream().acknowledge(streamKey, GROUP, ids);
+        stringRedisTemplate.opsForStream().delete(streamKey, ids);
+        log.error("Moved {} webhook events to {} after {} failed deliveries", records.size(), deadLetterKey,
+                maxDeliveries);
+    }
+
+    private void process(List<MapRecord<String, Object, Object>> records) {
+        Set<String> seenEventIds = new HashSet<>();
+        Map<String, Transition> transitions = new HashMap<>();
+        Map<String, List<RecordId>> recordsByOrder = new HashMap<>();
+        int duplicates = 0;
+
+        for (MapRecord<String, Object, Object> record : records) {
+            Map<Object, Object> value = record.getValue();
+            String eventId = (String) value.get(PaymentWebhookService.FIELD_EVENT_ID);
+            if (eventId != null && !eventId.isEmpty() && !seenEventIds.add(eventId)) {
+                duplicates++;
+                continue;
+            }
+            String razorpayOrderId = collect((String) value.get(PaymentWebhookService.FIELD_BODY), transitions);
+            if (razorpayOrderId == null) {
+                log.debug("Ignoring webhook record {}", record.getId());
+            } else {
+                recordsByOrder.computeIfAbsent(razorpayOrderId, k -> new ArrayList<>()).add(record.getId());
+            }
+        }
+
+        Set<RecordId> failed = new HashSet<>();
+        if (!transitions.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> apply(transitions));
+            } catch (RuntimeException e) {
+                log.warn("Webhook batch of {} payments failed, applying them one by one", transitions.size(), e);
+                for (Map.Entry<String, Transition> entry : transitions.entrySet()) {
+                    try {
+                        transactionTemplate.executeWithoutResult(
+                                status -> apply(Map.of(entry.getKey(), entry.getValue())));
+                    } catch (RuntimeException paymentFailure) {
+                        log.error("Webhook for Razorpay order {} failed, leaving it pending",
+                                entry.getKey(), paymentFailure);
+                        failed.addAll(recordsByOrder.get(entry.getKey()));
+                    }
+                }
+            }
+        }
+
+        // Failed events stay in the pending list until claimAbandoned retries or dead-letters them
+        RecordId[] ids = records.stream().map(MapRecord::getId).filter(id -> !failed.contains(id))
+                .toArray(RecordId[]::new);
+        if (ids.length > 0) {
+            stringRedisTemplate.opsForStream().acknowledge(streamKey, GROUP, ids);
+            stringRedisTemplate.opsForStream().delete(streamKey, ids);
+        }
+        log.debug("Processed {} webhook events ({} duplicates, {} payments touched, {} left pending)",
+                records.size(), duplicates, transitions.size(), failed.size());
+    }
+
+    // A capture always supersedes a failure for the same gateway order, whatever order they arrive in
+    private String collect(String body, Map<String, Transition> transitions) {
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(body);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Dropping unparseable webhook payload: {}", e.getMessage());
+            return null;
+        }
+
+        Outcome outcome = switch (root.path("event").asText()) {
+            case "payment.captured", "order.paid" -> Outcome.CAPTURED;
+            case "payment.failed" -> Outcome.FAILED;
+            default -> null;
+        };
+        if (outcome == null) {
+            return null;
+        }
+
+        JsonNode payment = root.path("payload").path("payment").path("entity");
+        String razorpayOrderId = payment.path("order_id").asText(null);
+        if (razorpayOrderId == null) {
+            razorpayOrderId = root.path("payload").path("order").path("entity").path("id").asText(null);
+        }
+        if (razorpayOrderId == null) {
+            return null;
+        }
+
+        Transition transition = new Transition(outcome, payment.path("id").asText(null));
+        transitions.merge(razorpayOrderId, transition,
+                (existing, incoming) -> incoming.outcome().compareTo(existing.outcome()) > 0 ? incoming : existing);
+        return razorpayOrderId;
+    }
+
+    private void apply(Map<String, Transition> transitions) {
+        List<Payment> payments = paymentRepository.findAllWithOrderByRazorpayOrderIdIn(transitions.keySet());
+        for (Payment payment : payments) {
+            Transition transition = transitions.get(payment.getRazorpayOrderId());
+            if (transition.outcome() == Outcome.CAPTURED) {
+                paymentService.markCompleted(payment, transition.razorpayPaymentId());
+            } else {
+                paymentService.markFailed(payment);
+            }
+        }
+        if (payments.size() < transitions.size()) {
+            log.warn("{} webhook events referenced unknown Razorpay orders", transitions.size() - payments.size());
+        }
+    }
+}
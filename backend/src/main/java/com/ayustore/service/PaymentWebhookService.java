@@ -0,0 +1,47 @@
+package com.ayustore.service;
+
+import com.ayustore.exception.BadRequestException;
+import com.ayustore.exception.ServiceUnavailableException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+// Webhook ingestion only verifies and appends to a Redis stream; the database work happens in
+// PaymentWebhookProcessor. Razorpay gets its 200 after one HMAC and one XADD, however busy we are.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentWebhookService {
+
+    static final String FIELD_EVENT_ID = "eventId";
+    static final String FIELD_BODY = "body";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RazorpaySignatureVerifier signatureVerifier;
+
+    @Value("${app.payments.webhook.stream-key:payments:webhooks}")
+    private String streamKey;
+
+    public void enqueue(String body, String signature, String eventId) {
+        if (!signatureVerifier.isValidWebhookSignature(body, signature)) {
+            log.warn("Rejected Razorpay webhook {} with an invalid signature", eventId);
+            throw new BadRequestException("Invalid webhook signature");
+        }
+
+        try {
+            stringRedisTemplate.opsForStream().add(StreamRecords.string(Map.of(
+                    FIELD_EVENT_ID, eventId != null ? eventId : "",
+                    FIELD_BODY, body)).withStreamKey(streamKey));
+        } catch (DataAccessException e) {
+            // Not acknowledging makes Razorpay redeliver, which is exactly what we want here
+            log.error("Could not enqueue Razorpay webhook {}", eventId, e);
+            throw new ServiceUnavailableException("Webhook queue unavailable", e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.ayustore.service;
 
 import com.ayustore.dto.CreateProductRequest;
 import com.ayustore.dto.ProductDto;
+import com.ayustore.entity.Money;
 import com.ayustore.entity.Product;
 import com.ayustore.exception.ResourceNotFoundException;
 import com.ayustore.repository.ProductRepository;
@@ -19,6 +20,8 @@ import java.util.stream.Collectors;
 public class ProductService {
 
     private final ProductRepository productRepository;
+    private final DashboardStatsService dashboardStatsService;
+    private final StockMonitor stockMonitor;
 
     @Transactional(readOnly = true)
     public List<ProductDto> getAllProducts() {
@@ -66,7 +69,7 @@ public class ProductService {
         log.info("Creating new product: {}", request.getName());
         Product product = Product.builder()
                 .name(request.getName())
-                .price(request.getPrice())
+                .price(Money.of(request.getPrice()))
                 .description(request.getDescription())
                 .category(request.getCategory())
                 .image(request.getImage())
@@ -74,8 +77,11 @@ public class ProductService {
                 .rating(0.0)
                 .reviews(0)
                 .isActive(true)
+                .lowStockThreshold(request.getLowStockThreshold())
                 .build();
         product = productRepository.save(product);
+        stockMonitor.stockChanged(product);
+        dashboardStatsService.increment(DashboardStatsService.Counter.ACTIVE_PRODUCTS, 1);
         return ProductDto.fromEntity(product);
     }
 
@@ -88,7 +94,7 @@ public class ProductService {
         if (request.getName() != null)
             product.setName(request.getName());
         if (request.getPrice() != null)
-            product.setPrice(request.getPrice());
+            product.setPrice(Money.of(request.getPrice()));
         if (request.getDescription() != null)
             product.setDescription(request.getDescription());
         if (request.getCategory() != null)
@@ -97,8 +103,17 @@ public class ProductService {
             product.setImage(request.getImage());
         if (request.getStock() != null)
             product.setStock(request.getStock());
+        if (request.getLowStockThreshold() != null)
+            product.setLowStockThreshold(request.getLowStockThreshold());
+
+        // Stock and threshold edits leave cart snapshots valid; anything a cart line shows does not
+        if (request.getName() != null || request.getPrice() != null || request.getCategory() != null
+                || request.getImage() != null) {
+            product.setCatalogVersion(product.getCatalogVersion() + 1);
+        }
 
         product = productRepository.save(product);
+        stockMonitor.stockChanged(product);
         return ProductDto.fromEntity(product);
     }
 
@@ -107,8 +122,13 @@ public class ProductService {
         log.info("Soft deleting product: {}", id);
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
-        product.setIsActive(false);
-        productRepository.save(product);
+        if (Boolean.TRUE.equals(product.getIsActive())) {
+            product.setIsActive(false);
+            product.setCatalogVersion(product.getCatalogVersion() + 1);
+            productRepository.save(product);
+            dashboardStatsService.increment(DashboardStatsService.Counter.ACTIVE_PRODUCTS, -1);
+            stockMonitor.stockChanged(product);
+        }
     }
 
     // Internal use - get entity for order processing
@@ -118,9 +138,4 @@ public class ProductService {
                 .filter(Product::getIsActive)
                 .orElseThrow(() -> new ResourceNotFoundException("Product", "id", id));
     }
-
-    @Transactional(readOnly = true)
-    public long countActiveProducts() {
-        return productRepository.findByIsActiveTrue().size();
-    }
 }
@@ -0,0 +1,188 @@
+package com.ayustore.service;
+
+import com.ayustore.entity.Money;
+import com.ayustore.entity.Promotion;
+import com.ayustore.exception.BadRequestException;
+import com.ayustore.repository.PromotionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Promotions are compiled into an immutable rule set that is swapped atomically on every
+// admin edit, so pricing a cart is pure in-memory work with no database access. All
+// arithmetic is on long paise; Money objects are only created for the final result.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PromotionEngine {
+
+    private final PromotionRepository promotionRepository;
+
+    private final AtomicReference<CompiledPromotions> compiled =
+            new AtomicReference<>(new CompiledPromotions(List.of(), Map.of()));
+
+    public record PricingLine(Long productId, String category, long unitPricePaise, int quantity) {
+
+        long lineTotalPaise() {
+            return Math.multiplyExact(unitPricePaise, quantity);
+        }
+    }
+
+    public record PricingResult(Money subtotal, Money discount, Money total,
+            Long promotionId, String promotionName, String couponCode, Integer perUserLimit) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.promotions.refresh-interval-ms:60000}",
+            initialDelayString = "${app.promotions.refresh-interval-ms:60000}")
+    public void reload() {
+        List<Promotion> promotions = promotionRepository.findByIsActiveTrue();
+        List<Rule> automatic = new ArrayList<>();
+        Map<String, Rule> byCode = new HashMap<>();
+        for (Promotion promotion : promotions) {
+            Rule rule = compile(promotion);
+            if (rule.code() == null) {
+                automatic.add(rule);
+            } else {
+                byCode.put(rule.code(), rule);
+            }
+        }
+        compiled.set(new CompiledPromotions(List.copyOf(automatic), Map.copyOf(byCode)));
+        log.debug("Compiled {} automatic and {} coupon promotions", automatic.size(), byCode.size());
+    }
+
+    public PricingResult price(List<PricingLine> lines, String couponCode) {
+        return price(lines, couponCode, Set.of());
+    }
+
+    // The single best applicable promotion wins; promotions do not stack
+    public PricingResult price(List<PricingLine> lines, String couponCode, Set<Long> excludedPromotionIds) {
+        CompiledPromotions rules = compiled.get();
+        LocalDateTime now = LocalDateTime.now();
+
+        long subtotal = 0;
+        for (PricingLine line : lines) {
+            subtotal = Math.addExact(subtotal, line.lineTotalPaise());
+        }
+
+        Rule best = null;
+        long bestDiscount = 0;
+        for (Rule rule : rules.automatic()) {
+            if (rule.isLive(now) && !excludedPromotionIds.contains(rule.id())) {
+                long discount = rule.discount(lines);
+                if (discount > bestDiscount) {
+                    best = rule;
+                    bestDiscount = discount;
+                }
+            }
+        }
+
+        if (couponCode != null && !couponCode.isBlank()) {
+            Rule coupon = rules.byCode().get(normalizeCode(couponCode));
+            if (coupon == null || !coupon.isLive(now)) {
+                throw new BadRequestException("Invalid or expired coupon code: " + couponCode);
+            }
+            if (!excludedPromotionIds.contains(coupon.id())) {
+                long discount = coupon.discount(lines);
+                if (discount > bestDiscount) {
+                    best = coupon;
+                    bestDiscount = discount;
+                }
+            }
+        }
+
+        long total = subtotal - bestDiscount;
+
+        if (best == null) {
+            return new PricingResult(Money.ofPaise(subtotal), Money.ZERO, Money.ofPaise(total),
+                    null, null, null, null);
+        }
+        return new PricingResult(Money.ofPaise(subtotal), Money.ofPaise(bestDiscount), Money.ofPaise(total),
+                best.id(), best.name(), best.code(), best.perUserLimit());
+    }
+
+    public static String normalizeCode(String code) {
+        return code == null ? null : code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    private Rule compile(Promotion promotion) {
+        Discount discount = switch (promotion.getType()) {
+            case PERCENTAGE -> {
+                long basisPoints = promotion.getPercentBasisPoints();
+                yield (eligibleSubtotal, lines) -> Money.percentageOf(eligibleSubtotal, basisPoints);
+            }
+            case FIXED -> {
+                long amount = promotion.getAmountOff().getPaise();
+                yield (eligibleSubtotal, lines) -> Math.min(amount, eligibleSubtotal);
+            }
+            case BUY_X_GET_Y -> {
+                int buy = promotion.getBuyQuantity();
+                int get = promotion.getGetQuantity();
+                int group = buy + get;
+                yield (eligibleSubtotal, lines) -> {
+                    long total = 0;
+                    for (PricingLine line : lines) {
+                        int free = (line.quantity() / group) * get;
+                        total += line.unitPricePaise() * free;
+                    }
+                    return total;
+                };
+            }
+        };
+
+        return new Rule(
+                promotion.getId(),
+                promotion.getName(),
+                normalizeCode(promotion.getCode()),
+                promotion.getCategory(),
+                promotion.getMinSubtotal() != null ? promotion.getMinSubtotal().getPaise() : 0,
+                promotion.getPerUserLimit(),
+                promotion.getStartsAt(),
+                promotion.getEndsAt(),
+                discount);
+    }
+
+    @FunctionalInterface
+    private interface Discount {
+        long apply(long eligibleSubtotal, List<PricingLine> eligibleLines);
+    }
+
+    private record Rule(Long id, String name, String code, String category, long minSubtotal,
+            Integer perUserLimit, LocalDateTime startsAt, LocalDateTime endsAt, Discount discount) {
+
+        boolean isLive(LocalDateTime now) {
+            return (startsAt == null || !now.isBefore(startsAt)) && (endsAt == null || now.isBefore(endsAt));
+        }
+
+        long discount(List<PricingLine> lines) {
+            List<PricingLine> eligible = lines;
+            if (category != null) {
+                eligible = new ArrayList<>(lines.size());
+                for (PricingLine line : lines) {
+                    if (category.equalsIgnoreCase(line.category())) {
+                        eligible.add(line);
+                    }
+                }
+            }
+
+            long eligibleSubtotal = 0;
+            for (PricingLine line : eligible) {
+                eligibleSubtotal += line.lineTotalPaise();
+            }
+            if (eligibleSubtotal == 0 || eligibleSubtotal < minSubtotal) {
+                return 0;
+            }
+            return discount.apply(eligibleSubtotal, eligible);
+        }
+    }
+
+    private record CompiledPromotions(List<Rule> automatic, Map<String, Rule> byCode) {
+    }
+}
@@ -0,0 +1,143 @@
+package com.ayustore.service;
+
+import com.ayustore.dto.CreatePromotionRequest;
+import com.ayustore.dto.PromotionDto;
+import com.ayustore.entity.Money;
+import com.ayustore.entity.Promotion;
+import com.ayustore.exception.BadRequestException;
+import com.ayustore.exception.ResourceNotFoundException;
+import com.ayustore.repository.PromotionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PromotionService {
+
+    private final PromotionRepository promotionRepository;
+    private final PromotionEngine promotionEngine;
+
+    @Transactional(readOnly = true)
+    public List<PromotionDto> getAllPromotions() {
+        log.info("Fetching all promotions");
+        return promotionRepository.findAll().stream()
+                .map(PromotionDto::fromEntity)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public PromotionDto createPromotion(CreatePromotionRequest request) {
+        log.info("Creating promotion: {}", request.getName());
+        String code = PromotionEngine.normalizeCode(request.getCode());
+        if (code != null && promotionRepository.existsByCodeIgnoreCase(code)) {
+            throw new BadRequestException("A promotion with this code already exists");
+        }
+
+        Promotion promotion = new Promotion();
+        applyRequest(promotion, request);
+        promotion.setCode(code);
+        promotion.setIsActive(request.getActive() == null || request.getActive());
+        validate(promotion);
+
+        promotion = promotionRepository.save(promotion);
+        recompileAfterCommit();
+        return PromotionDto.fromEntity(promotion);
+    }
+
+    @Transactional
+    public PromotionDto updatePromotion(Long id, CreatePromotionRequest request) {
+        log.info("Updating promotion: {}", id);
+        Promotion promotion = promotionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Promotion", "id", id));
+
+        applyRequest(promotion, request);
+        if (request.getCode() != null) {
+            String code = PromotionEngine.normalizeCode(request.getCode());
+            if (code != null && promotionRepository.existsByCodeIgnoreCaseAndIdNot(code, id)) {
+                throw new BadRequestException("A promotion with this code already exists");
+            }
+            promotion.setCode(code);
+        }
+        if (request.getActive() != null) {
+            promotion.setIsActive(request.getActive());
+        }
+        validate(promotion);
+
+        promotion = promotionRepository.save(promotion);
+        recompileAfterCommit();
+        return PromotionDto.fromEntity(promotion);
+    }
+
+    @Transactional
+    public void deletePromotion(Long id) {
+        log.info("Deactivating promotion: {}", id);
+        Promotion promotion = promotionRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Promotion", "id", id));
+        promotion.setIsActive(false);
+        promotionRepository.save(promotion);
+        recompileAfterCommit();
+    }
+
+    private void applyRequest(Promotion promotion, CreatePromotionRequest request) {
+        if (request.getName() != null)
+            promotion.setName(request.getName());
+        if (request.getType() != null)
+            promotion.setType(request.getType());
+        if (request.getAmountOff() != null)
+            promotion.setAmountOff(Money.of(request.getAmountOff()));
+        if (request.getPercentOff() != null)
+            promotion.setPercentBasisPoints(request.getPercentOff().movePointRight(2).intValueExact());
+        if (request.getBuyQuantity() != null)
+            promotion.setBuyQuantity(request.getBuyQuantity());
+        if (request.getGetQuantity() != null)
+            promotion.setGetQuantity(request.getGetQuantity());
+        if (request.getCategory() != null)
+            promotion.setCategory(request.getCategory().isBlank() ? null : request.getCategory());
+        if (request.getMinSubtotal() != null)
+            promotion.setMinSubtotal(Money.of(request.getMinSubtotal()));
+        if (request.getPerUserLimit() != null)
+            promotion.setPerUserLimit(request.getPerUserLimit());
+        if (request.getStartsAt() != null)
+            promotion.setStartsAt(request.getStartsAt());
+        if (request.getEndsAt() != null)
+            promotion.setEndsAt(request.getEndsAt());
+    }
+
+    private void validate(Promotion promotion) {
+        switch (promotion.getType()) {
+            case PERCENTAGE -> {
+                if (promotion.getPercentBasisPoints() == null) {
+                    throw new BadRequestException("Percentage promotions need a percent off between 0 and 100");
+                }
+            }
+            case FIXED -> {
+                if (promotion.getAmountOff() == null) {
+                    throw new BadRequestException("Fixed promotions need an amount off");
+                }
+            }
+            case BUY_X_GET_Y -> {
+                if (promotion.getBuyQuantity() == null || promotion.getGetQuantity() == null) {
+                    throw new BadRequestException("Buy-X-get-Y promotions need buy and get quantities");
+                }
+            }
+        }
+    }
+
+    // Other nodes pick the change up on the engine's periodic refresh
+    private void recompileAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                promotionEngine.reload();
+            }
+        });
+    }
+}
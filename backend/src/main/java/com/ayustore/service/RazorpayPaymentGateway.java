@@ -0,0 +1,104 @@
+package com.ayustore.service;
+
+import com.ayustore.config.RazorpayConfig;
+import com.ayustore.exception.PaymentException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+
+// Minimal Razorpay Orders API client. Calls are blocking and are expected to run on the
+// PaymentGatewayExecutor bulkhead, never on a request thread holding a database connection.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.payments.gateway.provider", havingValue = "razorpay", matchIfMissing = true)
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final String baseUrl;
+    private final String authorization;
+    private final Duration requestTimeout;
+
+    public RazorpayPaymentGateway(HttpClient razorpayHttpClient, ObjectMapper objectMapper, RazorpayConfig razorpayConfig,
+            @Value("${app.payments.gateway.timeout-ms:5000}") long timeoutMs) {
+        this.httpClient = razorpayHttpClient;
+        this.objectMapper = objectMapper;
+        this.baseUrl = razorpayConfig.getBaseUrl();
+        this.authorization = "Basic " + Base64.getEncoder().encodeToString(
+                (razorpayConfig.getKeyId() + ":" + razorpayConfig.getKeySecret()).getBytes(StandardCharsets.UTF_8));
+        this.requestTimeout = Duration.ofMillis(timeoutMs);
+    }
+
+    @Override
+    public String createOrder(long amountInPaise, String currency, String receipt) {
+        Map<String, Object> body = Map.of(
+                "amount", amountInPaise,
+                "currency", currency,
+                "receipt", receipt);
+        JsonNode response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/v1/orders"))
+                .POST(HttpRequest.BodyPublishers.ofString(toJson(body))));
+        return response.path("id").asText();
+    }
+
+    @Override
+    public String fetchOrderStatus(String razorpayOrderId) {
+        JsonNode response = send(HttpRequest.newBuilder(URI.create(baseUrl + "/v1/orders/" + razorpayOrderId))
+                .GET());
+        return response.path("status").asText();
+    }
+
+    @Override
+    public String fetchCapturedPaymentId(String razorpayOrderId) {
+        JsonNode response = send(HttpRequest.newBuilder(
+                URI.create(baseUrl + "/v1/orders/" + razorpayOrderId + "/payments")).GET());
+        for (JsonNode payment : response.path("items")) {
+            if ("captured".equals(payment.path("status").asText())) {
+                return payment.path("id").asText();
+            }
+        }
+        return null;
+    }
+
+    private JsonNode send(HttpRequest.Builder builder) {
+        HttpRequest request = builder
+                .timeout(requestTimeout)
+                .header("Authorization", authorization)
+                .header("Content-Type", "application/json")
+                .build();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() / 100 != 2) {
+                log.error("Razorpay {} {} returned {}: {}", request.method(), request.uri().getPath(),
+                        response.statusCode(), response.body());
+                throw new PaymentException("Payment gateway returned status " + response.statusCode());
+            }
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            throw new PaymentException("Payment gateway request failed: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException("Payment gateway request interrupted", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (IOException e) {
+            throw new PaymentException("Could not encode payment gateway request", e);
+        }
+    }
+}
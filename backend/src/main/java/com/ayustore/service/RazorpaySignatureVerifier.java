@@ -0,0 +1,78 @@
+package com.ayustore.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+// Keyed HmacSHA256 instances are pooled per thread: Mac.getInstance and init are far more
+// expensive than the digest itself, and a Mac is not safe to share across threads.
+@Slf4j
+@Component
+public class RazorpaySignatureVerifier {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final ThreadLocal<Mac> paymentMac;
+    private final ThreadLocal<Mac> webhookMac;
+
+    public RazorpaySignatureVerifier(@Value("${app.razorpay.key-secret}") String keySecret,
+            @Value("${app.razorpay.webhook-secret:}") String webhookSecret) {
+        this.paymentMac = keyedMac(keySecret);
+        this.webhookMac = webhookSecret.isBlank() ? null : keyedMac(webhookSecret);
+        if (webhookMac == null) {
+            log.warn("app.razorpay.webhook-secret is not set; Razorpay webhooks will be rejected");
+        }
+    }
+
+    // Checkout handler signature over "order_id|payment_id", signed with the API key secret
+    public boolean isValidPaymentSignature(String razorpayOrderId, String razorpayPaymentId, String signature) {
+        return matches(paymentMac, razorpayOrderId + "|" + razorpayPaymentId, signature);
+    }
+
+    // Webhook signature over the raw request body, signed with the webhook secret
+    public boolean isValidWebhookSignature(String body, String signature) {
+        return webhookMac != null && matches(webhookMac, body, signature);
+    }
+
+    // Signing counterparts, used by the simulated gateway so its callbacks pass real verification
+    String signPayment(String razorpayOrderId, String razorpayPaymentId) {
+        return sign(paymentMac, razorpayOrderId + "|" + razorpayPaymentId);
+    }
+
+    String signWebhook(String body) {
+        return webhookMac != null ? sign(webhookMac, body) : null;
+    }
+
+    private boolean matches(ThreadLocal<Mac> mac, String data, String signature) {
+        if (signature == null) {
+            return false;
+        }
+        byte[] expected = sign(mac, data).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    // doFinal resets the Mac, so the pooled instance is ready for the next call
+    private String sign(ThreadLocal<Mac> mac, String data) {
+        return HexFormat.of().formatHex(mac.get().doFinal(data.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static ThreadLocal<Mac> keyedMac(String secret) {
+        SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+        return ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HmacSHA256 is not available", e);
+            }
+        });
+    }
+}
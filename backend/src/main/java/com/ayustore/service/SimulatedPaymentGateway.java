@@ -0,0 +1,168 @@
+package com.ayustore.service;
+
+import com.ayustore.dto.VerifyPaymentRequest;
+import com.ayustore.exception.PaymentException;
+import com.ayustore.exception.ResourceNotFoundException;
+import com.ayustore.exception.ServiceUnavailableException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-process stand-in for Razorpay, enabled with app.payments.gateway.provider=simulated, for
+// load testing checkout end to end without the real gateway. Latency is a fixed floor plus an
+// exponential tail, failures are drawn independently per call, and simulated payments are signed
+// with the configured key and webhook secrets so they go through the normal verification paths.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.payments.gateway.provider", havingValue = "simulated")
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private static final String STATUS_CREATED = "created";
+    private static final String STATUS_ATTEMPTED = "attempted";
+    private static final String STATUS_PAID = "paid";
+
+    private final RazorpaySignatureVerifier signatureVerifier;
+    private final PaymentWebhookService paymentWebhookService;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Cache<String, SimulatedOrder> orders = Caffeine.newBuilder()
+            .expireAfterWrite(Duration.ofHours(1))
+            .maximumSize(2_000_000)
+            .build();
+
+    @Value("${app.payments.simulated.min-latency-ms:20}")
+    private long minLatencyMs;
+
+    @Value("${app.payments.simulated.mean-latency-ms:60}")
+    private long meanLatencyMs;
+
+    @Value("${app.payments.simulated.failure-rate:0.0}")
+    private double failureRate;
+
+    @Value("${app.payments.simulated.payment-failure-rate:0.05}")
+    private double paymentFailureRate;
+
+    @Value("${app.payments.simulated.deliver-webhooks:true}")
+    private boolean deliverWebhooks;
+
+    public SimulatedPaymentGateway(RazorpaySignatureVerifier signatureVerifier,
+            PaymentWebhookService paymentWebhookService, ObjectMapper objectMapper) {
+        this.signatureVerifier = signatureVerifier;
+        this.paymentWebhookService = paymentWebhookService;
+        this.objectMapper = objectMapper;
+        log.warn("Using the SIMULATED payment gateway; no real payments will be taken");
+    }
+
+    private static final class SimulatedOrder {
+        final long amountInPaise;
+        volatile String status = STATUS_CREATED;
+        volatile String capturedPaymentId;
+
+        SimulatedOrder(long amountInPaise) {
+            this.amountInPaise = amountInPaise;
+        }
+    }
+
+    @Override
+    public String createOrder(long amountInPaise, String currency, String receipt) {
+        simulateNetwork("createOrder");
+        String id = "order_sim" + Long.toString(System.currentTimeMillis(), 36) + sequence.incrementAndGet();
+        orders.put(id, new SimulatedOrder(amountInPaise));
+        return id;
+    }
+
+    @Override
+    public String fetchOrderStatus(String gatewayOrderId) {
+        simulateNetwork("fetchOrderStatus");
+        SimulatedOrder order = orders.getIfPresent(gatewayOrderId);
+        if (order == null) {
+            throw new PaymentException("Payment gateway returned status 404");
+        }
+        return order.status;
+    }
+
+    @Override
+    public String fetchCapturedPaymentId(String gatewayOrderId) {
+        simulateNetwork("fetchCapturedPaymentId");
+        SimulatedOrder order = orders.getIfPresent(gatewayOrderId);
+        if (order == null) {
+            throw new PaymentException("Payment gateway returned status 404");
+        }
+        return order.capturedPaymentId;
+    }
+
+    // Plays the customer's side of checkout: returns the signed handler response the browser would
+    // post to /verify, and also emits the matching webhook when a webhook secret is configured
+    public VerifyPaymentRequest pay(String gatewayOrderId) {
+        SimulatedOrder order = orders.getIfPresent(gatewayOrderId);
+        if (order == null) {
+            throw new ResourceNotFoundException("Simulated order", "id", gatewayOrderId);
+        }
+        simulateNetwork("pay");
+
+        String paymentId = "pay_sim" + Long.toString(System.currentTimeMillis(), 36) + sequence.incrementAndGet();
+        boolean declined = ThreadLocalRandom.current().nextDouble() < paymentFailureRate;
+        if (!declined) {
+            order.capturedPaymentId = paymentId;
+        }
+        order.status = declined ? STATUS_ATTEMPTED : STATUS_PAID;
+        deliverWebhook(declined ? "payment.failed" : "payment.captured", gatewayOrderId, paymentId, order);
+
+        if (declined) {
+            throw new PaymentException("Simulated payment declined");
+        }
+        return VerifyPaymentRequest.builder()
+                .razorpayOrderId(gatewayOrderId)
+                .razorpayPaymentId(paymentId)
+                .razorpaySignature(signatureVerifier.signPayment(gatewayOrderId, paymentId))
+                .build();
+    }
+
+    private void deliverWebhook(String event, String gatewayOrderId, String paymentId, SimulatedOrder order) {
+        if (!deliverWebhooks) {
+            return;
+        }
+        try {
+            String body = objectMapper.writeValueAsString(Map.of(
+                    "event", event,
+                    "payload", Map.of("payment", Map.of("entity", Map.of(
+                            "id", paymentId,
+                            "order_id", gatewayOrderId,
+                            "amount", order.amountInPaise,
+                            "status", STATUS_PAID.equals(order.status) ? "captured" : "failed")))));
+            String signature = signatureVerifier.signWebhook(body);
+            if (signature != null) {
+                paymentWebhookService.enqueue(body, signature, "evt_sim" + sequence.incrementAndGet());
+            }
+        } catch (JsonProcessingException e) {
+            log.warn("Could not build simulated webhook: {}", e.getMessage());
+        }
+    }
+
+    private void simulateNetwork(String operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long tailMs = meanLatencyMs > minLatencyMs
+                ? (long) (-Math.log(1 - random.nextDouble()) * (meanLatencyMs - minLatencyMs))
+                : 0;
+        try {
+            TimeUnit.MILLISECONDS.sleep(minLatencyMs + tailMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted during simulated " + operation);
+        }
+        if (random.nextDouble() < failureRate) {
+            throw new PaymentException("Simulated gateway failure during " + operation);
+        }
+    }
+}
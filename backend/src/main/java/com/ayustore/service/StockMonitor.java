@@ -0,0 +1,275 @@
+package com.ayustore.service;
+
+import com.ayustore.config.InventoryProperties;
+import com.ayustore.dto.LowStockItemDto;
+import com.ayustore.entity.Product;
+import com.ayustore.repository.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+// Tracks every active product's stock and keeps the ones at or below their threshold in urgency
+// order. Writers only queue an event after their transaction commits (sales pass the decrement and
+// the version their update returned, so no row is read); a background drain applies the events
+// and republishes the list. A periodic rebuild from the database folds in other nodes' changes.
+// Every event carries the product version its write produced, and each product keeps the version
+// of its last absolute stock plus the decrements committed after it, so an event the rebuild's read
+// already reflects is dropped instead of applied twice, and one committed after it is kept.
+@Slf4j
+@Service
+public class StockMonitor {
+
+    private final ProductRepository productRepository;
+    private final InventoryProperties properties;
+    private final ConcurrentLinkedQueue<StockEvent> events = new ConcurrentLinkedQueue<>();
+
+    // Guarded by this
+    private final Map<Long, Sku> skus = new HashMap<>();
+    private final Map<Long, Ledger> ledgers = new HashMap<>();
+    private final TreeSet<Sku> lowStock = new TreeSet<>(this::compareUrgency);
+    private volatile List<LowStockItemDto> snapshot = List.of();
+
+    private record Sku(long id, String name, String category, int stock, Integer ownThreshold) {
+
+        Sku withStock(int newStock) {
+            return new Sku(id, name, category, newStock, ownThreshold);
+        }
+    }
+
+    // Either an absolute state (sku, or removed) or a delta against the last known stock, tagged with
+    // the product version the write produced
+    private record StockEvent(long productId, Sku sku, boolean removed, int delta, long version) {
+    }
+
+    // Last absolute stock and its version, plus the deltas committed at later versions. A removed
+    // product keeps a tombstone until a rebuild no longer sees it, so a read that raced the removal
+    // cannot bring it back.
+    private static final class Ledger {
+        private final int baseStock;
+        private final long baseVersion;
+        private final boolean removed;
+        private final TreeMap<Long, Integer> deltas = new TreeMap<>();
+
+        Ledger(int baseStock, long baseVersion) {
+            this(baseStock, baseVersion, false);
+        }
+
+        private Ledger(int baseStock, long baseVersion, boolean removed) {
+            this.baseStock = baseStock;
+            this.baseVersion = baseVersion;
+            this.removed = removed;
+        }
+
+        static Ledger tombstone(long version) {
+            return new Ledger(0, version, true);
+        }
+
+        // A new absolute state; deltas it already includes are dropped
+        Ledger rebase(int stock, long version) {
+            Ledger next = new Ledger(stock, version);
+            next.deltas.putAll(deltas.tailMap(version, false));
+            return next;
+        }
+
+        boolean reflects(long version) {
+            return version <= baseVersion || deltas.containsKey(version);
+        }
+
+        int stock() {
+            int stock = baseStock;
+            for (int delta : deltas.values()) {
+                stock += delta;
+            }
+            return stock;
+        }
+    }
+
+    public StockMonitor(ProductRepository productRepository, InventoryProperties properties) {
+        this.productRepository = productRepository;
+        this.properties = properties;
+    }
+
+    // Most urgent first: out of stock, then lowest stock relative to threshold
+    public List<LowStockItemDto> getLowStock(int limit) {
+        List<LowStockItemDto> current = snapshot;
+        return current.subList(0, Math.min(Math.max(limit, 0), current.size()));
+    }
+
+    // The event is built after commit, once the flush has bumped the product's version
+    public void stockChanged(Product product) {
+        afterCommit(() -> {
+            long version = product.getVersion() != null ? product.getVersion() : 0;
+            return Boolean.TRUE.equals(product.getIsActive())
+                    ? new StockEvent(product.getId(), new Sku(product.getId(), product.getName(),
+                            product.getCategory(), product.getStock() != null ? product.getStock() : 0,
+                            product.getLowStockThreshold()), false, 0, version)
+                    : new StockEvent(product.getId(), null, true, 0, version);
+        });
+    }
+
+    // newVersion is the version the stock update returned
+    public void stockDecremented(Long productId, int quantity, long newVersion) {
+        afterCommit(() -> new StockEvent(productId, null, false, -quantity, newVersion));
+    }
+
+    private void afterCommit(Supplier<StockEvent> event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            events.add(event.get());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                events.add(event.get());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.low-stock.drain-interval-ms:1000}")
+    public void drain() {
+        if (events.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            applyQueued();
+            publish();
+        }
+    }
+
+    // Guarded by this
+    private void applyQueued() {
+        StockEvent event;
+        while ((event = events.poll()) != null) {
+            apply(event);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.inventory.low-stock.rebuild-interval-ms:300000}",
+            initialDelayString = "${app.inventory.low-stock.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        List<Object[]> rows = productRepository.findActiveStockLevels();
+        synchronized (this) {
+            // Whatever was queued meanwhile goes into the old ledgers first; rebasing each product onto
+            // the version just read then keeps only the deltas the read did not see
+            applyQueued();
+            Map<Long, Ledger> previousLedgers = new HashMap<>(ledgers);
+            skus.clear();
+            ledgers.clear();
+            lowStock.clear();
+            for (Object[] row : rows) {
+                long id = (Long) row[0];
+                int stock = row[3] != null ? (Integer) row[3] : 0;
+                long version = row[5] != null ? (Long) row[5] : 0;
+                Ledger previous = previousLedgers.get(id);
+                if (previous != null && previous.removed && previous.reflects(version)) {
+                    ledgers.put(id, previous);
+                    continue;
+                }
+                Ledger ledger = previous != null ? previous.rebase(stock, version) : new Ledger(stock, version);
+                Sku sku = new Sku(id, (String) row[1], (String) row[2], ledger.stock(), (Integer) row[4]);
+                ledgers.put(id, ledger);
+                skus.put(id, sku);
+                if (isLow(sku)) {
+                    lowStock.add(sku);
+                }
+            }
+            publish();
+        }
+        log.debug("Rebuilt stock monitor: {} products, {} low", rows.size(), snapshot.size());
+    }
+
+    private void apply(StockEvent event) {
+        Sku previous = skus.get(event.productId());
+        Ledger ledger = ledgers.get(event.productId());
+        // Already part of the stock we hold: the rebuild read it, or it arrived twice
+        if (ledger != null && ledger.reflects(event.version())) {
+            return;
+        }
+
+        Sku next;
+        if (event.removed()) {
+            next = null;
+        } else if (event.sku() != null) {
+            ledger = ledger != null
+                    ? ledger.rebase(event.sku().stock(), event.version())
+                    : new Ledger(event.sku().stock(), event.version());
+            next = event.sku().withStock(ledger.stock());
+        } else if (previous != null && ledger != null) {
+            ledger.deltas.put(event.version(), event.delta());
+            next = previous.withStock(ledger.stock());
+        } else {
+            // Not known here yet (e.g. created on another node); the next rebuild picks it up
+            return;
+        }
+
+        if (previous != null) {
+            lowStock.remove(previous);
+        }
+        if (next == null) {
+            skus.remove(event.productId());
+            ledgers.put(event.productId(), Ledger.tombstone(event.version()));
+            return;
+        }
+        ledgers.put(next.id(), ledger);
+        skus.put(next.id(), next);
+        if (isLow(next)) {
+            lowStock.add(next);
+            if (next.stock() <= 0 && (previous == null || previous.stock() > 0)) {
+                log.warn("Out of stock: product {} ({})", next.id(), next.name());
+            } else if (previous == null || !isLow(previous)) {
+                log.warn("Low stock: product {} ({}) has {} left, threshold {}", next.id(), next.name(),
+                        next.stock(), threshold(next));
+            }
+        }
+    }
+
+    private void publish() {
+        List<LowStockItemDto> items = new ArrayList<>(lowStock.size());
+        for (Sku sku : lowStock) {
+            items.add(LowStockItemDto.builder()
+                    .productId(sku.id())
+                    .name(sku.name())
+                    .category(sku.category())
+                    .stock(sku.stock())
+                    .threshold(threshold(sku))
+                    .outOfStock(sku.stock() <= 0)
+                    .build());
+        }
+        snapshot = List.copyOf(items);
+    }
+
+    private boolean isLow(Sku sku) {
+        return sku.stock() <= threshold(sku);
+    }
+
+    private int threshold(Sku sku) {
+        if (sku.ownThreshold() != null) {
+            return sku.ownThreshold();
+        }
+        Integer categoryThreshold = sku.category() != null ? properties.getCategoryThresholds().get(sku.category()) : null;
+        return categoryThreshold != null ? categoryThreshold : properties.getDefaultThreshold();
+    }
+
+    private int compareUrgency(Sku a, Sku b) {
+        int byEmpty = Boolean.compare(b.stock() <= 0, a.stock() <= 0);
+        if (byEmpty != 0) {
+            return byEmpty;
+        }
+        int byRatio = Double.compare((double) a.stock() / Math.max(1, threshold(a)),
+                (double) b.stock() / Math.max(1, threshold(b)));
+        if (byRatio != 0) {
+            return byRatio;
+        }
+        int byStock = Integer.compare(a.stock(), b.stock());
+        return byStock != 0 ? byStock : Long.compare(a.id(), b.id());
+    }
+}
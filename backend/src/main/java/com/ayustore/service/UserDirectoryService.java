@@ -0,0 +1,140 @@
+package com.ayustore.service;
+
+import com.ayustore.dto.AdminUserDto;
+import com.ayustore.dto.CursorPage;
+import com.ayustore.entity.User;
+import com.ayustore.entity.UserOrderStats;
+import com.ayustore.exception.BadRequestException;
+import com.ayustore.repository.OrderRepository;
+import com.ayustore.repository.UserOrderStatsRepository;
+import com.ayustore.repository.UserRepository;
+import jakarta.persistence.criteria.Predicate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Admin user listing. Keyset pagination on (createdAt, id) keeps every page an index range scan no
+// matter how deep the admin pages; the prefix search and ordering indexes are created by the
+// db/migration scripts.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserDirectoryService {
+
+    public enum Provider {
+        GOOGLE, PASSWORD
+    }
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdAt"), Sort.Order.desc("id"));
+
+    private final UserRepository userRepository;
+    private final UserOrderStatsRepository userOrderStatsRepository;
+    private final OrderRepository orderRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private record Cursor(LocalDateTime createdAt, UUID id) {
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<AdminUserDto> listUsers(String cursor, int size, User.Role role, Provider provider,
+            LocalDateTime createdFrom, LocalDateTime createdTo, String search) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Cursor after = cursor != null && !cursor.isBlank() ? decode(cursor) : null;
+        String prefix = search != null && !search.isBlank() ? likePrefix(search.trim()) : null;
+
+        Specification<User> spec = (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (role != null) {
+                predicates.add(cb.equal(root.get("role"), role));
+            }
+            if (provider == Provider.GOOGLE) {
+                predicates.add(cb.isNotNull(root.get("googleId")));
+            } else if (provider == Provider.PASSWORD) {
+                predicates.add(cb.isNull(root.get("googleId")));
+            }
+            if (createdFrom != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), createdFrom));
+            }
+            if (createdTo != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), createdTo));
+            }
+            if (prefix != null) {
+                // lower(...) LIKE 'abc%' matches the text_pattern_ops expression indexes
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("email")), prefix, '\\'),
+                        cb.like(cb.lower(root.get("name")), prefix, '\\')));
+            }
+            if (after != null) {
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("createdAt"), after.createdAt()),
+                        cb.and(cb.equal(root.get("createdAt"), after.createdAt()),
+                                cb.lessThan(root.<UUID>get("id"), after.id()))));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+
+        // One extra row tells us whether another page exists without a COUNT
+        List<User> users = userRepository.findBy(spec, query -> query.sortBy(NEWEST_FIRST).limit(pageSize + 1).all());
+        boolean hasMore = users.size() > pageSize;
+        List<User> page = hasMore ? users.subList(0, pageSize) : users;
+
+        Map<UUID, UserOrderStats> stats = userOrderStatsRepository
+                .findAllById(page.stream().map(User::getId).toList()).stream()
+                .collect(Collectors.toMap(UserOrderStats::getUserId, Function.identity()));
+
+        User last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return CursorPage.<AdminUserDto>builder()
+                .items(page.stream()
+                        .map(user -> AdminUserDto.fromEntity(user, stats.get(user.getId())))
+                        .toList())
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? encode(new Cursor(last.getCreatedAt(), last.getId())) : null)
+                .build();
+    }
+
+    // Seeds the per-user aggregates the first time this runs against existing orders
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOrderStats() {
+        if (userOrderStatsRepository.count() == 0 && orderRepository.count() > 0) {
+            Integer users = transactionTemplate.execute(status -> userOrderStatsRepository.rebuildAll());
+            log.info("Backfilled order stats for {} users", users);
+        }
+    }
+
+    private static String likePrefix(String search) {
+        return search.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
+    }
+
+    private static String encode(Cursor cursor) {
+        String raw = cursor.createdAt() + "|" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException | StringIndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -7,17 +7,21 @@ import com.ayustore.entity.User;
 import com.ayustore.exception.ResourceNotFoundException;
 import com.ayustore.repository.UserRepository;
 import com.ayustore.security.JwtTokenProvider;
+import com.ayustore.security.PasswordHasher;
+import com.ayustore.security.RefreshTokenService;
+import com.ayustore.security.TokenRevocationService;
+import com.ayustore.security.TokenVersionCache;
 import com.ayustore.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -26,9 +30,15 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final JwtTokenProvider jwtTokenProvider;
-    private final PasswordEncoder passwordEncoder;
-
-    @Transactional
+    private final PasswordHasher passwordHasher;
+    private final CurrentUserContext currentUserContext;
+    private final TokenVersionCache tokenVersionCache;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
+    private final DashboardStatsService dashboardStatsService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Not @Transactional: no connection is held while the password is hashed on the hashing pool
     public AuthResponse authenticateUser(String email, String password) {
         log.info("Authenticating user with email: {}", email);
 
@@ -39,19 +49,20 @@ public class UserService {
             throw new IllegalArgumentException("This account uses Google Sign-In. Please use 'Continue with Google'.");
         }
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHasher.matches(password, user.getPassword())) {
             throw new IllegalArgumentException("Invalid email or password");
         }
 
-        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole().name());
+        // Transparently re-hash at the current cost now that we know the plaintext
+        if (passwordHasher.needsUpgrade(user.getPassword())) {
+            user.setPassword(passwordHasher.encode(password));
+            user = userRepository.save(user);
+            log.info("Upgraded password hash for user: {}", user.getEmail());
+        }
 
-        return AuthResponse.builder()
-                .token(token)
-                .user(UserDto.fromEntity(user))
-                .build();
+        return issueTokens(user);
     }
 
-    @Transactional
     public AuthResponse registerUser(RegisterRequest request) {
         log.info("Registering new user with email: {}", request.getEmail());
 
@@ -59,41 +70,88 @@ public class UserService {
             throw new IllegalArgumentException("An account with this email already exists");
         }
 
-        User user = User.builder()
+        User newUser = User.builder()
                 .name(request.getName())
                 .email(request.getEmail())
                 .phone(request.getPhone())
-                .password(passwordEncoder.encode(request.getPassword()))
+                .password(passwordHasher.encode(request.getPassword()))
                 .role(User.Role.USER)
                 .build();
 
-        user = userRepository.save(user);
+        // Hash first, then a short transaction for the insert and the user counter
+        User user = transactionTemplate.execute(status -> {
+            User saved = userRepository.save(newUser);
+            dashboardStatsService.increment(DashboardStatsService.Counter.USERS, 1);
+            return saved;
+        });
         log.info("User registered successfully: {}", user.getEmail());
 
-        String token = jwtTokenProvider.generateToken(user.getId(), user.getEmail(), user.getRole().name());
+        return issueTokens(user);
+    }
+
+    // Rotates the refresh token and mints a fresh access token from the user's current state,
+    // so role changes and revocations (token version bumps) take effect at the next refresh
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.RefreshGrant grant = refreshTokenService.consume(refreshToken);
+        if (grant == null) {
+            throw new BadCredentialsException("Invalid or expired refresh token");
+        }
+        User user = userRepository.findById(grant.userId())
+                .orElseThrow(() -> new BadCredentialsException("Invalid or expired refresh token"));
+        if (user.getTokenVersion() != grant.tokenVersion()) {
+            throw new BadCredentialsException("Session has been revoked, please sign in again");
+        }
+
+        return AuthResponse.builder()
+                .token(jwtTokenProvider.generateToken(user))
+                .refreshToken(refreshTokenService.rotate(grant, user.getTokenVersion()))
+                .expiresIn(jwtTokenProvider.getAccessTokenExpirationMs() / 1000)
+                .user(UserDto.fromEntity(user))
+                .build();
+    }
+
+    public void logout(String accessToken, String refreshToken) {
+        JwtTokenProvider.VerifiedToken verified = jwtTokenProvider.verify(accessToken);
+        if (verified != null) {
+            tokenRevocationService.revoke(verified.tokenId(), verified.expiresAtMillis());
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
 
+    private AuthResponse issueTokens(User user) {
         return AuthResponse.builder()
-                .token(token)
+                .token(jwtTokenProvider.generateToken(user))
+                .refreshToken(refreshTokenService.issue(user.getId(), user.getTokenVersion()))
+                .expiresIn(jwtTokenProvider.getAccessTokenExpirationMs() / 1000)
                 .user(UserDto.fromEntity(user))
                 .build();
     }
 
     public UserPrincipal getCurrentUserPrincipal() {
-        return (UserPrincipal) SecurityContextHolder.getContext()
-                .getAuthentication()
-                .getPrincipal();
+        return currentUserContext.getPrincipal();
     }
 
     @Transactional(readOnly = true)
     public User getCurrentUser() {
-        UserPrincipal principal = getCurrentUserPrincipal();
-        return userRepository.findById(principal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User", "id", principal.getId()));
+        return currentUserContext.getUser();
     }
 
+    // Served from the token claims; only tokens issued before profile claims existed fall back to the store
     @Transactional(readOnly = true)
     public UserDto getCurrentUserDto() {
-        return UserDto.fromEntity(getCurrentUser());
+        UserPrincipal principal = currentUserContext.getPrincipal();
+        if (principal.getName() == null) {
+            return UserDto.fromEntity(getCurrentUser());
+        }
+        return UserDto.builder()
+                .id(principal.getId().toString())
+                .name(principal.getName())
+                .email(principal.getEmail())
+                .role(principal.getRole().toLowerCase())
+                .avatar(principal.getAvatar())
+                .build();
     }
 
     @Transactional(readOnly = true)
@@ -102,25 +160,22 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", id));
     }
 
-    @Transactional(readOnly = true)
-    public List<UserDto> getAllUsers() {
-        log.info("Fetching all users");
-        return userRepository.findAll().stream()
-                .map(UserDto::fromEntity)
-                .collect(Collectors.toList());
-    }
-
-    @Transactional(readOnly = true)
-    public long countUsers() {
-        return userRepository.count();
-    }
-
     @Transactional
     public UserDto updateUserRole(UUID userId, User.Role newRole) {
         log.info("Updating role for user {} to {}", userId, newRole);
         User user = getUserById(userId);
-        user.setRole(newRole);
+        if (user.getRole() != newRole) {
+            user.setRole(newRole);
+            // Outstanding tokens still carry the old role; force the user to sign in again
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
         user = userRepository.save(user);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                tokenVersionCache.invalidate(userId);
+            }
+        });
         return UserDto.fromEntity(user);
     }
 }
@@ -0,0 +1,150 @@
+-- Schema as Hibernate created it before migrations were introduced. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and start from V2.
+
+CREATE TABLE users (
+    id            UUID         NOT NULL,
+    avatar        VARCHAR(255),
+    created_at    TIMESTAMP(6),
+    email         VARCHAR(255) NOT NULL UNIQUE,
+    google_id     VARCHAR(255) UNIQUE,
+    name          VARCHAR(255) NOT NULL,
+    password      VARCHAR(255),
+    phone         VARCHAR(255),
+    role          VARCHAR(255) NOT NULL CHECK (role IN ('USER', 'ADMIN')),
+    token_version INTEGER      DEFAULT 0 NOT NULL,
+    updated_at    TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE products (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    category            VARCHAR(255),
+    created_at          TIMESTAMP(6),
+    description         VARCHAR(2000),
+    image               VARCHAR(255),
+    is_active           BOOLEAN,
+    low_stock_threshold INTEGER,
+    name                VARCHAR(255)   NOT NULL,
+    price               NUMERIC(10, 2) NOT NULL,
+    rating              FLOAT(53),
+    reviews             INTEGER,
+    stock               INTEGER,
+    updated_at          TIMESTAMP(6),
+    version             BIGINT DEFAULT 0,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE orders (
+    id          UUID           NOT NULL,
+    archived    BOOLEAN        DEFAULT FALSE NOT NULL,
+    coupon_code VARCHAR(255),
+    created_at  TIMESTAMP(6),
+    discount    NUMERIC(10, 2) DEFAULT 0 NOT NULL,
+    address     VARCHAR(255),
+    city        VARCHAR(255),
+    country     VARCHAR(255),
+    first_name  VARCHAR(255),
+    last_name   VARCHAR(255),
+    zip_code    VARCHAR(255),
+    status      VARCHAR(255)   NOT NULL
+        CHECK (status IN ('PENDING', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    total       NUMERIC(10, 2) NOT NULL,
+    updated_at  TIMESTAMP(6),
+    user_id     UUID           NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE order_items (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    price_at_purchase NUMERIC(10, 2) NOT NULL,
+    product_image     VARCHAR(255),
+    product_name      VARCHAR(255),
+    quantity          INTEGER        NOT NULL,
+    order_id          UUID           NOT NULL,
+    product_id        BIGINT         NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE payments (
+    id                  UUID           NOT NULL,
+    amount              NUMERIC(10, 2) NOT NULL,
+    completed_at        TIMESTAMP(6),
+    created_at          TIMESTAMP(6),
+    razorpay_order_id   VARCHAR(255) UNIQUE,
+    razorpay_payment_id VARCHAR(255),
+    razorpay_signature  VARCHAR(255),
+    status              VARCHAR(255)   NOT NULL CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED', 'REFUNDED')),
+    order_id            UUID           NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE promotions (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    buy_quantity   INTEGER,
+    category       VARCHAR(255),
+    code           VARCHAR(255) UNIQUE,
+    created_at     TIMESTAMP(6),
+    ends_at        TIMESTAMP(6),
+    get_quantity   INTEGER,
+    is_active      BOOLEAN,
+    min_subtotal   NUMERIC(10, 2),
+    name           VARCHAR(255) NOT NULL,
+    per_user_limit INTEGER,
+    starts_at      TIMESTAMP(6),
+    type           VARCHAR(255) NOT NULL CHECK (type IN ('PERCENTAGE', 'FIXED', 'BUY_X_GET_Y')),
+    updated_at     TIMESTAMP(6),
+    value          NUMERIC(10, 2),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE promotion_redemptions (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    created_at   TIMESTAMP(6),
+    order_id     UUID   NOT NULL,
+    promotion_id BIGINT NOT NULL,
+    user_id      UUID   NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE dashboard_counters (
+    name          VARCHAR(32) NOT NULL,
+    shard         INTEGER     NOT NULL,
+    counter_value BIGINT      NOT NULL,
+    PRIMARY KEY (name, shard)
+);
+
+CREATE TABLE order_rollups (
+    bucket_start  TIMESTAMP(6) NOT NULL,
+    category      VARCHAR(255) NOT NULL,
+    granularity   VARCHAR(8)   NOT NULL CHECK (granularity IN ('HOUR', 'DAY')),
+    status        VARCHAR(16)  NOT NULL
+        CHECK (status IN ('PENDING', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    orders        BIGINT       NOT NULL,
+    revenue_paise BIGINT       NOT NULL,
+    PRIMARY KEY (bucket_start, category, granularity, status)
+);
+
+CREATE TABLE rollup_checkpoints (
+    name            VARCHAR(32)  NOT NULL,
+    generation      BIGINT       NOT NULL,
+    processed_until TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (name)
+);
+
+CREATE TABLE user_order_stats (
+    user_id              UUID   NOT NULL,
+    lifetime_value_paise BIGINT NOT NULL,
+    order_count          BIGINT NOT NULL,
+    PRIMARY KEY (user_id)
+);
+
+CREATE INDEX idx_orders_archived_created_at ON orders (archived, created_at);
+CREATE INDEX idx_orders_user_archived_created_at ON orders (user_id, archived, created_at);
+CREATE INDEX idx_orders_updated_at ON orders (updated_at);
+CREATE INDEX idx_orders_created_at ON orders (created_at);
+CREATE INDEX idx_promotion_redemptions_promotion_user ON promotion_redemptions (promotion_id, user_id);
+
+ALTER TABLE order_items ADD CONSTRAINT FKbioxgbv59vetrxe0ejfubep1w FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE order_items ADD CONSTRAINT FKocimc7dtr037rh4ls4l95nlfi FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE orders ADD CONSTRAINT FK32ql8ubntj5uh44ph9659tiih FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE payments ADD CONSTRAINT FK81gagumt0r8y3rmudcgpbk42l FOREIGN KEY (order_id) REFERENCES orders;
@@ -0,0 +1,36 @@
+-- flyway:executeInTransaction=false
+-- Indexes for the queries the repositories actually run, on top of the order and promotion indexes
+-- the V1 baseline creates. IF NOT EXISTS so a re-run after an interrupted build skips the ones done.
+-- CONCURRENTLY so building them on a populated database does not block writes; that cannot run in a
+-- transaction, hence the setting above (also in V2__workload_indexes.sql.conf, which is where
+-- Flyway 10 reads it from). If a build is interrupted it leaves an INVALID index that IF NOT EXISTS
+-- would skip: drop it with DROP INDEX CONCURRENTLY before repairing and re-running.
+
+-- Catalog: only active products are ever listed, so the indexes skip inactive rows
+-- findByCategoryAndIsActiveTrue, findAllCategories (index-only DISTINCT)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_active_category ON products (category)
+    WHERE is_active = TRUE;
+-- findByIsActiveTrue, countByIsActiveTrue and findActiveStockLevels are served by the primary key;
+-- a partial index on id would only duplicate it
+-- findByNameContainingIgnoreCaseAndIsActiveTrue: upper(name) LIKE upper('%term%') needs trigrams
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_active_name_trgm
+    ON products USING gin (upper(name) gin_trgm_ops) WHERE is_active = TRUE;
+
+-- Orders and order items are indexed on their partitioned parents in V3
+
+-- Reconciliation pages walk payments by id; pending ones are the bulk of what it looks for
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payments_pending_id ON payments (id)
+    WHERE status = 'PENDING' AND razorpay_order_id IS NOT NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payments_created_at ON payments (created_at);
+
+-- Analytics: deleteBuckets, insertDailyFromHourly, the hourly window of findRowsWrittenAfter
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_rollups_granularity_bucket
+    ON order_rollups (granularity, bucket_start);
+
+-- Admin user directory: keyset pagination newest first, optionally within a role
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_created_at_id ON users (created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_role_created_at_id ON users (role, created_at DESC, id DESC);
+-- Case-insensitive prefix search (lower(x) LIKE 'abc%')
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email_lower_prefix ON users (lower(email) text_pattern_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_name_lower_prefix ON users (lower(name) text_pattern_ops);
@@ -0,0 +1,127 @@
+-- Orders and their items become range-partitioned on created_at. Everything placed before this
+-- migration lands in one archive partition; from the current month on there is one partition per
+-- month, created ahead of time by ensure_order_partitions (OrderPartitionManager calls it on startup
+-- and then periodically). Default listings only ask for the hot window, so the planner prunes the
+-- archive and older months instead of filtering an archived flag row by row.
+
+-- The partition key must be present on every row
+UPDATE orders SET created_at = COALESCE(updated_at, now()) WHERE created_at IS NULL;
+
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+
+CREATE TABLE orders (
+    id          UUID           NOT NULL,
+    coupon_code VARCHAR(255),
+    created_at  TIMESTAMP(6)   NOT NULL,
+    discount    NUMERIC(10, 2) DEFAULT 0 NOT NULL,
+    address     VARCHAR(255),
+    city        VARCHAR(255),
+    country     VARCHAR(255),
+    first_name  VARCHAR(255),
+    last_name   VARCHAR(255),
+    zip_code    VARCHAR(255),
+    status      VARCHAR(255)   NOT NULL
+        CHECK (status IN ('PENDING', 'PROCESSING', 'SHIPPED', 'DELIVERED', 'CANCELLED')),
+    total       NUMERIC(10, 2) NOT NULL,
+    updated_at  TIMESTAMP(6),
+    user_id     UUID           NOT NULL
+) PARTITION BY RANGE (created_at);
+
+-- Items carry their order's created_at so they partition (and prune) alongside it
+CREATE TABLE order_items (
+    id                BIGINT         NOT NULL,
+    price_at_purchase NUMERIC(10, 2) NOT NULL,
+    product_image     VARCHAR(255),
+    product_name      VARCHAR(255),
+    quantity          INTEGER        NOT NULL,
+    order_id          UUID           NOT NULL,
+    order_created_at  TIMESTAMP(6)   NOT NULL,
+    product_id        BIGINT         NOT NULL
+) PARTITION BY RANGE (order_created_at);
+
+CREATE TABLE orders_archive PARTITION OF orders
+    FOR VALUES FROM (MINVALUE) TO (date_trunc('month', localtimestamp));
+CREATE TABLE order_items_archive PARTITION OF order_items
+    FOR VALUES FROM (MINVALUE) TO (date_trunc('month', localtimestamp));
+
+-- Creates the monthly partitions of both tables for [from_month, from_month + months); returns how
+-- many months were missing
+CREATE OR REPLACE FUNCTION ensure_order_partitions(from_month DATE, months INTEGER) RETURNS INTEGER
+    LANGUAGE plpgsql AS
+$$
+DECLARE
+    month_start DATE;
+    month_end   DATE;
+    suffix      TEXT;
+    created     INTEGER := 0;
+BEGIN
+    FOR i IN 0 .. months - 1 LOOP
+        month_start := (date_trunc('month', from_month) + make_interval(months => i))::date;
+        month_end := (month_start + INTERVAL '1 month')::date;
+        suffix := to_char(month_start, 'YYYYMM');
+        IF to_regclass('orders_p' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF orders FOR VALUES FROM (%L) TO (%L)',
+                           'orders_p' || suffix, month_start, month_end);
+            created := created + 1;
+        END IF;
+        IF to_regclass('order_items_p' || suffix) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF order_items FOR VALUES FROM (%L) TO (%L)',
+                           'order_items_p' || suffix, month_start, month_end);
+        END IF;
+    END LOOP;
+    RETURN created;
+END
+$$;
+
+SELECT ensure_order_partitions(CAST(date_trunc('month', localtimestamp) AS DATE), 3);
+
+INSERT INTO orders (id, coupon_code, created_at, discount, address, city, country, first_name, last_name,
+                    zip_code, status, total, updated_at, user_id)
+SELECT id, coupon_code, created_at, discount, address, city, country, first_name, last_name,
+       zip_code, status, total, updated_at, user_id
+FROM orders_unpartitioned;
+
+INSERT INTO order_items (id, price_at_purchase, product_image, product_name, quantity, order_id,
+                         order_created_at, product_id)
+SELECT oi.id, oi.price_at_purchase, oi.product_image, oi.product_name, oi.quantity, oi.order_id,
+       o.created_at, oi.product_id
+FROM order_items_unpartitioned oi
+         JOIN orders_unpartitioned o ON o.id = oi.order_id;
+
+-- Takes the old foreign keys (payments -> orders, order_items -> orders) and indexes with it
+DROP TABLE order_items_unpartitioned, orders_unpartitioned CASCADE;
+
+-- Primary keys on a partitioned table must include the partition key; ids stay unique on their own
+-- (UUIDv7 for orders, the sequence for items)
+ALTER TABLE orders ADD PRIMARY KEY (id, created_at);
+ALTER TABLE order_items ADD PRIMARY KEY (id, order_created_at);
+
+-- Identity columns are not available on partitioned tables before Postgres 17
+CREATE SEQUENCE order_items_id_seq OWNED BY order_items.id;
+ALTER TABLE order_items ALTER COLUMN id SET DEFAULT nextval('order_items_id_seq');
+SELECT setval('order_items_id_seq', COALESCE((SELECT MAX(id) FROM order_items), 0) + 1, false);
+
+ALTER TABLE orders ADD CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE order_items ADD CONSTRAINT fk_order_items_order
+    FOREIGN KEY (order_id, order_created_at) REFERENCES orders (id, created_at);
+ALTER TABLE order_items ADD CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products;
+
+-- Payments point at an order by its full key
+ALTER TABLE payments ADD COLUMN order_created_at TIMESTAMP(6);
+UPDATE payments p SET order_created_at = o.created_at FROM orders o WHERE o.id = p.order_id;
+ALTER TABLE payments ALTER COLUMN order_created_at SET NOT NULL;
+ALTER TABLE payments ADD CONSTRAINT fk_payments_order
+    FOREIGN KEY (order_id, order_created_at) REFERENCES orders (id, created_at);
+
+-- Indexes are declared on the parents and cascade to every partition, present and future
+-- findByUserIdOrderByCreatedAtDesc, findByUserIdAndCreatedAtGreaterThanEqualOrderByCreatedAtDesc
+CREATE INDEX idx_orders_user_created_at ON orders (user_id, created_at DESC);
+-- findAllOrderByCreatedAtDesc, findHotOrderByCreatedAtDesc, rollup windows
+CREATE INDEX idx_orders_created_at ON orders (created_at DESC);
+-- Rollup and dashboard change feeds (updated_at > :since)
+CREATE INDEX idx_orders_updated_at ON orders (updated_at);
+-- sumCompletedOrdersTotal: index-only sum per status
+CREATE INDEX idx_orders_status_total ON orders (status) INCLUDE (total);
+-- Loading an order's items, and the foreign key check when an order is deleted
+CREATE INDEX idx_order_items_order_id ON order_items (order_id, order_created_at);
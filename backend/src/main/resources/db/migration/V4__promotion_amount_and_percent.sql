@@ -0,0 +1,10 @@
+-- promotions.value meant a percentage or an amount depending on type; each now has its own column.
+-- Percentages are whole basis points (12.5% = 1250), the unit Money.percentageOf works in.
+ALTER TABLE promotions ADD COLUMN amount_off NUMERIC(10, 2);
+ALTER TABLE promotions ADD COLUMN percent_basis_points INTEGER
+    CHECK (percent_basis_points BETWEEN 1 AND 10000);
+
+UPDATE promotions SET amount_off = value WHERE type = 'FIXED';
+UPDATE promotions SET percent_basis_points = CAST(ROUND(value * 100) AS INTEGER) WHERE type = 'PERCENTAGE';
+
+ALTER TABLE promotions DROP COLUMN value;
@@ -0,0 +1,28 @@
+-- Before gateway orders were reused, every "Pay" click inserted another payment for the same order.
+-- Keep one row per order: the paid one (completed, or refunded after being paid) if there is one,
+-- otherwise the newest attempt.
+DELETE FROM payments p
+USING (SELECT id,
+              row_number() OVER (PARTITION BY order_id
+                                 ORDER BY status IN ('COMPLETED', 'REFUNDED') DESC,
+                                          created_at DESC NULLS LAST,
+                                          id DESC) AS rn
+       FROM payments) ranked
+WHERE p.id = ranked.id
+  AND ranked.rn > 1;
+
+-- Fresh databases got UNIQUE (order_id) from V1; databases baselined from the old schema never did
+DO
+$$
+BEGIN
+    IF NOT EXISTS (SELECT 1
+                   FROM pg_constraint c
+                            JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = ANY (c.conkey)
+                   WHERE c.conrelid = 'payments'::regclass
+                     AND c.contype = 'u'
+                     AND cardinality(c.conkey) = 1
+                     AND a.attname = 'order_id') THEN
+        ALTER TABLE payments ADD CONSTRAINT uk_payments_order_id UNIQUE (order_id);
+    END IF;
+END
+$$;
@@ -0,0 +1,4 @@
+-- Each rollup row remembers the generation that (re)wrote it, so nodes reload only the buckets a new
+-- generation touched instead of the whole retention window
+ALTER TABLE order_rollups ADD COLUMN generation BIGINT DEFAULT 0 NOT NULL;
+CREATE INDEX idx_order_rollups_generation ON order_rollups (generation);
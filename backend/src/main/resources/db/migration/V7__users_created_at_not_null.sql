@@ -0,0 +1,6 @@
+-- The admin directory pages users by (created_at, id); a null created_at broke its cursors and
+-- hid the row from the keyset predicate. Rows that predate the column get their last update time
+-- (or the migration time), and new rows always get one.
+UPDATE users SET created_at = COALESCE(updated_at, localtimestamp) WHERE created_at IS NULL;
+ALTER TABLE users ALTER COLUMN created_at SET DEFAULT localtimestamp;
+ALTER TABLE users ALTER COLUMN created_at SET NOT NULL;
@@ -0,0 +1,11 @@
+-- Default order listings show the hot window plus every order that is still open, however old.
+-- Open orders are a small share of all orders, so partial indexes keep the second lookup cheap.
+-- The predicate must match OrderRepository.OPEN for the planner to use them.
+-- Declared on the partitioned parents, which cascades to every partition (CONCURRENTLY is not
+-- available for partitioned tables).
+-- findOpenByUserIdCreatedBefore
+CREATE INDEX idx_orders_open_user_created_at ON orders (user_id, created_at DESC)
+    WHERE status NOT IN ('DELIVERED', 'CANCELLED');
+-- findOpenCreatedBefore
+CREATE INDEX idx_orders_open_created_at ON orders (created_at DESC)
+    WHERE status NOT IN ('DELIVERED', 'CANCELLED');
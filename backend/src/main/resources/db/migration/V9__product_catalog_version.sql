@@ -0,0 +1,3 @@
+-- Cart snapshots compare against this instead of the row version, which every sale bumps.
+-- Existing carts carry no catalog version and revalidate once at their next checkout.
+ALTER TABLE products ADD COLUMN catalog_version BIGINT DEFAULT 0 NOT NULL;
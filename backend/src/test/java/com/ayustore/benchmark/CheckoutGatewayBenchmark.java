@@ -0,0 +1,76 @@
+package com.ayustore.benchmark;
+
+import com.ayustore.dto.VerifyPaymentRequest;
+import com.ayustore.service.PaymentGatewayExecutor;
+import com.ayustore.service.PaymentWebhookService;
+import com.ayustore.service.RazorpaySignatureVerifier;
+import com.ayustore.service.SimulatedPaymentGateway;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+// Checkouts per second through the payment side of the flow against the simulated gateway: create
+// the gateway order on the bulkhead, pay it as the widget would, and verify the signed callback.
+// With the default 20-60ms simulated latency, 256 callers and a matching bulkhead should sustain
+// thousands of checkouts per second; the database side is not part of this measurement.
+//   mvn -Pbenchmark test-compile exec:exec -Dbenchmark=CheckoutGatewayBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(256)
+@Fork(1)
+public class CheckoutGatewayBenchmark {
+
+    // Simulated floor; the mean is three times it, as with the 20/60ms defaults
+    @Param({"0", "20"})
+    private long minLatencyMs;
+
+    private RazorpaySignatureVerifier signatureVerifier;
+    private SimulatedPaymentGateway gateway;
+    private PaymentGatewayExecutor gatewayExecutor;
+
+    @Setup
+    public void setUp() {
+        signatureVerifier = new RazorpaySignatureVerifier("benchmark-key-secret", "");
+        gateway = new SimulatedPaymentGateway(signatureVerifier, mock(PaymentWebhookService.class),
+                new ObjectMapper());
+        ReflectionTestUtils.setField(gateway, "minLatencyMs", minLatencyMs);
+        ReflectionTestUtils.setField(gateway, "meanLatencyMs", 3 * minLatencyMs);
+        ReflectionTestUtils.setField(gateway, "failureRate", 0.0);
+        ReflectionTestUtils.setField(gateway, "paymentFailureRate", 0.0);
+        ReflectionTestUtils.setField(gateway, "deliverWebhooks", false);
+        gatewayExecutor = new PaymentGatewayExecutor(256, 256, 5_000, 5, 30_000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        gatewayExecutor.shutdown();
+    }
+
+    @Benchmark
+    public boolean checkout() {
+        String gatewayOrderId = gatewayExecutor.call("createOrder",
+                () -> gateway.createOrder(49_900, "INR", "receipt"));
+        VerifyPaymentRequest callback = gateway.pay(gatewayOrderId);
+        return signatureVerifier.isValidPaymentSignature(callback.getRazorpayOrderId(),
+                callback.getRazorpayPaymentId(), callback.getRazorpaySignature());
+    }
+}
@@ -0,0 +1,103 @@
+package com.ayustore.benchmark;
+
+import com.ayustore.repository.UserRepository;
+import com.ayustore.security.JwtAuthenticationFilter;
+import com.ayustore.security.JwtTokenProvider;
+import com.ayustore.security.TokenRevocationService;
+import com.ayustore.security.TokenVersionCache;
+import com.ayustore.security.UserPrincipal;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Per-request cost of JwtAuthenticationFilter: a returning client whose token is in the verified
+// cache, against a stream of tokens the node has not seen, each of which pays for the HMAC check.
+// Both include the revocation bloom probe and the cached token-version check.
+//   mvn -Pbenchmark test-compile exec:exec -Dbenchmark=JwtAuthenticationFilterBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=";
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private JwtAuthenticationFilter cachingFilter;
+    private JwtAuthenticationFilter verifyingFilter;
+    private MockHttpServletRequest returningClient;
+    private MockHttpServletRequest[] newClients;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findTokenVersionById(any())).thenReturn(Optional.of(0));
+        TokenVersionCache tokenVersionCache = new TokenVersionCache(userRepository, 3_600, 100_000);
+        TokenRevocationService tokenRevocationService = new TokenRevocationService(mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class), 100_000, 0.001);
+
+        JwtTokenProvider cachingProvider = new JwtTokenProvider(SECRET, 3_600_000, 10_000);
+        cachingFilter = new JwtAuthenticationFilter(cachingProvider, tokenVersionCache, tokenRevocationService);
+        returningClient = request(cachingProvider.generateToken(principal()));
+
+        // Far more distinct tokens than this cache holds, so nearly every request verifies the signature
+        JwtTokenProvider verifyingProvider = new JwtTokenProvider(SECRET, 3_600_000, 16);
+        verifyingFilter = new JwtAuthenticationFilter(verifyingProvider, tokenVersionCache, tokenRevocationService);
+        newClients = new MockHttpServletRequest[16_384];
+        for (int i = 0; i < newClients.length; i++) {
+            newClients[i] = request(verifyingProvider.generateToken(principal()));
+        }
+    }
+
+    @Benchmark
+    public Object cachedToken() throws Exception {
+        cachingFilter.doFilter(returningClient, response, CHAIN);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    @Benchmark
+    public Object unseenToken() throws Exception {
+        verifyingFilter.doFilter(newClients[next++ & (newClients.length - 1)], response, CHAIN);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    private static UserPrincipal principal() {
+        return UserPrincipal.create(UUID.randomUUID(), "user@example.com", "User", null, "USER", 0);
+    }
+}
@@ -0,0 +1,84 @@
+package com.ayustore.benchmark;
+
+import com.ayustore.entity.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Pricing an order the way checkout does: line totals, subtotal, a percentage discount and the
+// grand total, once on Money's long paise and once on the BigDecimal arithmetic it replaced.
+//   mvn -Pbenchmark test-compile exec:exec -Dbenchmark=MoneyBenchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private static final BigDecimal BASIS_POINTS_PER_UNIT = BigDecimal.valueOf(10_000);
+
+    @Param({"3", "20"})
+    private int lines;
+
+    private final long discountBasisPoints = 1_250;
+
+    private Money[] moneyPrices;
+    private BigDecimal[] decimalPrices;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        moneyPrices = new Money[lines];
+        decimalPrices = new BigDecimal[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            long paise = random.nextLong(100, 5_000_000);
+            moneyPrices[i] = Money.ofPaise(paise);
+            decimalPrices[i] = BigDecimal.valueOf(paise, 2);
+            quantities[i] = random.nextInt(1, 6);
+        }
+    }
+
+    @Benchmark
+    public Money money() {
+        Money subtotal = Money.ZERO;
+        for (int i = 0; i < lines; i++) {
+            subtotal = subtotal.plus(moneyPrices[i].times(quantities[i]));
+        }
+        Money discount = subtotal.percentage(discountBasisPoints).min(subtotal);
+        return subtotal.minus(discount);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimal() {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            subtotal = subtotal.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        BigDecimal discount = subtotal.multiply(BigDecimal.valueOf(discountBasisPoints))
+                .divide(BASIS_POINTS_PER_UNIT, 2, RoundingMode.HALF_UP)
+                .min(subtotal);
+        return subtotal.subtract(discount);
+    }
+
+    // The database and JSON boundaries, where Money converts to and from BigDecimal
+    @Benchmark
+    public Money boundaryRoundTrip() {
+        return Money.of(moneyPrices[0].toBigDecimal());
+    }
+}
@@ -0,0 +1,86 @@
+package com.ayustore.benchmark;
+
+import com.ayustore.config.RateLimitProperties;
+import com.ayustore.security.RateLimitFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Requests per second through the in-memory limiter on a limited route, with 8 threads either
+// spread over many clients or all hammering one client's bucket (a single lock stripe).
+//   mvn -Pbenchmark test-compile exec:exec -Dbenchmark=RateLimitFilterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private static final FilterChain CHAIN = (request, response) -> { };
+
+    @Param({"10000", "1"})
+    private int clients;
+
+    private RateLimitFilter filter;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties.Route search = new RateLimitProperties.Route();
+        search.setName("search");
+        search.setMethod("GET");
+        search.setPath("/api/products/search");
+        // Generous enough that every request is admitted and measures the full check
+        search.setCapacity(Integer.MAX_VALUE);
+        search.setRefillPerSecond(1e9);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(search));
+        filter = new RateLimitFilter(properties, null, new ObjectMapper());
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+
+        MockHttpServletRequest[] requests;
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        int next;
+
+        @Setup(Level.Trial)
+        public void setUp(RateLimitFilterBenchmark benchmark) {
+            requests = new MockHttpServletRequest[1024];
+            for (int i = 0; i < requests.length; i++) {
+                requests[i] = new MockHttpServletRequest("GET", "/api/products/search");
+                int client = ThreadLocalRandom.current().nextInt(benchmark.clients);
+                requests[i].setRemoteAddr("10." + (client >> 16 & 0xFF) + "." + (client >> 8 & 0xFF) + "."
+                        + (client & 0xFF));
+            }
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse limitedRoute(Requests requests) throws Exception {
+        MockHttpServletRequest request = requests.requests[requests.next++ & (requests.requests.length - 1)];
+        filter.doFilter(request, requests.response, CHAIN);
+        return requests.response;
+    }
+}
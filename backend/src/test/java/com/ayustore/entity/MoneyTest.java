@@ -0,0 +1,138 @@
+package com.ayustore.entity;
+
+import com.ayustore.dto.CartItemDto;
+import com.ayustore.dto.ProductDto;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void convertsRupeesToPaiseExactly() {
+        assertThat(Money.of("129.99").getPaise()).isEqualTo(12_999);
+        assertThat(Money.of("129.9").getPaise()).isEqualTo(12_990);
+        assertThat(Money.of("129").getPaise()).isEqualTo(12_900);
+        assertThat(Money.of("0.01").getPaise()).isEqualTo(1);
+        assertThat(Money.of(new BigDecimal("129.990")).getPaise()).isEqualTo(12_999);
+        assertThat(Money.of("0.00")).isSameAs(Money.ZERO);
+    }
+
+    @Test
+    void rejectsFractionsOfAPaisaInsteadOfRounding() {
+        assertThatThrownBy(() -> Money.of("129.995"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("two decimal places");
+        assertThatThrownBy(() -> Money.of(new BigDecimal("0.001")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void convertsPaiseBackToRupees() {
+        assertThat(Money.ofPaise(12_999).toBigDecimal()).isEqualByComparingTo("129.99");
+        assertThat(Money.ofPaise(12_999).toBigDecimal().scale()).isEqualTo(2);
+        assertThat(Money.ofPaise(5).toString()).isEqualTo("0.05");
+        assertThat(Money.ofPaise(-12_999).toString()).isEqualTo("-129.99");
+    }
+
+    @Test
+    void handlesNegativeAmounts() {
+        Money refund = Money.of("-49.50");
+        assertThat(refund.getPaise()).isEqualTo(-4_950);
+        assertThat(refund.plus(Money.of("49.50"))).isEqualTo(Money.ZERO);
+        assertThat(Money.of("10").minus(Money.of("25.25"))).isEqualTo(Money.of("-15.25"));
+        assertThat(refund.times(3)).isEqualTo(Money.ofPaise(-14_850));
+        assertThat(refund.min(Money.ZERO)).isSameAs(refund);
+        assertThat(refund).isLessThan(Money.ZERO);
+    }
+
+    @Test
+    void failsInsteadOfWrappingOnOverflow() {
+        Money max = Money.ofPaise(Long.MAX_VALUE);
+        assertThatThrownBy(() -> max.plus(Money.ofPaise(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofPaise(Long.MIN_VALUE).minus(Money.ofPaise(1)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.times(2)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.percentage(10_000)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of("92233720368547758.08"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("out of range");
+    }
+
+    @Test
+    void appliesBasisPointsRoundingHalfAwayFromZero() {
+        // 18% of 129.99 = 23.3982
+        assertThat(Money.of("129.99").percentage(1_800)).isEqualTo(Money.of("23.40"));
+        // 10% of 0.25 = 0.025: exactly half a paisa
+        assertThat(Money.percentageOf(25, 1_000)).isEqualTo(3);
+        assertThat(Money.percentageOf(-25, 1_000)).isEqualTo(-3);
+        assertThat(Money.percentageOf(24, 1_000)).isEqualTo(2);
+        assertThat(Money.percentageOf(12_345, 0)).isZero();
+        assertThat(Money.percentageOf(12_345, 10_000)).isEqualTo(12_345);
+        assertThat(Money.percentageOf(1, 1)).isZero();
+    }
+
+    @Test
+    void basisPointsMatchBigDecimalHalfUp() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 10_000; i++) {
+            long paise = random.nextLong(-10_000_000_000L, 10_000_000_000L);
+            long basisPoints = random.nextLong(0, 10_001);
+            long expected = BigDecimal.valueOf(paise)
+                    .multiply(BigDecimal.valueOf(basisPoints))
+                    .divide(BigDecimal.valueOf(10_000), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+            assertThat(Money.percentageOf(paise, basisPoints))
+                    .as("%d paise at %d bp", paise, basisPoints)
+                    .isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void serializesAsABareJsonNumber() throws Exception {
+        ProductDto product = ProductDto.builder().id(1L).name("Tea").price(Money.of("129.90")).build();
+
+        String json = objectMapper.writeValueAsString(product);
+
+        assertThat(json).contains("\"price\":129.90");
+        assertThat(objectMapper.readValue(json, ProductDto.class).getPrice()).isEqualTo(Money.of("129.9"));
+    }
+
+    @Test
+    void readsNumbersAndNumericStrings() throws Exception {
+        assertThat(objectMapper.readValue("129.99", Money.class)).isEqualTo(Money.ofPaise(12_999));
+        assertThat(objectMapper.readValue("129", Money.class)).isEqualTo(Money.ofPaise(12_900));
+        assertThat(objectMapper.readValue("\" 129.99 \"", Money.class)).isEqualTo(Money.ofPaise(12_999));
+        // Inside a request body the rejection surfaces as a mapping error naming the amount
+        assertThatThrownBy(() -> objectMapper.readValue("{\"price\":129.999}", ProductDto.class))
+                .isInstanceOf(JsonMappingException.class)
+                .hasMessageContaining("two decimal places");
+    }
+
+    @Test
+    void roundTripsThroughTheRedisSerializerWithDefaultTyping() {
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer();
+        CartItemDto line = CartItemDto.builder()
+                .productId(7L)
+                .name("Tea")
+                .price(Money.of("129.99"))
+                .quantity(3)
+                .catalogVersion(2L)
+                .build();
+
+        CartItemDto read = (CartItemDto) serializer.deserialize(serializer.serialize(line));
+
+        assertThat(read.getPrice()).isEqualTo(line.getPrice());
+        assertThat(read.getLineTotal()).isEqualTo(Money.of("389.97"));
+    }
+}
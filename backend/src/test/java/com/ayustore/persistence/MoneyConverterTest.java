@@ -0,0 +1,46 @@
+package com.ayustore.persistence;
+
+import com.ayustore.entity.Money;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyConverterTest {
+
+    private final MoneyConverter converter = new MoneyConverter();
+
+    @Test
+    void writesTwoDecimalPlacesForTheNumericColumns() {
+        BigDecimal column = converter.convertToDatabaseColumn(Money.ofPaise(12_990));
+
+        assertThat(column).isEqualTo(new BigDecimal("129.90"));
+        assertThat(column.scale()).isEqualTo(2);
+        assertThat(converter.convertToDatabaseColumn(Money.ofPaise(-5))).isEqualTo(new BigDecimal("-0.05"));
+    }
+
+    @Test
+    void roundTripsEveryValue() {
+        for (long paise : new long[] {0, 1, 99, 100, 12_999, -12_999, 99_999_999_99L}) {
+            Money money = Money.ofPaise(paise);
+            assertThat(converter.convertToEntityAttribute(converter.convertToDatabaseColumn(money)))
+                    .isEqualTo(money);
+        }
+    }
+
+    @Test
+    void readsColumnsWhateverTheirScale() {
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("129.9"))).isEqualTo(Money.ofPaise(12_990));
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("130"))).isEqualTo(Money.ofPaise(13_000));
+        assertThatThrownBy(() -> converter.convertToEntityAttribute(new BigDecimal("1.005")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void keepsNulls() {
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+}
@@ -0,0 +1,80 @@
+package com.ayustore.persistence;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityTransaction;
+import org.hibernate.CacheMode;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReplicaAwareJpaDialectTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private EntityTransaction entityTransaction;
+
+    @Mock
+    private SessionImplementor session;
+
+    private ReplicaAwareJpaDialect dialect;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(entityManager.getTransaction()).thenReturn(entityTransaction);
+        when(session.getHibernateFlushMode()).thenReturn(FlushMode.AUTO);
+        lenient().when(entityManager.unwrap(Session.class)).thenReturn(session);
+        dialect = new ReplicaAwareJpaDialect();
+        dialect.setPrepareConnection(false);
+    }
+
+    @Test
+    void readOnlyTransactionsOnlyReadFromTheCacheAndRestoreTheModeAfterwards() throws Exception {
+        when(session.getCacheMode()).thenReturn(CacheMode.NORMAL);
+        when(session.isOpen()).thenReturn(true);
+
+        Object transactionData = dialect.beginTransaction(entityManager, readOnly());
+        verify(session).setCacheMode(CacheMode.GET);
+
+        dialect.cleanupTransaction(transactionData);
+        verify(session).setCacheMode(CacheMode.NORMAL);
+    }
+
+    @Test
+    void readWriteTransactionsKeepTheSessionsCacheMode() throws Exception {
+        Object transactionData = dialect.beginTransaction(entityManager, new DefaultTransactionDefinition());
+        dialect.cleanupTransaction(transactionData);
+
+        verify(session, never()).setCacheMode(CacheMode.GET);
+    }
+
+    @Test
+    void leavesAClosedSessionAlone() throws Exception {
+        when(session.getCacheMode()).thenReturn(CacheMode.NORMAL);
+        when(session.isOpen()).thenReturn(false);
+
+        dialect.cleanupTransaction(dialect.beginTransaction(entityManager, readOnly()));
+
+        verify(session, never()).setCacheMode(CacheMode.NORMAL);
+    }
+
+    private static DefaultTransactionDefinition readOnly() {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+        definition.setReadOnly(true);
+        return definition;
+    }
+}
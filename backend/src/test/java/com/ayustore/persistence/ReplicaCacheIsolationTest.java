@@ -0,0 +1,204 @@
+package com.ayustore.persistence;
+
+import com.ayustore.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+// Read-only transactions go to a second database that never sees the writes, standing in for a
+// replica that has not replayed them yet. The entity manager factory is built with the same
+// Hibernate and L2 cache settings as application.yml.
+@Testcontainers(disabledWithoutDocker = true)
+class ReplicaCacheIsolationTest {
+
+    private static final long PRODUCT_ID = 1L;
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate primary;
+    private static JdbcTemplate replica;
+    private static DriverManagerDataSource primaryDataSource;
+    private static DriverManagerDataSource replicaDataSource;
+
+    private LocalContainerEntityManagerFactoryBean factory;
+    private EntityManagerFactory entityManagerFactory;
+    private EntityManager entityManager;
+    private EntityCacheInvalidator invalidator;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeAll
+    static void createDatabases() {
+        primaryDataSource = new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(),
+                POSTGRES.getPassword());
+        primary = new JdbcTemplate(primaryDataSource);
+        primary.execute("CREATE DATABASE replica");
+        replicaDataSource = new DriverManagerDataSource("jdbc:postgresql://" + POSTGRES.getHost() + ":"
+                + POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/replica",
+                POSTGRES.getUsername(), POSTGRES.getPassword());
+        replica = new JdbcTemplate(replicaDataSource);
+
+        for (JdbcTemplate database : new JdbcTemplate[] {primary, replica}) {
+            Flyway.configure()
+                    .dataSource(database.getDataSource())
+                    .locations("classpath:db/migration")
+                    .load()
+                    .migrate();
+            database.update("INSERT INTO products (id, name, price, stock, is_active, version) "
+                    + "VALUES (?, 'Tulsi tea', 249.00, 10, TRUE, 0)", PRODUCT_ID);
+        }
+    }
+
+    @BeforeEach
+    void resetStock() {
+        primary.update("UPDATE products SET stock = 10, version = 0 WHERE id = ?", PRODUCT_ID);
+        replica.update("UPDATE products SET stock = 10, version = 0 WHERE id = ?", PRODUCT_ID);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (factory != null) {
+            factory.destroy();
+        }
+    }
+
+    @Test
+    void aReplicaReadCannotCacheARowAgainAfterThisNodesWriteEvictsIt() {
+        start(new ReplicaAwareJpaDialect());
+        assertThat(stockIn(readWrite)).isEqualTo(10);
+        assertThat(cached()).isTrue();
+
+        // A sale by native update, as checkout does it; the replica has not replayed it
+        readWrite.executeWithoutResult(status -> {
+            entityManager.createNativeQuery("UPDATE products SET stock = stock - 3, version = version + 1 "
+                            + "WHERE id = :id")
+                    .setParameter("id", PRODUCT_ID)
+                    .setHint("org.hibernate.query.native.spaces", "product_stock")
+                    .executeUpdate();
+            invalidator.evictAfterCommit(Product.class, PRODUCT_ID);
+        });
+        assertThat(cached()).isFalse();
+
+        assertThat(stockIn(readOnly)).isEqualTo(10);
+        assertThat(cached()).isFalse();
+        assertThat(stockIn(readWrite)).isEqualTo(7);
+    }
+
+    @Test
+    void aReplicaReadCannotCacheARowAgainAfterAnotherNodesWriteEvictsIt() {
+        start(new ReplicaAwareJpaDialect());
+        stockIn(readWrite);
+
+        primary.update("UPDATE products SET stock = stock - 3, version = version + 1 WHERE id = ?", PRODUCT_ID);
+        invalidator.onMessage(new DefaultMessage("l2:evictions".getBytes(StandardCharsets.UTF_8),
+                ("other-node|Product|" + PRODUCT_ID).getBytes(StandardCharsets.UTF_8)), null);
+        assertThat(cached()).isFalse();
+
+        assertThat(stockIn(readOnly)).isEqualTo(10);
+        assertThat(cached()).isFalse();
+        assertThat(stockIn(readWrite)).isEqualTo(7);
+    }
+
+    @Test
+    void withThePlainDialectTheStaleRowIsCachedAndServedToWriters() {
+        start(new HibernateJpaDialect());
+        stockIn(readWrite);
+
+        primary.update("UPDATE products SET stock = stock - 3, version = version + 1 WHERE id = ?", PRODUCT_ID);
+        entityManagerFactory.getCache().evict(Product.class, PRODUCT_ID);
+        stockIn(readOnly);
+
+        assertThat(cached()).isTrue();
+        assertThat(stockIn(readWrite)).isEqualTo(10);
+    }
+
+    private void start(HibernateJpaDialect jpaDialect) {
+        AbstractRoutingDataSource routingDataSource = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? "replica" : "primary";
+            }
+        };
+        routingDataSource.setTargetDataSources(Map.of("primary", primaryDataSource, "replica", replicaDataSource));
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+
+        HibernateJpaVendorAdapter vendorAdapter = new HibernateJpaVendorAdapter() {
+            @Override
+            public HibernateJpaDialect getJpaDialect() {
+                return jpaDialect;
+            }
+        };
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.dialect", "org.hibernate.dialect.PostgreSQLDialect");
+        properties.put("hibernate.hbm2ddl.auto", "none");
+        properties.put("hibernate.physical_naming_strategy", CamelCaseToUnderscoresNamingStrategy.class.getName());
+        properties.put("hibernate.implicit_naming_strategy", SpringImplicitNamingStrategy.class.getName());
+        properties.put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+        properties.put("hibernate.cache.use_second_level_cache", "true");
+        properties.put("hibernate.cache.use_query_cache", "true");
+        properties.put("hibernate.cache.region.factory_class", "jcache");
+        properties.put("hibernate.javax.cache.provider",
+                "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        properties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+
+        factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(new LazyConnectionDataSourceProxy(routingDataSource));
+        factory.setPackagesToScan("com.ayustore.entity", "com.ayustore.persistence");
+        factory.setJpaVendorAdapter(vendorAdapter);
+        factory.setJpaPropertyMap(properties);
+        factory.afterPropertiesSet();
+
+        entityManagerFactory = factory.getObject();
+        // The Caffeine regions are shared by every factory in the JVM
+        entityManagerFactory.getCache().evictAll();
+        entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+        invalidator = new EntityCacheInvalidator(entityManagerFactory, mock(StringRedisTemplate.class),
+                mock(RedisMessageListenerContainer.class));
+
+        JpaTransactionManager transactionManager = new JpaTransactionManager(entityManagerFactory);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private int stockIn(TransactionTemplate transaction) {
+        Integer stock = transaction.execute(status -> entityManager.find(Product.class, PRODUCT_ID).getStock());
+        return stock != null ? stock : -1;
+    }
+
+    private boolean cached() {
+        return entityManagerFactory.getCache().contains(Product.class, PRODUCT_ID);
+    }
+}
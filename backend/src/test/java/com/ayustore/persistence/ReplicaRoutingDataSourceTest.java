@@ -0,0 +1,138 @@
+package com.ayustore.persistence;
+
+import com.ayustore.config.ReplicaProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+// A real primary with a streaming replica cloned from it by pg_basebackup
+@Testcontainers(disabledWithoutDocker = true)
+class ReplicaRoutingDataSourceTest {
+
+    private static final String IMAGE = "postgres:16-alpine";
+
+    private static final Network NETWORK = Network.newNetwork();
+
+    @Container
+    private static final PostgreSQLContainer<?> PRIMARY = new PostgreSQLContainer<>(IMAGE)
+            .withNetwork(NETWORK)
+            .withNetworkAliases("primary")
+            .withCommand("postgres", "-c", "wal_level=replica", "-c", "max_wal_senders=4")
+            .withCopyToContainer(Transferable.of(
+                    "echo 'host replication all all scram-sha-256' >> \"$PGDATA/pg_hba.conf\"\n"),
+                    "/docker-entrypoint-initdb.d/replication.sh");
+
+    @Container
+    private static final GenericContainer<?> REPLICA = new GenericContainer<>(IMAGE)
+            .withNetwork(NETWORK)
+            .dependsOn(PRIMARY)
+            .withEnv("PGPASSWORD", PRIMARY.getPassword())
+            .withExposedPorts(5432)
+            .withCommand("sh", "-c", "until su-exec postgres pg_basebackup -h primary -U " + PRIMARY.getUsername()
+                    + " -D /tmp/replica -R -X stream; do sleep 1; done; "
+                    + "chmod 700 /tmp/replica && exec su-exec postgres postgres -D /tmp/replica")
+            .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1)
+                    .withStartupTimeout(Duration.ofMinutes(2)));
+
+    private HikariDataSource primaryPool;
+    private HikariDataSource replicaPool;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primaryPool = pool(PRIMARY.getJdbcUrl());
+        replicaPool = pool("jdbc:postgresql://" + REPLICA.getHost() + ":" + REPLICA.getMappedPort(5432) + "/"
+                + PRIMARY.getDatabaseName());
+        replicaPool.setReadOnly(true);
+
+        ReplicaProperties properties = new ReplicaProperties();
+        properties.setMaxLagMs(500);
+        properties.setHealthCheckIntervalMs(100);
+        properties.setReadYourWritesMs(1);
+        routingDataSource = new ReplicaRoutingDataSource(primaryPool, Map.of("replica-1", replicaPool), properties);
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        new JdbcTemplate(replicaPool).execute("SELECT pg_wal_replay_resume()");
+        routingDataSource.close();
+        primaryPool.close();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheStreamingReplica() {
+        await().atMost(Duration.ofSeconds(30)).until(this::readOnlyUsesReplica);
+
+        Boolean primaryInRecovery = readWrite.execute(status -> inRecovery());
+        assertThat(primaryInRecovery).isFalse();
+
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS routing_probe (id INT PRIMARY KEY)");
+            jdbcTemplate.update("INSERT INTO routing_probe VALUES (1) ON CONFLICT DO NOTHING");
+        });
+        await().atMost(Duration.ofSeconds(30)).until(() -> readOnly.execute(status ->
+                jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_tables WHERE tablename = 'routing_probe'",
+                        Long.class)) == 1L);
+    }
+
+    @Test
+    void replicaThatStopsReplayingLosesItsReads() {
+        await().atMost(Duration.ofSeconds(30)).until(this::readOnlyUsesReplica);
+
+        // WAL keeps arriving but is no longer applied, so the replica falls behind
+        new JdbcTemplate(replicaPool).execute("SELECT pg_wal_replay_pause()");
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS lag_probe (id INT)");
+            jdbcTemplate.update("INSERT INTO lag_probe VALUES (1)");
+        });
+
+        await().atMost(Duration.ofSeconds(30)).until(() -> !readOnlyUsesReplica());
+    }
+
+    private boolean readOnlyUsesReplica() {
+        return Boolean.TRUE.equals(readOnly.execute(status -> inRecovery()));
+    }
+
+    private Boolean inRecovery() {
+        return jdbcTemplate.queryForObject("SELECT pg_is_in_recovery()", Boolean.class);
+    }
+
+    private static HikariDataSource pool(String jdbcUrl) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl(jdbcUrl);
+        pool.setUsername(PRIMARY.getUsername());
+        pool.setPassword(PRIMARY.getPassword());
+        pool.setMaximumPoolSize(4);
+        pool.setInitializationFailTimeout(-1);
+        return pool;
+    }
+}
@@ -0,0 +1,94 @@
+package com.ayustore.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void setsVersionSevenAndTheRfcVariant() {
+        for (int i = 0; i < 1_000; i++) {
+            UUID id = UuidV7Generator.next();
+            assertThat(id.version()).isEqualTo(7);
+            assertThat(id.variant()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void leadsWithTheCurrentUnixMillisecond() throws InterruptedException {
+        // Earlier bursts may have borrowed a few milliseconds ahead; let the clock pass them
+        Thread.sleep(100);
+        long before = System.currentTimeMillis();
+        UUID first = UuidV7Generator.next();
+        long after = System.currentTimeMillis();
+        Thread.sleep(5);
+        UUID later = UuidV7Generator.next();
+
+        assertThat(millis(first)).isBetween(before, after);
+        assertThat(millis(later)).isGreaterThan(millis(first));
+        assertThat(later).isGreaterThan(first);
+        assertThat(later.toString()).isGreaterThan(first.toString());
+    }
+
+    @Test
+    void staysStrictlyIncreasingWithinOneMillisecond() {
+        List<UUID> ids = new ArrayList<>(100_000);
+        for (int i = 0; i < 100_000; i++) {
+            ids.add(UuidV7Generator.next());
+        }
+
+        int sameMillisecond = 0;
+        for (int i = 1; i < ids.size(); i++) {
+            UUID previous = ids.get(i - 1);
+            UUID current = ids.get(i);
+            assertThat(current).isGreaterThan(previous);
+            // Text order is what Postgres' uuid comparison and the index follow
+            assertThat(current.toString()).isGreaterThan(previous.toString());
+            if (millis(current) == millis(previous)) {
+                assertThat(sequence(current)).isGreaterThan(sequence(previous));
+                sameMillisecond++;
+            }
+        }
+        assertThat(sameMillisecond).isPositive();
+    }
+
+    @Test
+    void neverRepeatsAcrossThreads() throws Exception {
+        Set<UUID> seen = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < 20_000; i++) {
+                        seen.add(UuidV7Generator.next());
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(seen).hasSize(8 * 20_000);
+    }
+
+    private static long millis(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+
+    private static long sequence(UUID id) {
+        return id.getMostSignificantBits() & 0xFFFL;
+    }
+}
@@ -0,0 +1,115 @@
+package com.ayustore.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Runs the real migrations, seeds enough rows for the planner to prefer indexes over sequential scans,
+// and checks the plans of the SQL the repositories generate for the hot queries.
+@Testcontainers(disabledWithoutDocker = true)
+class WorkloadIndexPlanTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrateAndSeed() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(POSTGRES.getJdbcUrl(),
+                POSTGRES.getUsername(), POSTGRES.getPassword()));
+
+        jdbcTemplate.update("""
+                INSERT INTO products (category, is_active, name, price, stock, low_stock_threshold)
+                SELECT 'category-' || (i % 200), i % 10 <> 0, 'Product ' || md5(CAST(i AS text)), 499.00, 100, 5
+                FROM generate_series(1, 50000) i
+                """);
+        jdbcTemplate.update("""
+                INSERT INTO users (id, email, name, role, created_at)
+                SELECT gen_random_uuid(), 'user' || i || '@example.com', 'User ' || i,
+                    CASE WHEN i % 100 = 0 THEN 'ADMIN' ELSE 'USER' END,
+                    localtimestamp - i * INTERVAL '1 minute'
+                FROM generate_series(1, 50000) i
+                """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void migrationsLeaveNoDuplicateOrInvalidIndexes() {
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_indexes WHERE indexname = 'idx_products_active_id'", Long.class))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_index WHERE NOT indisvalid", Long.class))
+                .isZero();
+    }
+
+    @Test
+    void activeProductsByCategoryUseThePartialCategoryIndex() {
+        assertThat(plan("SELECT * FROM products WHERE category = 'category-7' AND is_active = TRUE"))
+                .contains("idx_products_active_category");
+    }
+
+    @Test
+    void nameSearchUsesTheTrigramIndex() {
+        String fragment = jdbcTemplate.queryForObject("SELECT substr(md5('4242'), 5, 8)", String.class);
+        assertThat(plan("SELECT * FROM products WHERE upper(name) LIKE upper('%" + fragment
+                + "%') ESCAPE '\\' AND is_active = TRUE"))
+                .contains("idx_products_active_name_trgm");
+    }
+
+    @Test
+    void userDirectoryKeysetPagesUseTheCreatedAtIdIndexes() {
+        String keyset = "(created_at < localtimestamp - INTERVAL '1 day' "
+                + "OR (created_at = localtimestamp - INTERVAL '1 day' "
+                + "AND id < CAST('ffffffff-ffff-ffff-ffff-ffffffffffff' AS uuid)))";
+        assertThat(plan("SELECT * FROM users WHERE " + keyset + " ORDER BY created_at DESC, id DESC LIMIT 20"))
+                .contains("idx_users_created_at_id");
+        assertThat(plan("SELECT * FROM users WHERE role = 'ADMIN' AND " + keyset
+                + " ORDER BY created_at DESC, id DESC LIMIT 20"))
+                .contains("idx_users_role_created_at_id");
+    }
+
+    @Test
+    void userSearchByPrefixUsesThePatternIndexes() {
+        assertThat(plan("SELECT * FROM users WHERE lower(email) LIKE 'user4242%'"))
+                .contains("idx_users_email_lower_prefix");
+        assertThat(plan("SELECT * FROM users WHERE lower(name) LIKE 'user 4242%'"))
+                .contains("idx_users_name_lower_prefix");
+    }
+
+    @Test
+    void hotOrderListingsSkipTheArchivePartition() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        assertThat(plan("SELECT * FROM orders WHERE created_at >= TIMESTAMP '" + month + " 00:00:00' "
+                + "ORDER BY created_at DESC"))
+                .contains("orders_p" + month.format(DateTimeFormatter.ofPattern("yyyyMM")))
+                .doesNotContain("orders_archive");
+    }
+
+    @Test
+    void olderOpenOrdersUseThePartialOpenOrderIndex() {
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        assertThat(plan("SELECT * FROM orders WHERE created_at < TIMESTAMP '" + month + " 00:00:00' "
+                + "AND status NOT IN ('DELIVERED', 'CANCELLED') ORDER BY created_at DESC"))
+                .contains("idx_orders_open_created_at");
+    }
+
+    private static String plan(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+    }
+}
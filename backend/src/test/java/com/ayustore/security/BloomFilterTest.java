@@ -0,0 +1,78 @@
+package com.ayustore.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedValue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.001);
+        List<String> added = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            String tokenId = UUID.randomUUID().toString();
+            filter.add(tokenId);
+            added.add(tokenId);
+        }
+
+        assertThat(added).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void staysNearItsFalsePositiveRateAtCapacity() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void answersNoForEverythingWhenEmpty() {
+        BloomFilter filter = new BloomFilter(100_000, 0.001);
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(UUID.randomUUID().toString())).isFalse();
+        }
+    }
+
+    @Test
+    void keepsEveryConcurrentAdd() throws Exception {
+        BloomFilter filter = new BloomFilter(80_000, 0.001);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<List<String>>> workers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                workers.add(executor.submit(() -> {
+                    List<String> added = new ArrayList<>();
+                    for (int i = 0; i < 10_000; i++) {
+                        String tokenId = UUID.randomUUID().toString();
+                        filter.add(tokenId);
+                        added.add(tokenId);
+                    }
+                    return added;
+                }));
+            }
+            for (Future<List<String>> worker : workers) {
+                assertThat(worker.get()).allMatch(filter::mightContain);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
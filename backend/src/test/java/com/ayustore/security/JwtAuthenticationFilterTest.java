@@ -0,0 +1,153 @@
+package com.ayustore.security;
+
+import com.ayustore.repository.UserRepository;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+// The verified-token cache skips the signature check for a token seen before; these pin down that it
+// never skips the checks that can turn a previously good token bad: expiry, revocation and version
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    private static final String SECRET = "MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final UUID userId = UUID.randomUUID();
+    private final AtomicReference<Authentication> seenByChain = new AtomicReference<>();
+    private final FilterChain chain = (request, response) ->
+            seenByChain.set(SecurityContextHolder.getContext().getAuthentication());
+
+    private TokenVersionCache tokenVersionCache;
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionCache = new TokenVersionCache(userRepository, 30, 1_000);
+        tokenRevocationService = new TokenRevocationService(stringRedisTemplate, listenerContainer, 1_000, 0.001);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void servesARepeatedTokenFromTheVerifiedCache() throws Exception {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 900_000, 1_000);
+        String token = tokenProvider.generateToken(principal(0));
+        when(userRepository.findTokenVersionById(userId)).thenReturn(Optional.of(0));
+
+        assertThat(tokenProvider.verify(token)).isSameAs(tokenProvider.verify(token));
+        assertThat(authenticates(tokenProvider, token)).isTrue();
+        assertThat(seenByChain.get().getPrincipal()).isInstanceOf(UserPrincipal.class);
+        assertThat(((UserPrincipal) seenByChain.get().getPrincipal()).getId()).isEqualTo(userId);
+    }
+
+    @Test
+    void rejectsATokenThatExpiresAfterItWasCached() throws Exception {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 1_500, 1_000);
+        String token = tokenProvider.generateToken(principal(0));
+        when(userRepository.findTokenVersionById(userId)).thenReturn(Optional.of(0));
+
+        JwtTokenProvider.VerifiedToken verified = tokenProvider.verify(token);
+        assertThat(tokenProvider.verify(token)).isSameAs(verified);
+        assertThat(authenticates(tokenProvider, token)).isTrue();
+
+        // JWT expiry has whole-second precision, so this is at most 1.5s
+        Thread.sleep(Math.max(0, verified.expiresAtMillis() - System.currentTimeMillis()) + 50);
+
+        assertThat(tokenProvider.verify(token)).isNull();
+        assertThat(authenticates(tokenProvider, token)).isFalse();
+    }
+
+    @Test
+    void rejectsACachedTokenOnceItIsRevoked() throws Exception {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 900_000, 1_000);
+        String token = tokenProvider.generateToken(principal(0));
+        when(userRepository.findTokenVersionById(userId)).thenReturn(Optional.of(0));
+        assertThat(authenticates(tokenProvider, token)).isTrue();
+
+        JwtTokenProvider.VerifiedToken verified = tokenProvider.verify(token);
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        tokenRevocationService.revoke(verified.tokenId(), verified.expiresAtMillis());
+        when(zSetOperations.score("jwt:revoked", verified.tokenId())).thenReturn((double) verified.expiresAtMillis());
+
+        // Still served from the verified cache, and still turned away
+        assertThat(tokenProvider.verify(token)).isSameAs(verified);
+        assertThat(authenticates(tokenProvider, token)).isFalse();
+    }
+
+    @Test
+    void rejectsACachedTokenOnceTheUsersTokenVersionMovesOn() throws Exception {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 900_000, 1_000);
+        String token = tokenProvider.generateToken(principal(0));
+        when(userRepository.findTokenVersionById(userId)).thenReturn(Optional.of(0), Optional.of(1));
+        assertThat(authenticates(tokenProvider, token)).isTrue();
+
+        // Logout everywhere, a password change or a role change bumps the version
+        tokenVersionCache.invalidate(userId);
+
+        assertThat(tokenProvider.verify(token)).isNotNull();
+        assertThat(authenticates(tokenProvider, token)).isFalse();
+        // A token issued at the new version is accepted
+        assertThat(authenticates(tokenProvider, tokenProvider.generateToken(principal(1)))).isTrue();
+    }
+
+    @Test
+    void rejectsATamperedTokenEvenWhenTheOriginalIsCached() throws Exception {
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(SECRET, 900_000, 1_000);
+        String token = tokenProvider.generateToken(principal(0));
+        when(userRepository.findTokenVersionById(userId)).thenReturn(Optional.of(0));
+        assertThat(authenticates(tokenProvider, token)).isTrue();
+
+        String tampered = token.substring(0, token.length() - 2)
+                + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThat(tokenProvider.verify(tampered)).isNull();
+        assertThat(authenticates(tokenProvider, tampered)).isFalse();
+    }
+
+    private boolean authenticates(JwtTokenProvider tokenProvider, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        seenByChain.set(null);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        new JwtAuthenticationFilter(tokenProvider, tokenVersionCache, tokenRevocationService)
+                .doFilter(request, new MockHttpServletResponse(), chain);
+        return seenByChain.get() != null;
+    }
+
+    private UserPrincipal principal(int tokenVersion) {
+        return UserPrincipal.create(userId, "user@example.com", "User", null, "USER", tokenVersion);
+    }
+}
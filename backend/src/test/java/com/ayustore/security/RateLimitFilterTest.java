@@ -0,0 +1,237 @@
+package com.ayustore.security;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.ayustore.config.RateLimitProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateLimitFilterTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicInteger passedThrough = new AtomicInteger();
+    private final FilterChain chain = (request, response) -> passedThrough.incrementAndGet();
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void limitsEachRouteSeparately() throws Exception {
+        RateLimitFilter filter = filter(RateLimitProperties.Mode.LOCAL,
+                route("login", "POST", "/api/auth/login", RateLimitProperties.KeyType.IP, 2, 0.001),
+                route("search", "GET", "/api/products/search", RateLimitProperties.KeyType.IP, 3, 0.001));
+
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = send(filter, "POST", "/api/auth/login", "10.0.0.1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(Long.parseLong(rejected.getHeader("Retry-After"))).isPositive();
+        assertThat(rejected.getContentAsString()).contains("Too many requests");
+        assertThat(passedThrough).hasValue(2);
+
+        // Logins used up their own budget, not the search one
+        for (int i = 0; i < 3; i++) {
+            assertThat(send(filter, "GET", "/api/products/search", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+        assertThat(send(filter, "GET", "/api/products/search", "10.0.0.1").getStatus()).isEqualTo(429);
+        // And other clients are unaffected
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void matchesOnMethodAndPathPrefix() throws Exception {
+        RateLimitFilter filter = filter(RateLimitProperties.Mode.LOCAL,
+                route("orders", "POST", "/api/orders/**", RateLimitProperties.KeyType.IP, 1, 0.001));
+
+        assertThat(send(filter, "POST", "/api/orders", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/orders/checkout", "10.0.0.1").getStatus()).isEqualTo(429);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(send(filter, "GET", "/api/orders", "10.0.0.1").getStatus()).isEqualTo(200);
+            assertThat(send(filter, "POST", "/api/cart/items", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    void keysUserRoutesByTheAuthenticatedUser() throws Exception {
+        RateLimitFilter filter = filter(RateLimitProperties.Mode.LOCAL,
+                route("orders", "POST", "/api/orders/**", RateLimitProperties.KeyType.USER, 1, 0.001));
+
+        // Two users behind the same address each get their own bucket
+        authenticate(UUID.randomUUID());
+        assertThat(send(filter, "POST", "/api/orders", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/orders", "10.0.0.1").getStatus()).isEqualTo(429);
+        authenticate(UUID.randomUUID());
+        assertThat(send(filter, "POST", "/api/orders", "10.0.0.1").getStatus()).isEqualTo(200);
+
+        // Anonymous callers fall back to their address
+        SecurityContextHolder.clearContext();
+        assertThat(send(filter, "POST", "/api/orders", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/orders", "10.0.0.1").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void readsForwardedForOnlyWhenTrusted() throws Exception {
+        RateLimitProperties.Route login = route("login", "POST", "/api/auth/login",
+                RateLimitProperties.KeyType.IP, 1, 0.001);
+        RateLimitFilter untrusted = filter(RateLimitProperties.Mode.LOCAL, login);
+
+        assertThat(send(untrusted, forwarded("203.0.113.7")).getStatus()).isEqualTo(200);
+        assertThat(send(untrusted, forwarded("203.0.113.8")).getStatus()).isEqualTo(429);
+
+        RateLimitProperties properties = properties(RateLimitProperties.Mode.LOCAL, login);
+        properties.setTrustForwardedFor(true);
+        RateLimitFilter trusted = new RateLimitFilter(properties, stringRedisTemplate, objectMapper);
+
+        assertThat(send(trusted, forwarded("203.0.113.7")).getStatus()).isEqualTo(200);
+        assertThat(send(trusted, forwarded("203.0.113.8")).getStatus()).isEqualTo(200);
+        assertThat(send(trusted, forwarded("203.0.113.7")).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void letsTheRedisSlidingWindowDecideInRedisMode() throws Exception {
+        // Capacity 2 at 0.5/s is a 4s window
+        RateLimitFilter filter = filter(RateLimitProperties.Mode.REDIS,
+                route("login", "POST", "/api/auth/login", RateLimitProperties.KeyType.IP, 2, 0.5));
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(1L, 1L, 1L, 0L);
+
+        // Admitted past the local capacity, because the shared window says so
+        for (int i = 0; i < 3; i++) {
+            assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        }
+        MockHttpServletResponse rejected = send(filter, "POST", "/api/auth/login", "10.0.0.1");
+
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("4");
+        verify(stringRedisTemplate, times(4))
+                .execute(any(RedisScript.class), eq(List.of("rl:login:ip:10.0.0.1")), any(Object[].class));
+    }
+
+    @Test
+    void fallsBackToLocalBucketsWhenRedisIsDown() throws Exception {
+        RateLimitFilter filter = filter(RateLimitProperties.Mode.REDIS,
+                route("login", "POST", "/api/auth/login", RateLimitProperties.KeyType.IP, 2, 0.001));
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        // Neither open nor closed: this node's buckets enforce the same capacity
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(200);
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.1").getStatus()).isEqualTo(429);
+        assertThat(send(filter, "POST", "/api/auth/login", "10.0.0.2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void logsRedisOutagesOnlyWhenTheyStartAndEnd() throws Exception {
+        RateLimitFilter filter = filter(RateLimitProperties.Mode.REDIS,
+                route("search", "GET", "/api/products/search", RateLimitProperties.KeyType.IP, 1_000, 100));
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"))
+                .thenReturn(1L);
+        Logger logger = (Logger) LoggerFactory.getLogger(RateLimitFilter.class);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        try {
+            for (int i = 0; i < 5; i++) {
+                assertThat(send(filter, "GET", "/api/products/search", "10.0.0.1").getStatus()).isEqualTo(200);
+            }
+        } finally {
+            logger.detachAppender(appender);
+        }
+
+        assertThat(appender.list)
+                .extracting(ILoggingEvent::getLevel, ILoggingEvent::getFormattedMessage)
+                .containsExactly(
+                        tuple(Level.WARN, "Redis rate limiter unavailable, using local buckets: Connection refused"),
+                        tuple(Level.INFO, "Redis rate limiter is back, sharing limits across nodes again"));
+    }
+
+    private RateLimitFilter filter(RateLimitProperties.Mode mode, RateLimitProperties.Route... routes) {
+        return new RateLimitFilter(properties(mode, routes), stringRedisTemplate, objectMapper);
+    }
+
+    private static RateLimitProperties properties(RateLimitProperties.Mode mode,
+            RateLimitProperties.Route... routes) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMode(mode);
+        properties.setRoutes(List.of(routes));
+        return properties;
+    }
+
+    private static RateLimitProperties.Route route(String name, String method, String path,
+            RateLimitProperties.KeyType key, int capacity, double refillPerSecond) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setName(name);
+        route.setMethod(method);
+        route.setPath(path);
+        route.setKey(key);
+        route.setCapacity(capacity);
+        route.setRefillPerSecond(refillPerSecond);
+        return route;
+    }
+
+    private static void authenticate(UUID userId) {
+        UserPrincipal principal = UserPrincipal.create(userId, "user@example.com", "User", null, "USER", 0);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static MockHttpServletRequest forwarded(String clientIp) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/login");
+        request.setRemoteAddr("10.0.0.100");
+        request.addHeader("X-Forwarded-For", clientIp + ", 10.0.0.100");
+        return request;
+    }
+
+    private MockHttpServletResponse send(RateLimitFilter filter, String method, String path, String remoteAddr)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setRemoteAddr(remoteAddr);
+        return send(filter, request);
+    }
+
+    private MockHttpServletResponse send(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ayustore.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+
+// Runs against a map standing in for Redis' string keys
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+    private final UUID userId = UUID.randomUUID();
+
+    private RefreshTokenService service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        lenient().doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        lenient().when(valueOperations.get(anyString()))
+                .thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        lenient().when(valueOperations.getAndDelete(anyString()))
+                .thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)));
+        lenient().when(stringRedisTemplate.delete(anyString()))
+                .thenAnswer(invocation -> redis.remove(invocation.<String>getArgument(0)) != null);
+
+        service = new RefreshTokenService(stringRedisTemplate, 30);
+    }
+
+    @Test
+    void rotatesWithinTheSameFamily() {
+        String first = service.issue(userId, 3);
+
+        RefreshTokenService.RefreshGrant grant = service.consume(first);
+        assertThat(grant.userId()).isEqualTo(userId);
+        assertThat(grant.tokenVersion()).isEqualTo(3);
+
+        String second = service.rotate(grant, 4);
+        RefreshTokenService.RefreshGrant next = service.consume(second);
+
+        assertThat(second).isNotEqualTo(first);
+        assertThat(next.family()).isEqualTo(grant.family());
+        assertThat(next.tokenVersion()).isEqualTo(4);
+    }
+
+    @Test
+    void storesOnlyDigestsOfTheToken() {
+        String token = service.issue(userId, 0);
+
+        assertThat(redis).isNotEmpty();
+        assertThat(redis.keySet()).noneMatch(key -> key.contains(token));
+        assertThat(redis.values()).noneMatch(value -> value.contains(token));
+    }
+
+    @Test
+    void treatsAReplayedTokenAsTheftAndRevokesItsFamily() {
+        String stolen = service.issue(userId, 0);
+        String rotated = service.rotate(service.consume(stolen), 0);
+
+        // Whoever replays the rotated-away token gets nothing, and the legitimate successor dies with it
+        assertThat(service.consume(stolen)).isNull();
+        assertThat(service.consume(rotated)).isNull();
+    }
+
+    @Test
+    void aReplayOnlyRevokesItsOwnFamily() {
+        String phone = service.issue(userId, 0);
+        String laptop = service.issue(userId, 0);
+        service.rotate(service.consume(phone), 0);
+
+        assertThat(service.consume(phone)).isNull();
+
+        assertThat(service.consume(laptop)).isNotNull();
+    }
+
+    @Test
+    void logoutRevokesTheWholeFamily() {
+        String token = service.issue(userId, 0);
+
+        service.revoke(token);
+
+        assertThat(service.consume(token)).isNull();
+        assertThat(redis.keySet()).noneMatch(key -> key.startsWith("rt:family:"));
+    }
+
+    @Test
+    void rejectsUnknownTokens() {
+        service.issue(userId, 0);
+        int stored = redis.size();
+
+        assertThat(service.consume("not-a-token")).isNull();
+        service.revoke("not-a-token");
+
+        assertThat(redis).hasSize(stored);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ayustore.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripedTokenBucketsTest {
+
+    private final StripedTokenBuckets buckets = new StripedTokenBuckets(100_000);
+
+    @Test
+    void admitsABurstUpToCapacityThenReportsTheWait() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(buckets.tryAcquire("ip:10.0.0.1", 5, 1)).isZero();
+        }
+
+        long retryAfterNanos = buckets.tryAcquire("ip:10.0.0.1", 5, 1);
+
+        // One token per second, and the bucket is empty
+        assertThat(retryAfterNanos).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() throws InterruptedException {
+        // 20 tokens per second: one every 50ms
+        assertThat(buckets.tryAcquire("ip:10.0.0.2", 2, 20)).isZero();
+        assertThat(buckets.tryAcquire("ip:10.0.0.2", 2, 20)).isZero();
+        long retryAfterNanos = buckets.tryAcquire("ip:10.0.0.2", 2, 20);
+        assertThat(retryAfterNanos).isPositive().isLessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(50));
+
+        TimeUnit.NANOSECONDS.sleep(retryAfterNanos + TimeUnit.MILLISECONDS.toNanos(10));
+
+        assertThat(buckets.tryAcquire("ip:10.0.0.2", 2, 20)).isZero();
+        assertThat(buckets.tryAcquire("ip:10.0.0.2", 2, 20)).isPositive();
+    }
+
+    @Test
+    void neverRefillsBeyondCapacity() throws InterruptedException {
+        assertThat(buckets.tryAcquire("ip:10.0.0.3", 3, 1_000)).isZero();
+
+        // Long enough to earn far more than three tokens
+        TimeUnit.MILLISECONDS.sleep(50);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(buckets.tryAcquire("ip:10.0.0.3", 3, 1_000)).isZero();
+        }
+        assertThat(buckets.tryAcquire("ip:10.0.0.3", 3, 0.001)).isPositive();
+    }
+
+    @Test
+    void keepsClientsApart() {
+        assertThat(buckets.tryAcquire("ip:10.0.0.4", 1, 0.001)).isZero();
+        assertThat(buckets.tryAcquire("ip:10.0.0.4", 1, 0.001)).isPositive();
+
+        assertThat(buckets.tryAcquire("ip:10.0.0.5", 1, 0.001)).isZero();
+        assertThat(buckets.tryAcquire("u:10.0.0.4", 1, 0.001)).isZero();
+    }
+
+    @Test
+    void forgetsTheLeastRecentlySeenClientsWhenFull() {
+        StripedTokenBuckets small = new StripedTokenBuckets(0);
+        assertThat(small.tryAcquire("ip:10.0.0.6", 1, 0.001)).isZero();
+        assertThat(small.tryAcquire("ip:10.0.0.6", 1, 0.001)).isPositive();
+
+        // Far more clients than the 64 stripes x 16 entries the smallest limiter keeps
+        for (int i = 0; i < 20_000; i++) {
+            small.tryAcquire("ip:spray-" + i, 1, 0.001);
+        }
+
+        // Evicted, so it starts again from a full bucket
+        assertThat(small.tryAcquire("ip:10.0.0.6", 1, 0.001)).isZero();
+    }
+}
@@ -0,0 +1,163 @@
+package com.ayustore.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    private static final String REVOKED_KEY = "jwt:revoked";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ZSetOperations<String, String> zSetOperations;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new TokenRevocationService(stringRedisTemplate, listenerContainer, 1_000, 0.001);
+    }
+
+    @Test
+    void answersNotRevokedFromTheBloomFilterAlone() {
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(service.isRevoked(UUID.randomUUID().toString())).isFalse();
+        }
+        assertThat(service.isRevoked(null)).isFalse();
+
+        verify(stringRedisTemplate, never()).opsForZSet();
+    }
+
+    @Test
+    void storesPublishesAndConfirmsARevocation() {
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        long expiresAt = System.currentTimeMillis() + 60_000;
+
+        service.revoke("jti-1", expiresAt);
+
+        verify(zSetOperations).add(REVOKED_KEY, "jti-1", expiresAt);
+        verify(stringRedisTemplate).convertAndSend("jwt:revocations", "jti-1");
+
+        when(zSetOperations.score(REVOKED_KEY, "jti-1")).thenReturn((double) expiresAt);
+        assertThat(service.isRevoked("jti-1")).isTrue();
+    }
+
+    @Test
+    void confirmsBloomHitsAgainstRedisBeforeRejecting() {
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        service.revoke("jti-1", System.currentTimeMillis() + 60_000);
+
+        // A bloom hit that Redis does not know, such as a false positive or an id that has since
+        // expired out of the set, is let through
+        when(zSetOperations.score(REVOKED_KEY, "jti-1")).thenReturn(null);
+
+        assertThat(service.isRevoked("jti-1")).isFalse();
+    }
+
+    @Test
+    void failsClosedWhenABloomHitCannotBeConfirmed() {
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        service.revoke("jti-1", System.currentTimeMillis() + 60_000);
+        when(zSetOperations.score(REVOKED_KEY, "jti-1"))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        assertThat(service.isRevoked("jti-1")).isTrue();
+    }
+
+    @Test
+    void keepsALocalRevocationWhenRedisIsDown() {
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.add(anyString(), anyString(), anyDouble()))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"));
+        service.revoke("jti-1", System.currentTimeMillis() + 60_000);
+
+        when(zSetOperations.score(REVOKED_KEY, "jti-1"))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"));
+        assertThat(service.isRevoked("jti-1")).isTrue();
+    }
+
+    @Test
+    void ignoresTokensThatHaveAlreadyExpired() {
+        service.revoke("jti-1", System.currentTimeMillis() - 1);
+        service.revoke(null, System.currentTimeMillis() + 60_000);
+
+        assertThat(service.isRevoked("jti-1")).isFalse();
+        verify(stringRedisTemplate, never()).opsForZSet();
+    }
+
+    @Test
+    void mirrorsRevocationsPublishedByOtherNodes() {
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        when(zSetOperations.score(REVOKED_KEY, "jti-remote")).thenReturn(1.0);
+
+        service.onMessage(message("jti-remote"), null);
+
+        assertThat(service.isRevoked("jti-remote")).isTrue();
+    }
+
+    @Test
+    void rebuildDropsExpiredIdsAndKeepsLiveOnesAndRevocationsMadeMeanwhile() {
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        service.onMessage(message("jti-expired"), null);
+        when(zSetOperations.zCard(REVOKED_KEY)).thenReturn(1L);
+        when(zSetOperations.rangeByScore(eq(REVOKED_KEY), anyDouble(), eq(Double.MAX_VALUE)))
+                .thenAnswer(invocation -> {
+                    // Published while the new filter is being loaded
+                    service.onMessage(message("jti-meanwhile"), null);
+                    return Set.of("jti-live");
+                });
+
+        service.rebuild();
+
+        verify(zSetOperations).removeRangeByScore(eq(REVOKED_KEY), eq(0.0), anyDouble());
+        when(zSetOperations.score(eq(REVOKED_KEY), anyString())).thenReturn(1.0);
+        assertThat(service.isRevoked("jti-expired")).isFalse();
+        assertThat(service.isRevoked("jti-live")).isTrue();
+        assertThat(service.isRevoked("jti-meanwhile")).isTrue();
+        verify(zSetOperations, never()).score(REVOKED_KEY, "jti-expired");
+    }
+
+    @Test
+    void keepsTheCurrentFilterWhenARebuildFails() {
+        when(stringRedisTemplate.opsForZSet()).thenReturn(zSetOperations);
+        service.onMessage(message("jti-1"), null);
+        when(zSetOperations.removeRangeByScore(eq(REVOKED_KEY), anyDouble(), anyDouble()))
+                .thenThrow(new RedisConnectionFailureException("Connection refused"));
+
+        service.rebuild();
+
+        when(zSetOperations.score(REVOKED_KEY, "jti-1")).thenReturn(1.0);
+        assertThat(service.isRevoked("jti-1")).isTrue();
+    }
+
+    private static DefaultMessage message(String tokenId) {
+        return new DefaultMessage("jwt:revocations".getBytes(StandardCharsets.UTF_8),
+                tokenId.getBytes(StandardCharsets.UTF_8));
+    }
+}
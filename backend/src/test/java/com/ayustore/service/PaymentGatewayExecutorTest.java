@@ -0,0 +1,128 @@
+package com.ayustore.service;
+
+import com.ayustore.exception.PaymentException;
+import com.ayustore.exception.ServiceUnavailableException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.mock;
+
+// Drives the bulkhead and circuit breaker with the simulated gateway, injecting latency and failures
+class PaymentGatewayExecutorTest {
+
+    private final SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(
+            mock(RazorpaySignatureVerifier.class), mock(PaymentWebhookService.class), new ObjectMapper());
+    private final AtomicInteger gatewayCalls = new AtomicInteger();
+    private final List<Thread> callers = new ArrayList<>();
+    private PaymentGatewayExecutor executor;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdown();
+        for (Thread caller : callers) {
+            caller.interrupt();
+            caller.join(5_000);
+        }
+    }
+
+    @Test
+    void rejectsCallsOnceThePoolAndQueueAreFull() {
+        simulate(2_000, 0.0);
+        executor = new PaymentGatewayExecutor(2, 1, 10_000, 5, 30_000);
+
+        // Two calls occupy the pool and one waits in the queue; each caller is parked in future.get
+        for (int i = 0; i < 3; i++) {
+            Thread caller = new Thread(this::createOrderQuietly);
+            callers.add(caller);
+            caller.start();
+            await().atMost(Duration.ofSeconds(5)).until(() -> caller.getState() == Thread.State.TIMED_WAITING);
+        }
+
+        long start = System.nanoTime();
+        assertThatThrownBy(this::createOrder)
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("busy");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+        assertThat(gatewayCalls).hasValue(2);
+        // A full bulkhead says nothing about the gateway's health
+        assertThat(executor.isCircuitOpen()).isFalse();
+    }
+
+    @Test
+    void opensTheCircuitAfterConsecutiveFailuresAndFailsFast() {
+        simulate(10, 1.0);
+        executor = new PaymentGatewayExecutor(4, 4, 1_000, 3, 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(this::createOrder).isInstanceOf(PaymentException.class);
+        }
+        assertThat(executor.isCircuitOpen()).isTrue();
+
+        assertThatThrownBy(this::createOrder)
+                .isInstanceOf(ServiceUnavailableException.class)
+                .hasMessageContaining("temporarily unavailable");
+        assertThat(gatewayCalls).hasValue(3);
+    }
+
+    @Test
+    void countsTimeoutsAsFailures() {
+        simulate(1_000, 0.0);
+        executor = new PaymentGatewayExecutor(4, 4, 50, 2, 60_000);
+
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            assertThatThrownBy(this::createOrder)
+                    .isInstanceOf(ServiceUnavailableException.class)
+                    .hasMessageContaining("timed out");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(500));
+        }
+        assertThat(executor.isCircuitOpen()).isTrue();
+    }
+
+    @Test
+    void closesAgainAfterASuccessfulTrialCall() {
+        simulate(5, 1.0);
+        executor = new PaymentGatewayExecutor(4, 4, 1_000, 2, 200);
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(this::createOrder).isInstanceOf(PaymentException.class);
+        }
+        assertThatThrownBy(this::createOrder).isInstanceOf(ServiceUnavailableException.class);
+
+        // The gateway recovers; once the cool-down ends a single trial goes through and closes the circuit
+        ReflectionTestUtils.setField(gateway, "failureRate", 0.0);
+        await().atMost(Duration.ofSeconds(5)).until(() -> !executor.isCircuitOpen());
+        assertThat(createOrder()).startsWith("order_sim");
+        assertThat(createOrder()).startsWith("order_sim");
+    }
+
+    private void simulate(long latencyMs, double failureRate) {
+        ReflectionTestUtils.setField(gateway, "minLatencyMs", latencyMs);
+        ReflectionTestUtils.setField(gateway, "meanLatencyMs", latencyMs);
+        ReflectionTestUtils.setField(gateway, "failureRate", failureRate);
+    }
+
+    private String createOrder() {
+        return executor.call("createOrder", () -> {
+            gatewayCalls.incrementAndGet();
+            return gateway.createOrder(49_900, "INR", "receipt");
+        });
+    }
+
+    private void createOrderQuietly() {
+        try {
+            createOrder();
+        } catch (RuntimeException e) {
+            // Cut short at the end of the test
+        }
+    }
+}
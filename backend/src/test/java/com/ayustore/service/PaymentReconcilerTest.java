@@ -0,0 +1,158 @@
+package com.ayustore.service;
+
+import com.ayustore.dto.ReconciliationReportDto;
+import com.ayustore.entity.Money;
+import com.ayustore.entity.Order;
+import com.ayustore.entity.Payment;
+import com.ayustore.exception.PaymentException;
+import com.ayustore.repository.OrderRepository;
+import com.ayustore.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentReconcilerTest {
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final StubGateway gateway = new StubGateway();
+
+    private PaymentReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        reconciler = new PaymentReconciler(paymentRepository, orderRepository, gateway, paymentService,
+                new TransactionTemplate(transactionManager), 2, 1_000);
+        ReflectionTestUtils.setField(reconciler, "lookbackHours", 48L);
+        ReflectionTestUtils.setField(reconciler, "abandonAfterMinutes", 60L);
+        ReflectionTestUtils.setField(reconciler, "pageSize", 200);
+        ReflectionTestUtils.setField(reconciler, "maxReported", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reconciler.shutdown();
+    }
+
+    @Test
+    void completesPaidPaymentsStoresPaymentIdAndInvalidatesGatewayOrders() {
+        Payment paid = payment("order_paid", Payment.PaymentStatus.PENDING, LocalDateTime.now());
+        gateway.orders.put("order_paid", "paid");
+        gateway.captured.put("order_paid", "pay_123");
+        when(paymentRepository.findReconciliationPage(any(), any(), any())).thenReturn(List.of(paid));
+        when(paymentRepository.markCompleted(eq(List.of(paid.getId())), any())).thenReturn(1);
+
+        assertThat(reconciler.reconcile()).isTrue();
+
+        verify(paymentRepository).setRazorpayPaymentIdIfMissing(paid.getId(), "pay_123");
+        verify(orderRepository).markPaidOrdersProcessing(eq(List.of(paid.getId())), any());
+        verify(paymentService).invalidateGatewayOrders(List.of(paid.getOrder().getId()));
+        ReconciliationReportDto report = reconciler.getLastReport();
+        assertThat(report.getScanned()).isEqualTo(1);
+        assertThat(report.getMarkedCompleted()).isEqualTo(1);
+        assertThat(report.getDiscrepancies()).singleElement()
+                .satisfies(discrepancy -> assertThat(discrepancy.getAction()).isEqualTo("MARKED_COMPLETED"));
+    }
+
+    @Test
+    void failsAbandonedPaymentsAndOnlyReportsOtherDisagreements() {
+        Payment abandoned = payment("order_abandoned", Payment.PaymentStatus.PENDING,
+                LocalDateTime.now().minusHours(3));
+        Payment recent = payment("order_recent", Payment.PaymentStatus.PENDING, LocalDateTime.now());
+        Payment unpaidButCompleted = payment("order_review", Payment.PaymentStatus.COMPLETED, LocalDateTime.now());
+        gateway.orders.put("order_abandoned", "attempted");
+        gateway.orders.put("order_recent", "created");
+        gateway.orders.put("order_review", "attempted");
+        when(paymentRepository.findReconciliationPage(any(), any(), any()))
+                .thenReturn(List.of(abandoned, recent, unpaidButCompleted));
+        when(paymentRepository.markFailed(List.of(abandoned.getId()))).thenReturn(1);
+
+        reconciler.reconcile();
+
+        verify(paymentRepository, never()).markCompleted(any(), any());
+        verify(paymentService, never()).invalidateGatewayOrders(any());
+        ReconciliationReportDto report = reconciler.getLastReport();
+        assertThat(report.getMarkedFailed()).isEqualTo(1);
+        assertThat(report.getDiscrepancies()).extracting(ReconciliationReportDto.Discrepancy::getAction)
+                .containsExactlyInAnyOrder("MARKED_FAILED", "REVIEW");
+    }
+
+    @Test
+    void countsGatewayErrorsWithoutTouchingThePayment() {
+        Payment unknown = payment("order_missing", Payment.PaymentStatus.PENDING, LocalDateTime.now());
+        when(paymentRepository.findReconciliationPage(any(), any(), any())).thenReturn(List.of(unknown));
+
+        reconciler.reconcile();
+
+        verify(paymentRepository, never()).markCompleted(any(), any());
+        verify(paymentRepository, never()).setRazorpayPaymentIdIfMissing(any(), anyString());
+        assertThat(reconciler.getLastReport().getGatewayErrors()).isEqualTo(1);
+    }
+
+    private static Payment payment(String razorpayOrderId, Payment.PaymentStatus status, LocalDateTime createdAt) {
+        return Payment.builder()
+                .id(UUID.randomUUID())
+                .order(Order.builder().id(UUID.randomUUID()).build())
+                .razorpayOrderId(razorpayOrderId)
+                .amount(Money.ofPaise(49_900))
+                .status(status)
+                .createdAt(createdAt)
+                .build();
+    }
+
+    private static final class StubGateway implements PaymentGateway {
+
+        final Map<String, String> orders = new HashMap<>();
+        final Map<String, String> captured = new HashMap<>();
+
+        @Override
+        public String createOrder(long amountInPaise, String currency, String receipt) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String fetchOrderStatus(String gatewayOrderId) {
+            String status = orders.get(gatewayOrderId);
+            if (status == null) {
+                throw new PaymentException("Payment gateway returned status 404");
+            }
+            return status;
+        }
+
+        @Override
+        public String fetchCapturedPaymentId(String gatewayOrderId) {
+            return captured.get(gatewayOrderId);
+        }
+    }
+}
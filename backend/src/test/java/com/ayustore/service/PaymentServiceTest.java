@@ -0,0 +1,195 @@
+package com.ayustore.service;
+
+import com.ayustore.config.RazorpayConfig;
+import com.ayustore.dto.RazorpayOrderResponse;
+import com.ayustore.entity.Money;
+import com.ayustore.entity.Order;
+import com.ayustore.entity.Payment;
+import com.ayustore.repository.OrderRepository;
+import com.ayustore.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Checkout's gateway round-trip against the simulated gateway, with a counting DataSource standing in
+// for the pool: the slow call must run between the two short transactions, never inside one
+@ExtendWith(MockitoExtension.class)
+class PaymentServiceTest {
+
+    private static final int CONCURRENT_CHECKOUTS = 8;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private RazorpayConfig razorpayConfig;
+
+    private final SimulatedPaymentGateway simulatedGateway = new SimulatedPaymentGateway(
+            mock(RazorpaySignatureVerifier.class), mock(PaymentWebhookService.class), new ObjectMapper());
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final AtomicInteger borrowedConnections = new AtomicInteger();
+    private final List<Integer> openDuringGatewayCalls = new CopyOnWriteArrayList<>();
+
+    private PaymentGatewayExecutor gatewayExecutor;
+    private PaymentService paymentService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(simulatedGateway, "minLatencyMs", 200L);
+        ReflectionTestUtils.setField(simulatedGateway, "meanLatencyMs", 200L);
+        ReflectionTestUtils.setField(simulatedGateway, "failureRate", 0.0);
+
+        gatewayExecutor = new PaymentGatewayExecutor(CONCURRENT_CHECKOUTS, CONCURRENT_CHECKOUTS, 5_000, 5, 30_000);
+        paymentService = new PaymentService(paymentRepository, orderRepository, observing(simulatedGateway, () -> { }),
+                gatewayExecutor, razorpayConfig, mock(RazorpaySignatureVerifier.class),
+                new TransactionTemplate(new DataSourceTransactionManager(countingDataSource())));
+        paymentService.setGatewayOrderCacheTtl(600);
+
+        Order order = Order.builder()
+                .total(Money.of("499.00"))
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(orderRepository.findById(any())).thenReturn(Optional.of(order));
+        when(orderRepository.getReferenceById(any())).thenReturn(order);
+        when(paymentRepository.findByOrderId(any())).thenReturn(Optional.empty());
+        when(paymentRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(razorpayConfig.getKeyId()).thenReturn("rzp_test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        gatewayExecutor.shutdown();
+    }
+
+    @Test
+    void releasesTheConnectionWhileTheGatewayIsCalled() {
+        UUID orderId = UUID.randomUUID();
+
+        RazorpayOrderResponse response = paymentService.createRazorpayOrder(orderId);
+
+        assertThat(response.getRazorpayOrderId()).startsWith("order_sim");
+        assertThat(response.getAmount()).isEqualTo(Money.of("499.00"));
+        assertThat(openDuringGatewayCalls).containsExactly(0);
+        // One connection for the lookup and one for the write, each returned before the next is taken
+        assertThat(borrowedConnections).hasValue(2);
+        assertThat(openConnections).hasValue(0);
+    }
+
+    @Test
+    void concurrentCheckoutsHoldNoConnectionsWhileWaitingOnTheGateway() throws Exception {
+        // Every call parks in the gateway until all of them are in flight, then looks at the pool
+        CyclicBarrier allInFlight = new CyclicBarrier(CONCURRENT_CHECKOUTS);
+        PaymentGateway gateway = observing(simulatedGateway, () -> {
+            try {
+                allInFlight.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        ReflectionTestUtils.setField(paymentService, "paymentGateway", gateway);
+
+        ExecutorService checkouts = Executors.newFixedThreadPool(CONCURRENT_CHECKOUTS);
+        try {
+            List<Future<RazorpayOrderResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_CHECKOUTS; i++) {
+                responses.add(checkouts.submit(() -> paymentService.createRazorpayOrder(UUID.randomUUID())));
+            }
+            for (Future<RazorpayOrderResponse> response : responses) {
+                assertThat(response.get(10, TimeUnit.SECONDS).getRazorpayOrderId()).startsWith("order_sim");
+            }
+        } finally {
+            checkouts.shutdownNow();
+        }
+
+        assertThat(openDuringGatewayCalls).hasSize(CONCURRENT_CHECKOUTS).containsOnly(0);
+        assertThat(borrowedConnections).hasValue(2 * CONCURRENT_CHECKOUTS);
+        assertThat(openConnections).hasValue(0);
+    }
+
+    @Test
+    void handsOutTheWinnersGatewayOrderWhenThePaymentInsertLosesARace() {
+        UUID orderId = UUID.randomUUID();
+        Payment winner = Payment.builder()
+                .razorpayOrderId("order_winner")
+                .amount(Money.of("499.00"))
+                .build();
+        // The lookup sees no payment; by the time ours is inserted another node has created one
+        when(paymentRepository.findByOrderId(orderId)).thenReturn(Optional.empty(), Optional.of(winner));
+        when(paymentRepository.saveAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates uk_payments_order_id"));
+
+        RazorpayOrderResponse response = paymentService.createRazorpayOrder(orderId);
+
+        assertThat(response.getRazorpayOrderId()).isEqualTo("order_winner");
+        assertThat(response.getAmount()).isEqualTo(Money.of("499.00"));
+        assertThat(openConnections).hasValue(0);
+        // Repeat clicks keep getting the winner's gateway order
+        assertThat(paymentService.createRazorpayOrder(orderId).getRazorpayOrderId()).isEqualTo("order_winner");
+    }
+
+    // Notes how many connections are checked out at the moment the gateway is entered
+    private PaymentGateway observing(PaymentGateway delegate, Runnable beforeObserving) {
+        return new PaymentGateway() {
+            @Override
+            public String createOrder(long amountInPaise, String currency, String receipt) {
+                beforeObserving.run();
+                openDuringGatewayCalls.add(openConnections.get());
+                return delegate.createOrder(amountInPaise, currency, receipt);
+            }
+
+            @Override
+            public String fetchOrderStatus(String gatewayOrderId) {
+                return delegate.fetchOrderStatus(gatewayOrderId);
+            }
+
+            @Override
+            public String fetchCapturedPaymentId(String gatewayOrderId) {
+                return delegate.fetchCapturedPaymentId(gatewayOrderId);
+            }
+        };
+    }
+
+    private DataSource countingDataSource() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> {
+            Connection connection = mock(Connection.class);
+            doAnswer(close -> openConnections.decrementAndGet()).when(connection).close();
+            borrowedConnections.incrementAndGet();
+            openConnections.incrementAndGet();
+            return connection;
+        });
+        return dataSource;
+    }
+}
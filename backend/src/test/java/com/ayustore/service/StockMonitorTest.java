@@ -0,0 +1,213 @@
+package com.ayustore.service;
+
+import com.ayustore.config.InventoryProperties;
+import com.ayustore.dto.LowStockItemDto;
+import com.ayustore.entity.Product;
+import com.ayustore.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+// Events are queued straight away here, as there is no transaction to wait for; each test plays the
+// order in which a sale's commit, its event and the rebuild's read can interleave
+@ExtendWith(MockitoExtension.class)
+class StockMonitorTest {
+
+    private static final long TEA = 1L;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private StockMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        InventoryProperties properties = new InventoryProperties();
+        properties.setDefaultThreshold(5);
+        monitor = new StockMonitor(productRepository, properties);
+    }
+
+    @Test
+    void appliesSalesIncrementallyAndOrdersByUrgency() {
+        when(productRepository.findActiveStockLevels()).thenReturn(rows(
+                row(TEA, "Tea", 10, 5, 3L),
+                row(2L, "Ghee", 4, 5, 7L),
+                row(3L, "Honey", 50, 100, 1L)));
+        monitor.rebuild();
+        // Half of its threshold is more urgent than four fifths
+        assertThat(ids(monitor.getLowStock(10))).containsExactly(3L, 2L);
+
+        monitor.stockDecremented(TEA, 10, 4L);
+        monitor.drain();
+
+        List<LowStockItemDto> low = monitor.getLowStock(10);
+        assertThat(ids(low)).containsExactly(TEA, 3L, 2L);
+        assertThat(low.get(0).getStock()).isZero();
+        assertThat(low.get(0).isOutOfStock()).isTrue();
+        assertThat(monitor.getLowStock(1)).hasSize(1);
+    }
+
+    @Test
+    void dropsASaleTheRebuildAlreadyReadWhenItsEventIsLate() {
+        when(productRepository.findActiveStockLevels()).thenReturn(rows(row(TEA, "Tea", 10, null, 3L)));
+        monitor.rebuild();
+
+        // The sale commits at version 4, and the next rebuild reads its result before the event lands
+        when(productRepository.findActiveStockLevels()).thenReturn(rows(row(TEA, "Tea", 6, null, 4L)));
+        monitor.rebuild();
+        monitor.stockDecremented(TEA, 4, 4L);
+        monitor.drain();
+
+        assertThat(stockOf(TEA)).isEqualTo(6);
+    }
+
+    @Test
+    void dropsASaleTheRebuildAlreadyReadWhenItsEventIsQueuedFirst() {
+        when(productRepository.findActiveStockLevels()).thenReturn(rows(row(TEA, "Tea", 10, null, 3L)));
+        monitor.rebuild();
+
+        // Queued before the rebuild takes the lock, so it is applied to the old ledger and then rebased away
+        monitor.stockDecremented(TEA, 4, 4L);
+        when(productRepository.findActiveStockLevels()).thenReturn(rows(row(TEA, "Tea", 6, null, 4L)));
+        monitor.rebuild();
+
+        assertThat(stockOf(TEA)).isEqualTo(6);
+    }
+
+    @Test
+    void keepsASaleCommittedAfterTheRebuildRead() {
+        when(productRepository.findActiveStockLevels()).thenReturn(rows(row(TEA, "Tea", 10, null, 3L)));
+        monitor.rebuild();
+
+        // The read sees version 3; the sale commits at version 4 and queues its event before the lock
+        when(productRepository.findActiveStockLevels()).thenAnswer(invocation -> {
+            List<Object[]> read = rows(row(TEA, "Tea", 10, null, 3L));
+            monitor.stockDecremented(TEA, 4, 4L);
+            return read;
+        });
+        monitor.rebuild();
+        assertThat(stockOf(TEA)).isEqualTo(6);
+
+        // And one whose event only lands after the rebuild
+        monitor.stockDecremented(TEA, 3, 5L);
+        monitor.drain();
+        assertThat(stockOf(TEA)).isEqualTo(3);
+    }
+
+    @Test
+    void appliesEachEventOnce() {
+        when(productRepository.findActiveStockLevels()).thenReturn(rows(row(TEA, "Tea", 10, null, 3L)));
+        monitor.rebuild();
+
+        monitor.stockDecremented(TEA, 2, 4L);
+        monitor.stockDecremented(TEA, 2, 4L);
+        monitor.drain();
+        monitor.stockDecremented(TEA, 2, 4L);
+        monitor.drain();
+
+        assertThat(stockOf(TEA)).isEqualTo(8);
+    }
+
+    @Test
+    void ignoresAnAdminEditOlderThanWhatItHolds() {
+        when(productRepository.findActiveStockLevels()).thenReturn(rows(row(TEA, "Tea", 10, null, 3L)));
+        monitor.rebuild();
+        monitor.stockDecremented(TEA, 8, 5L);
+        monitor.drain();
+
+        // A restock at version 4 whose event arrives after the sale at version 5
+        monitor.stockChanged(product(TEA, 50, true, 4L));
+        monitor.stockChanged(product(TEA, 42, true, 6L));
+        monitor.drain();
+
+        assertThat(stockOf(TEA)).isEqualTo(42);
+    }
+
+    @Test
+    void forgetsARemovedProduct() {
+        when(productRepository.findActiveStockLevels()).thenReturn(rows(row(TEA, "Tea", 1, null, 3L)));
+        monitor.rebuild();
+        assertThat(ids(monitor.getLowStock(10))).containsExactly(TEA);
+
+        monitor.stockChanged(product(TEA, 1, false, 4L));
+        // A sale that committed before the removal but whose event was slower
+        monitor.stockDecremented(TEA, 1, 3L);
+        monitor.drain();
+
+        assertThat(monitor.getLowStock(10)).isEmpty();
+    }
+
+    @Test
+    void doesNotResurrectAProductRemovedWhileTheRebuildWasReading() {
+        when(productRepository.findActiveStockLevels()).thenReturn(rows(row(TEA, "Tea", 1, null, 3L)));
+        monitor.rebuild();
+
+        // The read still sees the product active; its removal commits before the rebuild takes the lock
+        when(productRepository.findActiveStockLevels()).thenAnswer(invocation -> {
+            List<Object[]> read = rows(row(TEA, "Tea", 1, null, 3L));
+            monitor.stockChanged(product(TEA, 1, false, 4L));
+            return read;
+        });
+        monitor.rebuild();
+        assertThat(monitor.getLowStock(10)).isEmpty();
+
+        // Once the database no longer lists it, the tombstone goes too, and a reactivation brings it back
+        when(productRepository.findActiveStockLevels()).thenReturn(rows());
+        monitor.rebuild();
+        monitor.stockChanged(product(TEA, 2, true, 5L));
+        monitor.drain();
+        assertThat(stockOf(TEA)).isEqualTo(2);
+    }
+
+    @Test
+    void waitsForARebuildToLearnAboutProductsCreatedElsewhere() {
+        when(productRepository.findActiveStockLevels()).thenReturn(rows());
+        monitor.rebuild();
+
+        monitor.stockDecremented(99L, 1, 2L);
+        monitor.drain();
+
+        assertThat(monitor.getLowStock(10)).isEmpty();
+    }
+
+    private int stockOf(long productId) {
+        return monitor.getLowStock(Integer.MAX_VALUE).stream()
+                .filter(item -> item.getProductId() == productId)
+                .findFirst()
+                .map(LowStockItemDto::getStock)
+                .orElseThrow(() -> new AssertionError("Product " + productId + " is not listed as low"));
+    }
+
+    private static List<Long> ids(List<LowStockItemDto> items) {
+        return items.stream().map(LowStockItemDto::getProductId).toList();
+    }
+
+    private static Product product(long id, int stock, boolean active, long version) {
+        return Product.builder()
+                .id(id)
+                .name("Tea")
+                .category("Beverages")
+                .stock(stock)
+                .lowStockThreshold(100)
+                .isActive(active)
+                .version(version)
+                .build();
+    }
+
+    private static Object[] row(long id, String name, int stock, Integer threshold, long version) {
+        // Thresholds are generous so the product stays listed and its stock can be read back
+        return new Object[] {id, name, "Beverages", stock, threshold != null ? threshold : 100, version};
+    }
+
+    private static List<Object[]> rows(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -31,6 +31,7 @@ export const AuthProvider: React.FC<{ children: React.ReactNode }> = ({ children
         } catch (err) {
             console.error('Auth check failed:', err);
             localStorage.removeItem('auth_token');
+            localStorage.removeItem('refresh_token');
             setUser(null);
             return false;
         } finally {
@@ -82,6 +82,9 @@ const Login: React.FC = () => {
         const response = await AuthService.login(formData.email, formData.password);
         if (response.data?.token) {
           localStorage.setItem('auth_token', response.data.token);
+          if (response.data.refreshToken) {
+            localStorage.setItem('refresh_token', response.data.refreshToken);
+          }
           await checkAuth();
           const redirectPath = localStorage.getItem('redirectAfterLogin') || '/';
           localStorage.removeItem('redirectAfterLogin');
@@ -119,6 +122,9 @@ const Login: React.FC = () => {
 
         if (response.data?.token) {
           localStorage.setItem('auth_token', response.data.token);
+          if (response.data.refreshToken) {
+            localStorage.setItem('refresh_token', response.data.refreshToken);
+          }
           await checkAuth();
           const redirectPath = localStorage.getItem('redirectAfterLogin') || '/';
           localStorage.removeItem('redirectAfterLogin');
@@ -20,6 +20,10 @@ const OAuthCallback: React.FC = () => {
         if (token) {
             console.log('OAuth callback: Token received, saving to localStorage');
             localStorage.setItem('auth_token', token);
+            const refreshToken = searchParams.get('refreshToken');
+            if (refreshToken) {
+                localStorage.setItem('refresh_token', refreshToken);
+            }
 
             // Check auth and redirect to home or stored redirect path
             checkAuth().then((isAuthenticated) => {
@@ -126,6 +126,53 @@ api.interceptors.response.use(
   }
 );
 
+// Access tokens are short-lived: on a 401, swap the refresh token for a new pair once and retry.
+// Concurrent 401s share a single refresh request so the rotated refresh token is only spent once.
+let refreshInFlight: Promise<string | null> | null = null;
+
+const refreshAccessToken = (): Promise<string | null> => {
+  const refreshToken = localStorage.getItem('refresh_token');
+  if (!refreshToken) {
+    return Promise.resolve(null);
+  }
+  if (!refreshInFlight) {
+    refreshInFlight = axios
+      .post<{ token: string; refreshToken: string }>(`${BASE_URL}/auth/refresh`, { refreshToken })
+      .then((res) => {
+        localStorage.setItem('auth_token', res.data.token);
+        localStorage.setItem('refresh_token', res.data.refreshToken);
+        return res.data.token;
+      })
+      .catch(() => {
+        localStorage.removeItem('auth_token');
+        localStorage.removeItem('refresh_token');
+        return null;
+      })
+      .finally(() => {
+        refreshInFlight = null;
+      });
+  }
+  return refreshInFlight;
+};
+
+api.interceptors.response.use(
+  (response) => response,
+  async (error) => {
+    const config = error.config;
+    const url: string | undefined = config?.url;
+    const isAuthCall = url?.includes('/auth/login') || url?.includes('/auth/register') || url?.includes('/auth/refresh');
+    if (error.response?.status === 401 && config && !config._retried && !isAuthCall) {
+      config._retried = true;
+      const token = await refreshAccessToken();
+      if (token) {
+        config.headers.Authorization = `Bearer ${token}`;
+        return api(config);
+      }
+    }
+    return Promise.reject(error);
+  }
+);
+
 export const ProductService = {
   getAll: () => api.get<Product[]>('/products'),
   getById: (id: string) => api.get<Product>(`/products/${id}`),
@@ -136,11 +183,11 @@ export const ProductService = {
 export const AuthService = {
   // Email/Password Login
   login: (email: string, password: string) =>
-    api.post<{ token: string; user: User }>('/auth/login', { email, password }),
+    api.post<{ token: string; refreshToken?: string; user: User }>('/auth/login', { email, password }),
 
   // Registration
   register: (data: { name: string; email: string; phone?: string; password: string }) =>
-    api.post<{ token: string; user: User }>('/auth/register', data),
+    api.post<{ token: string; refreshToken?: string; user: User }>('/auth/register', data),
 
   // Redirect to Google OAuth
   initiateGoogleLogin: () => {
@@ -153,13 +200,23 @@ export const AuthService = {
     if (tokenMatch) {
       const token = tokenMatch[1];
       localStorage.setItem('auth_token', token);
+      const refreshMatch = hash.match(/refreshToken=([^&]+)/);
+      if (refreshMatch) {
+        localStorage.setItem('refresh_token', refreshMatch[1]);
+      }
       return { token };
     }
     return null;
   },
   getProfile: () => api.get<User>('/auth/me'),
   logout: () => {
+    const refreshToken = localStorage.getItem('refresh_token');
+    if (localStorage.getItem('auth_token')) {
+      // Best effort: revoke server-side, local sign-out does not wait for it
+      api.post('/auth/logout', { refreshToken }).catch(() => undefined);
+    }
     localStorage.removeItem('auth_token');
+    localStorage.removeItem('refresh_token');
   },
   isAuthenticated: () => !!localStorage.getItem('auth_token'),
 };
@@ -187,7 +244,9 @@ export const AdminService = {
   createProduct: (data: any) => api.post('/admin/products', data),
   updateProduct: (id: string, data: any) => api.put(`/admin/products/${id}`, data),
   deleteProduct: (id: string) => api.delete(`/admin/products/${id}`),
-  getAllUsers: () => api.get('/admin/users'),
+  // Keyset paginated: pass the previous page's nextCursor as cursor
+  getUsers: (params: { cursor?: string; size?: number; role?: string; provider?: string; q?: string } = {}) =>
+    api.get<{ items: any[]; nextCursor: string | null; hasMore: boolean }>('/admin/users', { params }),
 };
 
 export default api;
\ No newline at end of file